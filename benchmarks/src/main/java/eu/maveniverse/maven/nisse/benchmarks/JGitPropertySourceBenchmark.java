@@ -0,0 +1,110 @@
+/*
+ * Copyright (c) 2023-2024 Maveniverse Org.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-v20.html
+ */
+package eu.maveniverse.maven.nisse.benchmarks;
+
+import eu.maveniverse.maven.nisse.core.NisseConfiguration;
+import eu.maveniverse.maven.nisse.core.simple.SimpleNisseConfiguration;
+import eu.maveniverse.maven.nisse.source.jgit.JGitPropertySource;
+import eu.maveniverse.maven.nisse.source.jgit.fixtures.SyntheticRepository;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks the history and working tree dependent paths of {@link JGitPropertySource} over synthetic repositories
+ * of various sizes and topologies, with JGit storage profiles. Each path is isolated by "referenced only" evaluation
+ * of a single property, through the public {@link JGitPropertySource#getProperties(NisseConfiguration)}, with warm
+ * cache disabled. Each parameter combination runs in a fresh JVM, as JGit storage configuration is global to JVM.
+ * <p>
+ * Comparing scores over {@code commits} and {@code tags} shows how time scales with history: it should grow roughly
+ * linearly. Allocation scaling is asserted by {@code JGitScalingTest} of jgit-source.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JGitPropertySourceBenchmark {
+    @Param({"100", "1000", "10000"})
+    public int commits;
+
+    @Param({"10", "100"})
+    public int tags;
+
+    @Param({"0", "10"})
+    public int mergeEvery;
+
+    @Param({"default", "auto"})
+    public String storage;
+
+    /**
+     * The only referenced property of source: {@code dynamicVersion} walks history and tags (including version
+     * hint tags), {@code countingVersion} walks history, and {@code clean} scans the working tree.
+     */
+    @Param({"dynamicVersion", "countingVersion", "clean"})
+    public String property;
+
+    private SyntheticRepository repository;
+
+    private JGitPropertySource source;
+
+    private NisseConfiguration configuration;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        repository = SyntheticRepository.builder()
+                .commits(commits)
+                .tags(tags)
+                .mergeEvery(mergeEvery)
+                .create(Files.createTempDirectory("nisse-bench"));
+        source = new JGitPropertySource();
+
+        Map<String, String> systemProperties = new HashMap<>();
+        systemProperties.put("nisse.source.jgit.warmCache", "false");
+        systemProperties.put("nisse.source.jgit.storage", storage);
+        if (!"clean".equals(property)) {
+            systemProperties.put("nisse.source.jgit." + property, "true");
+        }
+        systemProperties.put(NisseConfiguration.CONFIGURATION_REFERENCED_ONLY, "true");
+        systemProperties.put(NisseConfiguration.SOURCE_PREFIX + "inlinedKeys", "nisse.jgit." + property);
+        configuration = SimpleNisseConfiguration.builder()
+                .withSystemProperties(systemProperties)
+                .withCurrentWorkingDirectory(repository.directory())
+                .withSessionRootDirectory(repository.directory())
+                .withDetectReferencedPropertyKeys(true)
+                .build();
+        if (!configuration.isPropertyKeyReferenced(source, property)) {
+            throw new IllegalStateException("Property " + property + " is not referenced");
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        repository.delete();
+    }
+
+    @Benchmark
+    public Map<String, String> getProperties() {
+        return source.getProperties(configuration);
+    }
+}
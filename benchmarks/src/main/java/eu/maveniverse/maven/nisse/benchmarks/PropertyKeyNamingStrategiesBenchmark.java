@@ -0,0 +1,99 @@
+/*
+ * Copyright (c) 2023-2024 Maveniverse Org.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-v20.html
+ */
+package eu.maveniverse.maven.nisse.benchmarks;
+
+import eu.maveniverse.maven.nisse.core.PropertyKeyNamingStrategies;
+import eu.maveniverse.maven.nisse.core.PropertySource;
+import eu.maveniverse.maven.nisse.source.jgit.JGitPropertySource;
+import eu.maveniverse.maven.nisse.source.osdetector.OsDetectorPropertySource;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks compositions of {@link PropertyKeyNamingStrategies}, applied to the keys of the "jgit" and "os" sources,
+ * as done for every property of every source on each property creation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PropertyKeyNamingStrategiesBenchmark {
+    private static final List<String> JGIT_KEYS = Arrays.asList(
+            "commit", "shortCommitId", "date", "author", "committer", "dynamicVersion", "clean", "branchName");
+
+    private static final List<String> OS_KEYS =
+            Arrays.asList("name", "arch", "version", "bitness", "classifier", "release", "release.version");
+
+    @Param({"default", "memoizedDefault", "osDetector", "translated"})
+    public String strategy;
+
+    private BiFunction<PropertySource, String, List<String>> function;
+
+    private PropertySource jgit;
+
+    private PropertySource os;
+
+    @Setup
+    public void setup() {
+        jgit = new JGitPropertySource();
+        os = new OsDetectorPropertySource();
+        switch (strategy) {
+            case "default":
+                function = PropertyKeyNamingStrategies.defaultStrategy();
+                break;
+            case "memoizedDefault":
+                function = PropertyKeyNamingStrategies.memoized(PropertyKeyNamingStrategies.defaultStrategy());
+                break;
+            case "osDetector":
+                function = PropertyKeyNamingStrategies.fork(
+                        PropertyKeyNamingStrategies.defaultStrategy(), PropertyKeyNamingStrategies.osDetector());
+                break;
+            case "translated":
+                Map<String, List<String>> translation = new HashMap<>();
+                translation.put("jgit.commit", Arrays.asList("git.commit", "+fallback"));
+                translation.put("jgit.shortCommitId", Collections.singletonList("git.shortCommitId"));
+                translation.put("os.classifier", Collections.emptyList());
+                function = PropertyKeyNamingStrategies.translated(
+                        translation,
+                        PropertyKeyNamingStrategies.sourcePrefixed(),
+                        PropertyKeyNamingStrategies.defaultStrategy());
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown strategy " + strategy);
+        }
+    }
+
+    @Benchmark
+    public void apply(Blackhole blackhole) {
+        for (String key : JGIT_KEYS) {
+            blackhole.consume(function.apply(jgit, key));
+        }
+        for (String key : OS_KEYS) {
+            blackhole.consume(function.apply(os, key));
+        }
+    }
+}
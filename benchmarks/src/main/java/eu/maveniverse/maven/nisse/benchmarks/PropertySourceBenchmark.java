@@ -0,0 +1,104 @@
+/*
+ * Copyright (c) 2023-2024 Maveniverse Org.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-v20.html
+ */
+package eu.maveniverse.maven.nisse.benchmarks;
+
+import eu.maveniverse.maven.nisse.core.NisseConfiguration;
+import eu.maveniverse.maven.nisse.core.PropertySource;
+import eu.maveniverse.maven.nisse.core.simple.SimpleNisseConfiguration;
+import eu.maveniverse.maven.nisse.source.file.PropertyFilePropertySource;
+import eu.maveniverse.maven.nisse.source.jgit.JGitPropertySource;
+import eu.maveniverse.maven.nisse.source.jgit.fixtures.SyntheticRepository;
+import eu.maveniverse.maven.nisse.source.mvn.MvnPropertySource;
+import eu.maveniverse.maven.nisse.source.osdetector.OsDetectorPropertySource;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks {@link PropertySource#getProperties(NisseConfiguration)} of each source. The JGit source runs over a
+ * synthetic repository with its warm cache disabled, so every invocation does the actual work.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PropertySourceBenchmark {
+    @Param({"file", "jgit", "mvn", "os"})
+    public String source;
+
+    private SyntheticRepository repository;
+
+    private PropertySource propertySource;
+
+    private NisseConfiguration configuration;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        repository = SyntheticRepository.builder()
+                .commits(100)
+                .tags(10)
+                .create(Files.createTempDirectory("nisse-bench"));
+        Path directory = repository.directory();
+        Files.write(directory.resolve("build.properties"), "foo=bar\nbaz=qux\n".getBytes(StandardCharsets.UTF_8));
+
+        Map<String, String> systemProperties = new HashMap<>();
+        systemProperties.put("maven.version", "3.9.11");
+        systemProperties.put("nisse.source.jgit.warmCache", "false");
+        Map<String, String> userProperties = new HashMap<>();
+        userProperties.put(PropertyFilePropertySource.FILE_NAME, "build.properties");
+        switch (source) {
+            case PropertyFilePropertySource.NAME:
+                propertySource = new PropertyFilePropertySource();
+                break;
+            case JGitPropertySource.NAME:
+                propertySource = new JGitPropertySource();
+                break;
+            case MvnPropertySource.NAME:
+                propertySource = new MvnPropertySource();
+                break;
+            case OsDetectorPropertySource.NAME:
+                propertySource = new OsDetectorPropertySource();
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown source " + source);
+        }
+        configuration = SimpleNisseConfiguration.builder()
+                .withSystemProperties(systemProperties)
+                .withUserProperties(userProperties)
+                .withCurrentWorkingDirectory(directory)
+                .build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        repository.delete();
+    }
+
+    @Benchmark
+    public Map<String, String> getProperties() {
+        return propertySource.getProperties(configuration);
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright (c) 2023-2024 Maveniverse Org.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-v20.html
+ */
+package eu.maveniverse.maven.nisse.benchmarks;
+
+import eu.maveniverse.maven.nisse.core.NisseConfiguration;
+import eu.maveniverse.maven.nisse.core.simple.SimpleNisseConfiguration;
+import eu.maveniverse.maven.nisse.core.simple.SimpleNisseManager;
+import eu.maveniverse.maven.nisse.source.file.PropertyFilePropertySource;
+import eu.maveniverse.maven.nisse.source.jgit.JGitPropertySource;
+import eu.maveniverse.maven.nisse.source.jgit.fixtures.SyntheticRepository;
+import eu.maveniverse.maven.nisse.source.mvn.MvnPropertySource;
+import eu.maveniverse.maven.nisse.source.osdetector.OsDetectorPropertySource;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks {@link SimpleNisseManager#createProperties(NisseConfiguration)} with all the sources, over a synthetic
+ * repository, as done once per build. With {@code warm} disabled, the JGit source warm cache is disabled as well,
+ * showing the cost of a cold (first) invocation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SimpleNisseManagerBenchmark {
+    @Param({"true", "false"})
+    public boolean warm;
+
+    @Param({"1000"})
+    public int commits;
+
+    private SyntheticRepository repository;
+
+    private SimpleNisseManager manager;
+
+    private NisseConfiguration configuration;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        repository = SyntheticRepository.builder()
+                .commits(commits)
+                .tags(commits / 10)
+                .create(Files.createTempDirectory("nisse-bench"));
+        Path directory = repository.directory();
+        Files.write(directory.resolve("build.properties"), "foo=bar\nbaz=qux\n".getBytes(StandardCharsets.UTF_8));
+
+        Map<String, String> systemProperties = new HashMap<>();
+        systemProperties.put("maven.version", "3.9.11");
+        systemProperties.put("nisse.source.jgit.warmCache", Boolean.toString(warm));
+        systemProperties.put("nisse.source.jgit.sharedRepository", Boolean.toString(warm));
+        systemProperties.put("nisse.source.jgit.dynamicVersion", "true");
+        Map<String, String> userProperties = new HashMap<>();
+        userProperties.put(PropertyFilePropertySource.FILE_NAME, "build.properties");
+        manager = new SimpleNisseManager(Arrays.asList(
+                new PropertyFilePropertySource(),
+                new JGitPropertySource(),
+                new MvnPropertySource(),
+                new OsDetectorPropertySource()));
+        configuration = SimpleNisseConfiguration.builder()
+                .withSystemProperties(systemProperties)
+                .withUserProperties(userProperties)
+                .withCurrentWorkingDirectory(directory)
+                .withSessionRootDirectory(directory)
+                .build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        repository.delete();
+    }
+
+    @Benchmark
+    public Map<String, String> createProperties() {
+        return manager.createProperties(configuration);
+    }
+}
@@ -35,11 +35,69 @@ public interface NisseConfiguration {
      */
     String CONFIGURATION_INSTANCE_KEY = PROPERTY_PREFIX + "configurationInstance";
 
+    /**
+     * The key to use to store created properties in session, as immutable {@code Map<String, String>}. Components
+     * running later in same session (ie. mojos) may reuse them, instead to create them again.
+     */
+    String PROPERTIES_INSTANCE_KEY = PROPERTY_PREFIX + "propertiesInstance";
+
     /**
      * Inliner config: Key to suppress inliner cleanup. To suppress, set this property to {@code true}.
      */
     String CONFIGURATION_INLINER_SUPPRESS_CLEANUP = PROPERTY_PREFIX + "inliner.suppressCleanup";
 
+    /**
+     * Inliner config: Key to keep inlined POMs across builds. To keep them, set this property to {@code true}. Kept
+     * inlined POMs are recorded in {@link #INLINED_POMS_MANIFEST} file in session root directory, and those not needed
+     * anymore are removed by next build. Unchanged inlined POMs are never rewritten, so their modification time is
+     * retained.
+     */
+    String CONFIGURATION_INLINER_KEEP = PROPERTY_PREFIX + "inliner.keep";
+
+    /**
+     * Inliner: The file name prefix of inlined POMs, that are written next to the POM they are inlined from.
+     *
+     * @see #isInlinerFile(String)
+     */
+    String INLINED_POM_PREFIX = ".inlined-";
+
+    /**
+     * Inliner: The file name of manifest of kept inlined POMs, that is written in session root directory.
+     *
+     * @see #isInlinerFile(String)
+     */
+    String INLINED_POMS_MANIFEST = ".nisse-inlined-poms";
+
+    /**
+     * Inliner config: Key to set count of threads used to inline POMs. Defaults to count of available processors,
+     * set it to {@code 1} to inline POMs sequentially.
+     */
+    String CONFIGURATION_INLINER_THREADS = PROPERTY_PREFIX + "inliner.threads";
+
+    /**
+     * Key to request dump of created properties. Value of this key is parsed as boolean string. If set, it also
+     * forces full evaluation of all sources, see {@link #CONFIGURATION_REFERENCED_ONLY}.
+     */
+    String CONFIGURATION_DUMP = PROPERTY_PREFIX + "dump";
+
+    /**
+     * Key to enable "referenced only" evaluation. Value of this key is parsed as boolean string. If enabled, the build
+     * files (reactor POMs and {@code .mvn/maven.config}) are scanned for referenced property keys, and sources are
+     * asked to compute only those properties that are referenced. Is ignored if {@link #CONFIGURATION_DUMP} is set.
+     * <p>
+     * Note: properties referenced only from places not scanned (ie. filtered resources) will not be computed.
+     */
+    String CONFIGURATION_REFERENCED_ONLY = PROPERTY_PREFIX + "referencedOnly";
+
+    /**
+     * Key to enable prefetch: evaluation of expensive sources ({@code jgit} and {@code os}) in background, as soon as
+     * Nisse extension starts processing the build request, overlapping with other startup work of Maven (ie. parsing
+     * of settings and toolchains, and scanning for referenced properties). Value of this key is parsed as boolean
+     * string. Prefetched results are used only by the build that started them, and only if they are valid for its
+     * configuration, otherwise sources are evaluated again.
+     */
+    String CONFIGURATION_PREFETCH = PROPERTY_PREFIX + "prefetch";
+
     /**
      * Returns immutable map of session effective system properties, never {@code null}.
      */
@@ -83,8 +141,34 @@ public interface NisseConfiguration {
      */
     Collection<String> getInlinedPropertyKeys();
 
+    /**
+     * Returns {@code true} if the property with given key (as emitted by given source) is referenced by the build,
+     * hence, it must be computed. Sources may use this method to skip expensive computations of properties that
+     * would be unused anyway. Unless "referenced only" evaluation is in effect, this method returns {@code true}
+     * for every key. A key ending with {@code .} denotes a family of keys, that is referenced if any key of the
+     * family is referenced.
+     * <p>
+     * Default implementation returns {@code true}, hence every property is computed.
+     *
+     * @see #CONFIGURATION_REFERENCED_ONLY
+     * @see PropertySource#getPropertyKeys(NisseConfiguration)
+     */
+    default boolean isPropertyKeyReferenced(PropertySource source, String key) {
+        return true;
+    }
+
     /**
      * Returns the {@link PropertyKeyNamingStrategies} to apply to published properties.
      */
     BiFunction<PropertySource, String, List<String>> propertyKeyNamingStrategy();
+
+    /**
+     * Returns {@code true} if given path (or file name) is a file written by the inliner, ie. an inlined POM or the
+     * manifest of kept ones. These files are build output, and sources should not consider them as changes of the
+     * working tree (ie. when deciding is the checkout "clean").
+     */
+    static boolean isInlinerFile(String path) {
+        String fileName = path.substring(Math.max(path.lastIndexOf('/'), path.lastIndexOf('\\')) + 1);
+        return fileName.startsWith(INLINED_POM_PREFIX) || fileName.equals(INLINED_POMS_MANIFEST);
+    }
 }
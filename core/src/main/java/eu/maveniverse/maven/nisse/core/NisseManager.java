@@ -7,6 +7,7 @@
  */
 package eu.maveniverse.maven.nisse.core;
 
+import java.util.Collection;
 import java.util.Map;
 
 /**
@@ -18,4 +19,19 @@ public interface NisseManager {
      * Keys are also "namespaced" with prefix {@code "nisse.$source."}. Never returns {@code null}.
      */
     Map<String, String> createProperties(NisseConfiguration configuration);
+
+    /**
+     * Starts evaluation of given sources in background, using passed in preliminary configuration. The next
+     * {@link #createProperties(NisseConfiguration)} invocation waits for and uses prefetched results, but only if
+     * they are valid for its configuration as well; otherwise they are discarded and sources are evaluated again.
+     * Prefetched results are never used by later invocations: callers must invoke {@link #discardPrefetch()} if
+     * {@link #createProperties(NisseConfiguration)} is not invoked (ie. due to failure). Default implementation does
+     * nothing.
+     */
+    default void prefetch(NisseConfiguration configuration, Collection<String> sourceNames) {}
+
+    /**
+     * Discards all prefetched results not used yet. Default implementation does nothing.
+     */
+    default void discardPrefetch() {}
 }
@@ -20,6 +20,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.BiFunction;
 import java.util.stream.Collectors;
 
@@ -40,7 +41,7 @@ public interface PropertyKeyNamingStrategies extends BiFunction<PropertySource,
             return strategies.get(0);
         } else {
             return (propertySource, s) -> {
-                ArrayList<String> result = new ArrayList<>();
+                ArrayList<String> result = new ArrayList<>(strategies.size());
                 for (BiFunction<PropertySource, String, List<String>> strategy : strategies) {
                     result.addAll(strategy.apply(propertySource, s));
                 }
@@ -84,7 +85,7 @@ public interface PropertyKeyNamingStrategies extends BiFunction<PropertySource,
                             acc.addAll(a);
                         }
                     }
-                    keys = new ArrayList<>(acc);
+                    keys = acc;
                     acc = new ArrayList<>(keys.size());
                 }
                 return keys;
@@ -101,6 +102,34 @@ public interface PropertyKeyNamingStrategies extends BiFunction<PropertySource,
         return pipe(Arrays.asList(strategies));
     }
 
+    /**
+     * Compiles given strategy (usually a composition of strategies) into a memoizing one: the result for each
+     * {@code (source, key)} pair is computed only once, and is kept as immutable list. Repeated application of
+     * returned strategy for same pair is a lookup that does not allocate.
+     * <p>
+     * Note: memoization assumes that strategy is a pure function of its inputs, as all the strategies provided by
+     * this class are. Sources are distinguished by {@link PropertySource#getName() name}, so strategies must depend
+     * only on source name, not on source instance.
+     */
+    static BiFunction<PropertySource, String, List<String>> memoized(
+            BiFunction<PropertySource, String, List<String>> strategy) {
+        requireNonNull(strategy, "strategy");
+        ConcurrentHashMap<String, ConcurrentHashMap<String, List<String>>> table = new ConcurrentHashMap<>();
+        return (propertySource, key) -> {
+            String name = propertySource.getName();
+            ConcurrentHashMap<String, List<String>> sourceTable = table.get(name);
+            if (sourceTable == null) {
+                sourceTable = table.computeIfAbsent(name, s -> new ConcurrentHashMap<>());
+            }
+            List<String> result = sourceTable.get(key);
+            if (result == null) {
+                result = sourceTable.computeIfAbsent(
+                        key, k -> Collections.unmodifiableList(new ArrayList<>(strategy.apply(propertySource, k))));
+            }
+            return result;
+        };
+    }
+
     // strategies
 
     /**
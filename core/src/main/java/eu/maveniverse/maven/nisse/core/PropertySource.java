@@ -7,6 +7,7 @@
  */
 package eu.maveniverse.maven.nisse.core;
 
+import java.util.Collection;
 import java.util.Map;
 
 /**
@@ -25,4 +26,16 @@ public interface PropertySource {
      * "mavenized", in a way Apache Maven does: empty values should be replaced with {@code "true"} string.
      */
     Map<String, String> getProperties(NisseConfiguration configuration);
+
+    /**
+     * Returns the keys (as emitted by this source) of properties this source may provide, or {@code null} if not
+     * known upfront. A key ending with {@code .} denotes a family of keys sharing it as prefix. Nisse does not
+     * evaluate sources that provide no referenced property, see
+     * {@link NisseConfiguration#isPropertyKeyReferenced(PropertySource, String)}.
+     * <p>
+     * Default implementation returns {@code null}, hence the source is always evaluated.
+     */
+    default Collection<String> getPropertyKeys(NisseConfiguration configuration) {
+        return null;
+    }
 }
@@ -0,0 +1,211 @@
+/*
+ * Copyright (c) 2023-2024 Maveniverse Org.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-v20.html
+ */
+package eu.maveniverse.maven.nisse.core.simple;
+
+import static java.util.Objects.requireNonNull;
+
+import eu.maveniverse.maven.nisse.core.NisseConfiguration;
+import eu.maveniverse.maven.nisse.core.PropertySource;
+import java.nio.file.Path;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.BiFunction;
+
+/**
+ * A {@link NisseConfiguration} decorator that records all the queries a {@link PropertySource} performed, and the
+ * answers it got. Used to decide whether a result computed with one (preliminary) configuration is valid for another
+ * (actual) configuration: it is, if the actual configuration answers all the recorded queries in the same way.
+ */
+final class RecordingNisseConfiguration implements NisseConfiguration {
+    private final NisseConfiguration delegate;
+    private final RecordingMap systemProperties;
+    private final RecordingMap userProperties;
+    private final RecordingMap configuration;
+    private final Map<String, Object> queries = Collections.synchronizedMap(new HashMap<>());
+    private volatile boolean unverifiable;
+
+    RecordingNisseConfiguration(NisseConfiguration delegate) {
+        this.delegate = requireNonNull(delegate, "delegate");
+        this.systemProperties = new RecordingMap(delegate.getSystemProperties());
+        this.userProperties = new RecordingMap(delegate.getUserProperties());
+        this.configuration = new RecordingMap(delegate.getConfiguration());
+    }
+
+    /**
+     * Returns {@code true} if given configuration answers all recorded queries same as the delegate did. As an
+     * exception, properties the delegate reported as referenced may be unreferenced in given configuration, as result
+     * computed with them is a superset of the result that would be computed without them.
+     */
+    boolean isSatisfiedBy(NisseConfiguration actual) {
+        requireNonNull(actual, "actual");
+        if (unverifiable
+                || !systemProperties.isSatisfiedBy(actual.getSystemProperties())
+                || !userProperties.isSatisfiedBy(actual.getUserProperties())
+                || !configuration.isSatisfiedBy(actual.getConfiguration())) {
+            return false;
+        }
+        HashMap<String, Object> recorded;
+        synchronized (queries) {
+            recorded = new HashMap<>(queries);
+        }
+        for (Map.Entry<String, Object> query : recorded.entrySet()) {
+            if (query.getKey().startsWith("referenced:") && Boolean.TRUE.equals(query.getValue())) {
+                // property was computed, result is valid whether it is referenced or not
+                continue;
+            }
+            if (!Objects.equals(query.getValue(), answer(actual, query.getKey()))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static Object answer(NisseConfiguration configuration, String query) {
+        if ("cwd".equals(query)) {
+            return configuration.getCurrentWorkingDirectory();
+        } else if ("root".equals(query)) {
+            return configuration.getSessionRootDirectory();
+        } else if ("inlinedKeys".equals(query)) {
+            return new ArrayList<>(configuration.getInlinedPropertyKeys());
+        } else if (query.startsWith("active:")) {
+            return configuration.isPropertySourceActive(named(query.substring("active:".length())));
+        } else if (query.startsWith("referenced:")) {
+            String sourceAndKey = query.substring("referenced:".length());
+            int separator = sourceAndKey.indexOf(':');
+            return configuration.isPropertyKeyReferenced(
+                    named(sourceAndKey.substring(0, separator)), sourceAndKey.substring(separator + 1));
+        }
+        throw new IllegalArgumentException("Unknown query: " + query);
+    }
+
+    private static PropertySource named(String name) {
+        return new PropertySource() {
+            @Override
+            public String getName() {
+                return name;
+            }
+
+            @Override
+            public Map<String, String> getProperties(NisseConfiguration configuration) {
+                throw new UnsupportedOperationException("query only");
+            }
+        };
+    }
+
+    private <T> T record(String query, T answer) {
+        queries.put(query, answer);
+        return answer;
+    }
+
+    @Override
+    public Map<String, String> getSystemProperties() {
+        return systemProperties;
+    }
+
+    @Override
+    public Map<String, String> getUserProperties() {
+        return userProperties;
+    }
+
+    @Override
+    public Map<String, String> getConfiguration() {
+        return configuration;
+    }
+
+    @Override
+    public Path getCurrentWorkingDirectory() {
+        return record("cwd", delegate.getCurrentWorkingDirectory());
+    }
+
+    @Override
+    public Path getSessionRootDirectory() {
+        return record("root", delegate.getSessionRootDirectory());
+    }
+
+    @Override
+    public boolean isPropertySourceActive(PropertySource source) {
+        return record("active:" + source.getName(), delegate.isPropertySourceActive(source));
+    }
+
+    @Override
+    public Collection<String> getInlinedPropertyKeys() {
+        return Collections.unmodifiableList(
+                record("inlinedKeys", new ArrayList<>(delegate.getInlinedPropertyKeys())));
+    }
+
+    @Override
+    public boolean isPropertyKeyReferenced(PropertySource source, String key) {
+        return record(
+                "referenced:" + source.getName() + ":" + key, delegate.isPropertyKeyReferenced(source, key));
+    }
+
+    @Override
+    public BiFunction<PropertySource, String, List<String>> propertyKeyNamingStrategy() {
+        // functions cannot be compared
+        unverifiable = true;
+        return delegate.propertyKeyNamingStrategy();
+    }
+
+    /**
+     * Immutable map view that records looked up keys. Any bulk access (iteration, size) records the whole map.
+     */
+    private static final class RecordingMap extends AbstractMap<String, String> {
+        private final Map<String, String> delegate;
+        private final Map<Object, String> lookups = Collections.synchronizedMap(new HashMap<>());
+        private volatile boolean whole;
+
+        private RecordingMap(Map<String, String> delegate) {
+            this.delegate = delegate;
+        }
+
+        private boolean isSatisfiedBy(Map<String, String> actual) {
+            if (whole) {
+                return delegate.equals(actual);
+            }
+            synchronized (lookups) {
+                for (Map.Entry<Object, String> lookup : lookups.entrySet()) {
+                    if (!Objects.equals(lookup.getValue(), actual.get(lookup.getKey()))) {
+                        return false;
+                    }
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public String get(Object key) {
+            String value = delegate.get(key);
+            lookups.put(key, value);
+            return value;
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return get(key) != null;
+        }
+
+        @Override
+        public String getOrDefault(Object key, String defaultValue) {
+            String value = get(key);
+            return value != null ? value : defaultValue;
+        }
+
+        @Override
+        public Set<Entry<String, String>> entrySet() {
+            whole = true;
+            return Collections.unmodifiableMap(delegate).entrySet();
+        }
+    }
+}
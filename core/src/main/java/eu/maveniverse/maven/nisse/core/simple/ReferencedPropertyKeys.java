@@ -0,0 +1,164 @@
+/*
+ * Copyright (c) 2023-2024 Maveniverse Org.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-v20.html
+ */
+package eu.maveniverse.maven.nisse.core.simple;
+
+import static java.util.Objects.requireNonNull;
+
+import eu.maveniverse.maven.nisse.core.NisseConfiguration;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Fast, text based scanner of build files, that collects all the property keys referenced as {@code ${key}}
+ * expressions. It does not parse the files as XML, hence it may collect more keys than actually used (ie. from
+ * comments or inactive profiles), but that is fine, as the result is used to decide what is <em>not needed</em>.
+ * <p>
+ * Scanned are:
+ * <ul>
+ *     <li>the root POM and all POMs reachable via {@code module} and {@code subproject} elements</li>
+ *     <li>the {@code .mvn/maven.config} file</li>
+ *     <li>values of passed in configuration (ie. user properties defined on CLI)</li>
+ *     <li>the keys configured for inlining</li>
+ * </ul>
+ */
+public final class ReferencedPropertyKeys {
+    private ReferencedPropertyKeys() {}
+
+    private static final Pattern MODULE_PATTERN = Pattern.compile("<(module|subproject)>\\s*([^<]+?)\\s*</\\1>");
+
+    private static final Pattern ENCODING_PATTERN = Pattern.compile("\\sencoding\\s*=\\s*[\"']([^\"']+)[\"']");
+
+    /**
+     * The XML declaration, if present, is looked for within this many leading bytes.
+     */
+    private static final int DECLARATION_MAX = 1024;
+
+    /**
+     * Scans build files from given root directory and returns all property keys referenced in them. Never returns
+     * {@code null}.
+     */
+    public static Set<String> scan(Path rootDirectory, Map<String, String> configuration) throws IOException {
+        requireNonNull(rootDirectory, "rootDirectory");
+        requireNonNull(configuration, "configuration");
+        HashSet<String> result = new HashSet<>();
+
+        HashSet<Path> seen = new HashSet<>();
+        Deque<Path> poms = new ArrayDeque<>();
+        poms.add(rootDirectory.resolve("pom.xml").toAbsolutePath().normalize());
+        while (!poms.isEmpty()) {
+            Path pom = poms.remove();
+            if (!seen.add(pom) || !Files.isRegularFile(pom)) {
+                continue;
+            }
+            String content = decode(Files.readAllBytes(pom));
+            collectExpressions(content, result);
+            Matcher m = MODULE_PATTERN.matcher(content);
+            while (m.find()) {
+                Path module = pom.getParent().resolve(m.group(2)).normalize();
+                poms.add(Files.isDirectory(module) ? module.resolve("pom.xml") : module);
+            }
+        }
+
+        Path mavenConfig = rootDirectory.resolve(".mvn").resolve("maven.config");
+        if (Files.isRegularFile(mavenConfig)) {
+            collectExpressions(new String(Files.readAllBytes(mavenConfig), StandardCharsets.UTF_8), result);
+        }
+        for (String value : configuration.values()) {
+            collectExpressions(value, result);
+        }
+        String inlinedKeys = configuration.get(NisseConfiguration.SOURCE_PREFIX + "inlinedKeys");
+        if (inlinedKeys != null) {
+            for (String inlinedKey : inlinedKeys.split(",")) {
+                if (!inlinedKey.trim().isEmpty()) {
+                    result.add(inlinedKey.trim());
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Decodes POM content using the encoding given by its byte order mark or declared by its XML declaration,
+     * defaulting to UTF-8.
+     */
+    static String decode(byte[] content) {
+        Charset charset = StandardCharsets.UTF_8;
+        int offset = 0;
+        if (startsWith(content, 0xEF, 0xBB, 0xBF)) {
+            offset = 3;
+        } else if (startsWith(content, 0xFE, 0xFF)) {
+            charset = StandardCharsets.UTF_16BE;
+            offset = 2;
+        } else if (startsWith(content, 0xFF, 0xFE)) {
+            charset = StandardCharsets.UTF_16LE;
+            offset = 2;
+        } else if (startsWith(content, 0x00, '<')) {
+            charset = StandardCharsets.UTF_16BE;
+        } else if (startsWith(content, '<', 0x00)) {
+            charset = StandardCharsets.UTF_16LE;
+        } else {
+            String head =
+                    new String(content, 0, Math.min(content.length, DECLARATION_MAX), StandardCharsets.ISO_8859_1);
+            int end = head.indexOf("?>");
+            if (head.startsWith("<?xml") && end > 0) {
+                Matcher m = ENCODING_PATTERN.matcher(head.substring(0, end));
+                if (m.find()) {
+                    try {
+                        charset = Charset.forName(m.group(1).trim());
+                    } catch (IllegalArgumentException e) {
+                        // unknown encoding: keep the default
+                    }
+                }
+            }
+        }
+        return new String(content, offset, content.length - offset, charset);
+    }
+
+    private static boolean startsWith(byte[] content, int... prefix) {
+        if (content.length < prefix.length) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length; i++) {
+            if ((content[i] & 0xFF) != prefix[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Collects all keys of {@code ${key}} expressions found in given string into passed in collection.
+     */
+    static void collectExpressions(String string, Set<String> keys) {
+        if (string == null) {
+            return;
+        }
+        int start = string.indexOf("${");
+        while (start >= 0) {
+            int end = string.indexOf('}', start + 2);
+            if (end < 0) {
+                return;
+            }
+            String key = string.substring(start + 2, end).trim();
+            if (!key.isEmpty()) {
+                keys.add(key);
+            }
+            start = string.indexOf("${", end + 1);
+        }
+    }
+}
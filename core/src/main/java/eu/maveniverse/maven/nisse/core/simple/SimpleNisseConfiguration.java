@@ -12,6 +12,8 @@ import static java.util.Objects.requireNonNull;
 import eu.maveniverse.maven.nisse.core.NisseConfiguration;
 import eu.maveniverse.maven.nisse.core.PropertyKeyNamingStrategies;
 import eu.maveniverse.maven.nisse.core.PropertySource;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
@@ -21,9 +23,11 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.Set;
 import java.util.function.BiFunction;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
+import org.slf4j.LoggerFactory;
 
 public final class SimpleNisseConfiguration implements NisseConfiguration {
     private final Map<String, String> systemProperties;
@@ -32,6 +36,7 @@ public final class SimpleNisseConfiguration implements NisseConfiguration {
     private final Path currentWorkingDirectory;
     private final Path sessionRootDirectory;
     private final BiFunction<PropertySource, String, List<String>> propertyKeyNamingStrategy;
+    private final Set<String> referencedPropertyKeys;
 
     private SimpleNisseConfiguration(
             Map<String, String> systemProperties,
@@ -39,13 +44,15 @@ public final class SimpleNisseConfiguration implements NisseConfiguration {
             Map<String, String> configuration,
             Path currentWorkingDirectory,
             Path sessionRootDirectory,
-            BiFunction<PropertySource, String, List<String>> propertyKeyNamingStrategy) {
+            BiFunction<PropertySource, String, List<String>> propertyKeyNamingStrategy,
+            Set<String> referencedPropertyKeys) {
         this.systemProperties = requireNonNull(systemProperties, "systemProperties");
         this.userProperties = requireNonNull(userProperties, "userProperties");
         this.configuration = requireNonNull(configuration, "configuration");
         this.currentWorkingDirectory = requireNonNull(currentWorkingDirectory);
         this.sessionRootDirectory = requireNonNull(sessionRootDirectory);
         this.propertyKeyNamingStrategy = requireNonNull(propertyKeyNamingStrategy, "propertyKeyNamingStrategy");
+        this.referencedPropertyKeys = referencedPropertyKeys;
     }
 
     @Override
@@ -92,6 +99,28 @@ public final class SimpleNisseConfiguration implements NisseConfiguration {
         return Collections.emptyList();
     }
 
+    @Override
+    public boolean isPropertyKeyReferenced(PropertySource source, String key) {
+        requireNonNull(source, "source");
+        requireNonNull(key, "key");
+        if (referencedPropertyKeys == null) {
+            return true;
+        }
+        boolean family = key.endsWith(".");
+        for (String publishedKey : propertyKeyNamingStrategy.apply(source, key)) {
+            if (family) {
+                for (String referencedPropertyKey : referencedPropertyKeys) {
+                    if (referencedPropertyKey.startsWith(publishedKey)) {
+                        return true;
+                    }
+                }
+            } else if (referencedPropertyKeys.contains(publishedKey)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     @Override
     public BiFunction<PropertySource, String, List<String>> propertyKeyNamingStrategy() {
         return propertyKeyNamingStrategy;
@@ -110,6 +139,7 @@ public final class SimpleNisseConfiguration implements NisseConfiguration {
                 new ArrayList<>();
         private BiFunction<PropertySource, String, List<String>> propertyKeyNamingStrategy = null;
         private boolean detectCompatOsDetector = true; // default behaviour
+        private boolean detectReferencedPropertyKeys = false; // default behaviour
 
         public SimpleNisseConfiguration build() {
             HashMap<String, String> configuration = new HashMap<>(systemProperties);
@@ -139,13 +169,31 @@ public final class SimpleNisseConfiguration implements NisseConfiguration {
                 this.propertyKeyNamingStrategy = PropertyKeyNamingStrategies.fork(propertyKeyNamingStrategies);
             }
 
+            // referenced only; if enabled and not overridden by dump
+            Set<String> referencedPropertyKeys = null;
+            if (detectReferencedPropertyKeys
+                    && Boolean.parseBoolean(configuration.get(CONFIGURATION_REFERENCED_ONLY))
+                    && !Boolean.parseBoolean(configuration.get(CONFIGURATION_DUMP))) {
+                try {
+                    referencedPropertyKeys = Collections.unmodifiableSet(
+                            ReferencedPropertyKeys.scan(sessionRootDirectory, configuration));
+                } catch (IOException | UncheckedIOException e) {
+                    // fall back to full evaluation
+                    LoggerFactory.getLogger(SimpleNisseConfiguration.class)
+                            .warn(
+                                    "Failed to scan build files for referenced properties, evaluating all: {}",
+                                    e.getMessage());
+                }
+            }
+
             return new SimpleNisseConfiguration(
                     Collections.unmodifiableMap(systemProperties),
                     Collections.unmodifiableMap(userProperties),
                     Collections.unmodifiableMap(configuration),
                     currentWorkingDirectory,
                     sessionRootDirectory,
-                    propertyKeyNamingStrategy);
+                    PropertyKeyNamingStrategies.memoized(propertyKeyNamingStrategy),
+                    referencedPropertyKeys);
         }
 
         public Builder withJavaSystemProperties() {
@@ -211,11 +259,25 @@ public final class SimpleNisseConfiguration implements NisseConfiguration {
             return this;
         }
 
+        /**
+         * Whether "referenced only" detection should be enabled or disabled. By default, is disabled. If enabled,
+         * and configuration has {@link NisseConfiguration#CONFIGURATION_REFERENCED_ONLY} set, the build files under
+         * session root directory are scanned for referenced property keys.
+         *
+         * @see NisseConfiguration#CONFIGURATION_REFERENCED_ONLY
+         * @see ReferencedPropertyKeys
+         */
+        public Builder withDetectReferencedPropertyKeys(boolean detectReferencedPropertyKeys) {
+            this.detectReferencedPropertyKeys = detectReferencedPropertyKeys;
+            return this;
+        }
+
         /**
          * The "roll your own" strategy to use. If user calls this method with non-null strategy, it will be used
          * by Nisse "as is", and strategies added by {@link #combinePropertyKeyNamingStrategy(BiFunction)}, if any,
-         * will be completely ignored.
+         * will be completely ignored. The strategy must be a pure function, as it is memoized.
          *
+         * @see PropertyKeyNamingStrategies#memoized(BiFunction)
          * @see #combinePropertyKeyNamingStrategy(BiFunction)
          */
         public Builder withPropertyKeyNamingStrategy(
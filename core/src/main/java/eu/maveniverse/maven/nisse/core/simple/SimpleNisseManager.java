@@ -16,11 +16,18 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.function.BiFunction;
+import java.util.stream.Collectors;
 import javax.inject.Inject;
 import javax.inject.Named;
 import javax.inject.Singleton;
@@ -45,6 +52,7 @@ public class SimpleNisseManager implements NisseManager {
 
     private final Logger logger = LoggerFactory.getLogger(getClass());
     private final List<PropertySource> sources;
+    private final ConcurrentHashMap<String, Prefetch> prefetches = new ConcurrentHashMap<>();
 
     @Inject
     public SimpleNisseManager(List<PropertySource> sources) {
@@ -57,6 +65,8 @@ public class SimpleNisseManager implements NisseManager {
         BiFunction<PropertySource, String, List<String>> propertyKeyNamingStrategy =
                 configuration.propertyKeyNamingStrategy();
         HashMap<String, String> properties = new HashMap<>();
+        // prefetches are used by this invocation only, if at all
+        Map<String, Prefetch> prefetched = takePrefetches();
 
         // Load .mvn/nisse.properties as a low-priority fallback: these values are
         // placed first so that PropertySource results (e.g. JGit) overwrite them.
@@ -64,7 +74,12 @@ public class SimpleNisseManager implements NisseManager {
 
         for (PropertySource source : this.sources) {
             if (configuration.isPropertySourceActive(source)) {
-                source.getProperties(configuration).forEach((key, value) -> {
+                if (!isReferenced(source, configuration)) {
+                    logger.debug("No property of source {} is referenced; skipping it", source.getName());
+                    continue;
+                }
+                Prefetch prefetch = prefetched.get(source.getName());
+                getProperties(source, configuration, prefetch).forEach((key, value) -> {
                     for (String translated : propertyKeyNamingStrategy.apply(source, key)) {
                         properties.put(translated, value);
                     }
@@ -74,6 +89,102 @@ public class SimpleNisseManager implements NisseManager {
         return properties;
     }
 
+    @Override
+    public void prefetch(NisseConfiguration configuration, Collection<String> sourceNames) {
+        requireNonNull(configuration, "configuration");
+        requireNonNull(sourceNames, "sourceNames");
+        discardPrefetch();
+        List<PropertySource> prefetchedSources = this.sources.stream()
+                .filter(s -> sourceNames.contains(s.getName()) && configuration.isPropertySourceActive(s))
+                .collect(Collectors.toList());
+        if (prefetchedSources.isEmpty()) {
+            return;
+        }
+        int threads = Math.min(prefetchedSources.size(), Runtime.getRuntime().availableProcessors());
+        ExecutorService executor = Executors.newFixedThreadPool(threads, r -> {
+            Thread thread = new Thread(r, "nisse-prefetch");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            for (PropertySource source : prefetchedSources) {
+                RecordingNisseConfiguration recording = new RecordingNisseConfiguration(configuration);
+                CompletableFuture<Map<String, String>> future =
+                        CompletableFuture.supplyAsync(() -> source.getProperties(recording), executor);
+                prefetches.put(source.getName(), new Prefetch(recording, future));
+            }
+        } finally {
+            // lets submitted tasks complete, and threads terminate after
+            executor.shutdown();
+        }
+    }
+
+    @Override
+    public void discardPrefetch() {
+        takePrefetches();
+    }
+
+    /**
+     * Removes and returns all the pending prefetches.
+     */
+    private Map<String, Prefetch> takePrefetches() {
+        HashMap<String, Prefetch> result = new HashMap<>();
+        for (String name : prefetches.keySet()) {
+            Prefetch prefetch = prefetches.remove(name);
+            if (prefetch != null) {
+                result.put(name, prefetch);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns {@code true} if given source may provide any referenced property, or if its keys are not known upfront.
+     */
+    private static boolean isReferenced(PropertySource source, NisseConfiguration configuration) {
+        Collection<String> keys = source.getPropertyKeys(configuration);
+        if (keys == null) {
+            return true;
+        }
+        for (String key : keys) {
+            if (configuration.isPropertyKeyReferenced(source, key)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns properties of given source: uses prefetched result if present and valid for given configuration, or
+     * evaluates the source otherwise.
+     */
+    private Map<String, String> getProperties(
+            PropertySource source, NisseConfiguration configuration, Prefetch prefetch) {
+        if (prefetch != null) {
+            try {
+                Map<String, String> result = prefetch.future.join();
+                if (prefetch.configuration.isSatisfiedBy(configuration)) {
+                    logger.debug("Using prefetched properties of source {}", source.getName());
+                    return result;
+                }
+                logger.debug("Discarding prefetched properties of source {}: configuration changed", source.getName());
+            } catch (CompletionException e) {
+                logger.debug("Discarding failed prefetch of source {}", source.getName(), e.getCause());
+            }
+        }
+        return source.getProperties(configuration);
+    }
+
+    private static final class Prefetch {
+        private final RecordingNisseConfiguration configuration;
+        private final CompletableFuture<Map<String, String>> future;
+
+        private Prefetch(RecordingNisseConfiguration configuration, CompletableFuture<Map<String, String>> future) {
+            this.configuration = configuration;
+            this.future = future;
+        }
+    }
+
     /**
      * Loads properties from {@code .mvn/nisse.properties} relative to the session root directory.
      * Values that look like unexpanded git {@code export-subst} placeholders
@@ -1,6 +1,8 @@
 package eu.maveniverse.maven.nisse.core.simple;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 import eu.maveniverse.maven.nisse.core.NisseConfiguration;
 import eu.maveniverse.maven.nisse.core.PropertyKeyNamingStrategies;
@@ -71,4 +73,68 @@ public class PropertyKeyNamingStrategiesTest {
         keys = strategy.apply(osSource, "name");
         assertEquals(Arrays.asList("nisse.os.name", "os.detected.name"), keys);
     }
+
+    @Test
+    void memoized() {
+        Map<String, List<String>> translations = new HashMap<>();
+        translations.put("one.first", Arrays.asList("first.theOnly", "+fallback"));
+        translations.put("one.second", Collections.emptyList());
+        BiFunction<PropertySource, String, List<String>> strategy = PropertyKeyNamingStrategies.fork(
+                PropertyKeyNamingStrategies.translated(
+                        translations,
+                        PropertyKeyNamingStrategies.sourcePrefixed(),
+                        PropertyKeyNamingStrategies.defaultStrategy()),
+                PropertyKeyNamingStrategies.pipe(
+                        PropertyKeyNamingStrategies.osDetector(), PropertyKeyNamingStrategies.prefixed("x.")));
+        BiFunction<PropertySource, String, List<String>> memoized = PropertyKeyNamingStrategies.memoized(strategy);
+
+        PropertySource oneSource = new PropertySource() {
+            @Override
+            public String getName() {
+                return "one";
+            }
+
+            @Override
+            public Map<String, String> getProperties(NisseConfiguration configuration) {
+                throw new UnsupportedOperationException("not implemented");
+            }
+        };
+        PropertySource osSource = new PropertySource() {
+            @Override
+            public String getName() {
+                return "os";
+            }
+
+            @Override
+            public Map<String, String> getProperties(NisseConfiguration configuration) {
+                throw new UnsupportedOperationException("not implemented");
+            }
+        };
+
+        for (PropertySource source : Arrays.asList(oneSource, osSource)) {
+            for (String key : Arrays.asList("first", "second", "third")) {
+                List<String> keys = memoized.apply(source, key);
+                assertEquals(strategy.apply(source, key), keys);
+                assertSame(keys, memoized.apply(source, key));
+            }
+        }
+        assertEquals(Arrays.asList("first.theOnly", "nisse.one.first", "x.first"), memoized.apply(oneSource, "first"));
+        assertEquals(Collections.singletonList("x.second"), memoized.apply(oneSource, "second"));
+        assertEquals(Arrays.asList("nisse.os.name", "x.os.detected.name"), memoized.apply(osSource, "name"));
+        assertThrows(UnsupportedOperationException.class, () -> memoized.apply(osSource, "name").add("nope"));
+
+        // sources are distinguished by name: another instance of same name reuses memoized result
+        PropertySource anotherOsSource = new PropertySource() {
+            @Override
+            public String getName() {
+                return "os";
+            }
+
+            @Override
+            public Map<String, String> getProperties(NisseConfiguration configuration) {
+                throw new UnsupportedOperationException("not implemented");
+            }
+        };
+        assertSame(memoized.apply(osSource, "name"), memoized.apply(anotherOsSource, "name"));
+    }
 }
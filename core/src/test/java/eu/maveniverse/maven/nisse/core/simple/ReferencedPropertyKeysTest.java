@@ -0,0 +1,142 @@
+package eu.maveniverse.maven.nisse.core.simple;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import eu.maveniverse.maven.nisse.core.NisseConfiguration;
+import eu.maveniverse.maven.nisse.core.PropertySource;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class ReferencedPropertyKeysTest {
+    private static final PropertySource JGIT = new PropertySource() {
+        @Override
+        public String getName() {
+            return "jgit";
+        }
+
+        @Override
+        public Map<String, String> getProperties(NisseConfiguration configuration) {
+            throw new UnsupportedOperationException("not implemented");
+        }
+    };
+
+    @Test
+    void collectExpressions() {
+        Set<String> keys = new HashSet<>();
+        ReferencedPropertyKeys.collectExpressions("<v>${nisse.jgit.commit}-${ revision }</v>${unterminated", keys);
+        assertEquals(new HashSet<>(Arrays.asList("nisse.jgit.commit", "revision")), keys);
+    }
+
+    @Test
+    void scan(@TempDir Path tempDir) throws IOException {
+        Files.write(
+                tempDir.resolve("pom.xml"),
+                Arrays.asList(
+                        "<project>",
+                        "  <version>${nisse.jgit.dynamicVersion}</version>",
+                        "  <modules><module>mod1</module><module>mod2/pom.xml</module></modules>",
+                        "</project>"));
+        Files.createDirectories(tempDir.resolve("mod1"));
+        Files.write(
+                tempDir.resolve("mod1").resolve("pom.xml"),
+                Arrays.asList("<project>", "  <name>${nisse.os.classifier}</name>", "</project>"));
+        Files.createDirectories(tempDir.resolve("mod2"));
+        Files.write(
+                tempDir.resolve("mod2").resolve("pom.xml"),
+                Arrays.asList("<project>", "  <modules><module>..</module></modules>", "</project>"));
+        Files.createDirectories(tempDir.resolve(".mvn"));
+        Files.write(tempDir.resolve(".mvn").resolve("maven.config"), Collections.singletonList("-Dsha1=${git.sha}"));
+
+        Map<String, String> configuration = new HashMap<>();
+        configuration.put("changelist", "-${nisse.jgit.shortCommitId}");
+        configuration.put("nisse.source.inlinedKeys", "nisse.jgit.date");
+
+        Set<String> keys = ReferencedPropertyKeys.scan(tempDir, configuration);
+        assertEquals(
+                new HashSet<>(Arrays.asList(
+                        "nisse.jgit.dynamicVersion",
+                        "nisse.os.classifier",
+                        "git.sha",
+                        "nisse.jgit.shortCommitId",
+                        "nisse.jgit.date")),
+                keys);
+    }
+
+    @Test
+    void keyFamily(@TempDir Path tempDir) throws IOException {
+        Files.write(
+                tempDir.resolve("pom.xml"),
+                Arrays.asList("<project>", "  <name>${nisse.jgit.release.like.debian}</name>", "</project>"));
+        SimpleNisseConfiguration conf = SimpleNisseConfiguration.builder()
+                .withUserProperties(
+                        Collections.singletonMap(NisseConfiguration.CONFIGURATION_REFERENCED_ONLY, "true"))
+                .withSessionRootDirectory(tempDir)
+                .withDetectReferencedPropertyKeys(true)
+                .build();
+        assertTrue(conf.isPropertyKeyReferenced(JGIT, "release.like."));
+        assertTrue(conf.isPropertyKeyReferenced(JGIT, "release."));
+        assertFalse(conf.isPropertyKeyReferenced(JGIT, "release.version."));
+        assertFalse(conf.isPropertyKeyReferenced(JGIT, "release"));
+    }
+
+    @Test
+    void decode() {
+        String pom = "<?xml version=\"1.0\" encoding=\"ISO-8859-1\"?>\n<name>\u00e9 ${key}</name>";
+        assertEquals(pom, ReferencedPropertyKeys.decode(pom.getBytes(StandardCharsets.ISO_8859_1)));
+        String utf16 = "<?xml version=\"1.0\" encoding=\"UTF-16\"?>\n<name>${key}</name>";
+        assertEquals(utf16, ReferencedPropertyKeys.decode(utf16.getBytes(StandardCharsets.UTF_16LE)));
+        assertEquals(utf16, ReferencedPropertyKeys.decode(utf16.getBytes(StandardCharsets.UTF_16)));
+        String plain = "<name>\u00e9 ${key}</name>";
+        assertEquals(plain, ReferencedPropertyKeys.decode(plain.getBytes(StandardCharsets.UTF_8)));
+        byte[] bom = ("\ufeff" + plain).getBytes(StandardCharsets.UTF_8);
+        assertEquals(plain, ReferencedPropertyKeys.decode(bom));
+    }
+
+    @Test
+    void referencedOnly(@TempDir Path tempDir) throws IOException {
+        Files.write(
+                tempDir.resolve("pom.xml"),
+                Arrays.asList("<project>", "  <version>${nisse.jgit.dynamicVersion}</version>", "</project>"));
+        Map<String, String> userProperties = new HashMap<>();
+        userProperties.put(NisseConfiguration.CONFIGURATION_REFERENCED_ONLY, "true");
+
+        SimpleNisseConfiguration conf = SimpleNisseConfiguration.builder()
+                .withUserProperties(userProperties)
+                .withSessionRootDirectory(tempDir)
+                .withDetectReferencedPropertyKeys(true)
+                .build();
+        assertTrue(conf.isPropertyKeyReferenced(JGIT, "dynamicVersion"));
+        assertFalse(conf.isPropertyKeyReferenced(JGIT, "clean"));
+        assertFalse(conf.isPropertyKeyReferenced(JGIT, "dynamic"));
+        assertFalse(conf.isPropertyKeyReferenced(JGIT, "clean."));
+
+        // dump forces full evaluation
+        userProperties.put(NisseConfiguration.CONFIGURATION_DUMP, "true");
+        conf = SimpleNisseConfiguration.builder()
+                .withUserProperties(userProperties)
+                .withSessionRootDirectory(tempDir)
+                .withDetectReferencedPropertyKeys(true)
+                .build();
+        assertTrue(conf.isPropertyKeyReferenced(JGIT, "clean"));
+
+        // not detecting means full evaluation
+        userProperties.remove(NisseConfiguration.CONFIGURATION_DUMP);
+        conf = SimpleNisseConfiguration.builder()
+                .withUserProperties(userProperties)
+                .withSessionRootDirectory(tempDir)
+                .build();
+        assertTrue(conf.isPropertyKeyReferenced(JGIT, "clean"));
+    }
+}
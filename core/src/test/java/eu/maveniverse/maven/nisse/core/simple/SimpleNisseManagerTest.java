@@ -12,9 +12,13 @@ import java.io.OutputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
 
@@ -197,6 +201,172 @@ public class SimpleNisseManagerTest {
         assertEquals("2024-06-15T10:30:00+02:00", allProperties.get("nisse.jgit.date"));
     }
 
+    @Test
+    void prefetch() {
+        AtomicInteger evaluations = new AtomicInteger();
+        PropertySource source = new PropertySource() {
+            @Override
+            public String getName() {
+                return "counter";
+            }
+
+            @Override
+            public Map<String, String> getProperties(NisseConfiguration configuration) {
+                return Collections.singletonMap(
+                        "value",
+                        configuration.getConfiguration().getOrDefault("counter.prefix", "")
+                                + evaluations.incrementAndGet());
+            }
+        };
+        SimpleNisseManager snm = new SimpleNisseManager(Collections.singletonList(source));
+        Map<String, String> userProperties = new HashMap<>();
+        userProperties.put("unrelated", "foo");
+
+        // prefetched result is used if valid
+        snm.prefetch(SimpleNisseConfiguration.builder().build(), Collections.singletonList("counter"));
+        SimpleNisseConfiguration conf =
+                SimpleNisseConfiguration.builder().withUserProperties(userProperties).build();
+        assertEquals("1", snm.createProperties(conf).get("nisse.counter.value"));
+        assertEquals(1, evaluations.get());
+
+        // prefetched result is consumed
+        assertEquals("2", snm.createProperties(conf).get("nisse.counter.value"));
+
+        // prefetched result is discarded if configuration changed in a way that matters to source
+        snm.prefetch(SimpleNisseConfiguration.builder().build(), Collections.singletonList("counter"));
+        userProperties.put("counter.prefix", "p");
+        conf = SimpleNisseConfiguration.builder().withUserProperties(userProperties).build();
+        assertEquals("p4", snm.createProperties(conf).get("nisse.counter.value"));
+        assertEquals(4, evaluations.get());
+
+        // discarded prefetch is not used
+        snm.prefetch(conf, Collections.singletonList("counter"));
+        awaitCount(evaluations, 5);
+        snm.discardPrefetch();
+        assertEquals("p6", snm.createProperties(conf).get("nisse.counter.value"));
+        assertEquals(6, evaluations.get());
+    }
+
+    @Test
+    void prefetchNotUsedIsNotKept() {
+        AtomicInteger evaluations = new AtomicInteger();
+        PropertySource source = keyed("counter", evaluations, "value");
+        SimpleNisseManager snm = new SimpleNisseManager(Collections.singletonList(source));
+        Map<String, String> userProperties = new HashMap<>();
+        userProperties.put("nisse.source.counter.active", "false");
+
+        // prefetch not used by the invocation (source inactive) is dropped
+        snm.prefetch(SimpleNisseConfiguration.builder().build(), Collections.singletonList("counter"));
+        awaitCount(evaluations, 1);
+        SimpleNisseConfiguration conf =
+                SimpleNisseConfiguration.builder().withUserProperties(userProperties).build();
+        assertTrue(snm.createProperties(conf).isEmpty());
+        assertEquals(1, evaluations.get());
+        assertEquals(
+                "counter", snm.createProperties(SimpleNisseConfiguration.builder().build()).get("nisse.counter.value"));
+        assertEquals(2, evaluations.get());
+    }
+
+    @Test
+    void prefetchOfReferencedSuperset(@TempDir Path tempDir) throws IOException {
+        Files.write(
+                tempDir.resolve("pom.xml"),
+                Arrays.asList("<project>", "  <version>${nisse.counter.value}</version>", "</project>"));
+        AtomicInteger evaluations = new AtomicInteger();
+        PropertySource source = new PropertySource() {
+            @Override
+            public String getName() {
+                return "counter";
+            }
+
+            @Override
+            public Map<String, String> getProperties(NisseConfiguration configuration) {
+                HashMap<String, String> result = new HashMap<>();
+                result.put("value", Integer.toString(evaluations.incrementAndGet()));
+                if (configuration.isPropertyKeyReferenced(this, "other")) {
+                    result.put("other", "computed");
+                }
+                return result;
+            }
+        };
+        SimpleNisseManager snm = new SimpleNisseManager(Collections.singletonList(source));
+        Map<String, String> userProperties = new HashMap<>();
+        userProperties.put(NisseConfiguration.CONFIGURATION_REFERENCED_ONLY, "true");
+
+        // prefetch computed everything, result is usable when only some keys are referenced
+        snm.prefetch(
+                SimpleNisseConfiguration.builder()
+                        .withUserProperties(userProperties)
+                        .withSessionRootDirectory(tempDir)
+                        .build(),
+                Collections.singletonList("counter"));
+        SimpleNisseConfiguration conf = SimpleNisseConfiguration.builder()
+                .withUserProperties(userProperties)
+                .withSessionRootDirectory(tempDir)
+                .withDetectReferencedPropertyKeys(true)
+                .build();
+        assertEquals("1", snm.createProperties(conf).get("nisse.counter.value"));
+        assertEquals(1, evaluations.get());
+    }
+
+    @Test
+    void unreferencedSourcesAreNotEvaluated(@TempDir Path tempDir) throws IOException {
+        Files.write(
+                tempDir.resolve("pom.xml"),
+                Arrays.asList("<project>", "  <version>${nisse.used.release.like.debian}</version>", "</project>"));
+        AtomicInteger evaluations = new AtomicInteger();
+        PropertySource used = keyed("used", evaluations, "version", "release.like.");
+        PropertySource unused = keyed("unused", evaluations, "version");
+        PropertySource unknown = keyed("unknown", evaluations);
+        SimpleNisseManager snm = new SimpleNisseManager(Arrays.asList(used, unused, unknown));
+        Map<String, String> userProperties = new HashMap<>();
+        userProperties.put(NisseConfiguration.CONFIGURATION_REFERENCED_ONLY, "true");
+
+        SimpleNisseConfiguration conf = SimpleNisseConfiguration.builder()
+                .withUserProperties(userProperties)
+                .withSessionRootDirectory(tempDir)
+                .withDetectReferencedPropertyKeys(true)
+                .build();
+        Map<String, String> properties = snm.createProperties(conf);
+        assertTrue(properties.containsKey("nisse.used.value"));
+        assertFalse(properties.containsKey("nisse.unused.value"));
+        assertTrue(properties.containsKey("nisse.unknown.value"));
+        assertEquals(2, evaluations.get());
+
+        // without referenced only, all are evaluated
+        conf = SimpleNisseConfiguration.builder().withSessionRootDirectory(tempDir).build();
+        assertEquals(3, snm.createProperties(conf).size());
+        assertEquals(5, evaluations.get());
+    }
+
+    private static void awaitCount(AtomicInteger counter, int count) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (counter.get() < count && System.nanoTime() < deadline) {
+            Thread.yield();
+        }
+        assertEquals(count, counter.get());
+    }
+
+    private static PropertySource keyed(String name, AtomicInteger evaluations, String... keys) {
+        return new PropertySource() {
+            @Override
+            public String getName() {
+                return name;
+            }
+
+            @Override
+            public Map<String, String> getProperties(NisseConfiguration configuration) {
+                evaluations.incrementAndGet();
+                return Collections.singletonMap("value", name);
+            }
+
+            @Override
+            public Collection<String> getPropertyKeys(NisseConfiguration configuration) {
+                return keys.length == 0 ? null : Arrays.asList(keys);
+            }
+        };
+    }
+
     private static void writeProperties(Path path, Properties props) throws IOException {
         try (OutputStream out = Files.newOutputStream(path)) {
             props.store(out, null);
@@ -0,0 +1,80 @@
+/*
+ * Copyright (c) 2023-2024 Maveniverse Org.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-v20.html
+ */
+package eu.maveniverse.maven.nisse.extension3.internal;
+
+import static java.util.Objects.requireNonNull;
+
+import eu.maveniverse.maven.nisse.core.NisseConfiguration;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Session scoped registry of properties that need inlining. Keys are only added (rarely, once per key), while reads
+ * happen for every model Maven builds. Hence, each addition resolves the value once and publishes a new immutable
+ * snapshot of key/value pairs, and readers just use the current snapshot, without locking or value lookups.
+ * <p>
+ * The Nisse properties of session user properties are copied once, at creation, so checking whether a key can be
+ * inlined does not query the (synchronized) user properties either.
+ */
+final class InlinedProperties {
+    private final Map<String, String> available;
+    private volatile Map<String, String> snapshot = Collections.emptyMap();
+
+    InlinedProperties(Properties userProperties) {
+        requireNonNull(userProperties, "userProperties");
+        HashMap<String, String> available = new HashMap<>();
+        for (String key : userProperties.stringPropertyNames()) {
+            if (key.startsWith(NisseConfiguration.PROPERTY_PREFIX)) {
+                available.put(key, userProperties.getProperty(key));
+            }
+        }
+        this.available = Collections.unmodifiableMap(available);
+    }
+
+    /**
+     * Adds a key that needs inlining, resolving its value from session user properties. Returns {@code true} if key
+     * was not added before. Keys without value are ignored.
+     */
+    synchronized boolean add(String key) {
+        requireNonNull(key, "key");
+        if (snapshot.containsKey(key)) {
+            return false;
+        }
+        String value = available.get(key);
+        if (value == null) {
+            return false;
+        }
+        HashMap<String, String> updated = new HashMap<>(snapshot);
+        updated.put(key, value);
+        snapshot = Collections.unmodifiableMap(updated);
+        return true;
+    }
+
+    /**
+     * Returns {@code true} if key is registered for inlining.
+     */
+    boolean contains(String key) {
+        return snapshot.containsKey(key);
+    }
+
+    /**
+     * Returns {@code true} if key has value, hence can be inlined.
+     */
+    boolean isAvailable(String key) {
+        return available.containsKey(key);
+    }
+
+    /**
+     * Returns the current immutable snapshot of inlined key/value pairs.
+     */
+    Map<String, String> snapshot() {
+        return snapshot;
+    }
+}
@@ -14,7 +14,10 @@ import eu.maveniverse.maven.nisse.core.NisseManager;
 import eu.maveniverse.maven.nisse.core.PropertyKeyNamingStrategies;
 import eu.maveniverse.maven.nisse.core.Version;
 import eu.maveniverse.maven.nisse.core.simple.SimpleNisseConfiguration;
+import java.io.IOException;
+import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.Arrays;
 import java.util.Map;
 import java.util.Properties;
 import javax.inject.Inject;
@@ -34,41 +37,85 @@ final class NisseConfigurationProcessor implements ConfigurationProcessor {
     private final Logger logger = LoggerFactory.getLogger(getClass());
     private final NisseManager nisseManager;
     private final SettingsXmlConfigurationProcessor settingsXmlConfigurationProcessor;
+    private final NisseSessionSnapshot sessionSnapshot;
 
     @Inject
     public NisseConfigurationProcessor(
-            NisseManager nisseManager, SettingsXmlConfigurationProcessor settingsXmlConfigurationProcessor) {
+            NisseManager nisseManager,
+            SettingsXmlConfigurationProcessor settingsXmlConfigurationProcessor,
+            NisseSessionSnapshot sessionSnapshot) {
         this.nisseManager = requireNonNull(nisseManager, "nisseManager");
         this.settingsXmlConfigurationProcessor =
                 requireNonNull(settingsXmlConfigurationProcessor, "settingsXmlConfigurationProcessor");
+        this.sessionSnapshot = requireNonNull(sessionSnapshot, "sessionSnapshot");
+    }
+
+    /**
+     * If enabled, starts prefetch of expensive sources using a preliminary configuration made from the request, that
+     * is built without scanning for referenced properties, so evaluation starts right away. If the actual
+     * configuration differs in any way that matters to sources, the prefetched results are discarded.
+     */
+    private void prefetch(CliRequest request) {
+        String prefetch = request.getUserProperties()
+                .getProperty(
+                        NisseConfiguration.CONFIGURATION_PREFETCH,
+                        request.getSystemProperties().getProperty(NisseConfiguration.CONFIGURATION_PREFETCH));
+        if (!Boolean.parseBoolean(prefetch)) {
+            return;
+        }
+        try {
+            NisseConfiguration configuration = configurationBuilder(
+                            request.getMultiModuleProjectDirectory().toPath())
+                    .withSystemProperties(request.getSystemProperties())
+                    .withUserProperties(request.getUserProperties())
+                    .withCurrentWorkingDirectory(Paths.get(request.getWorkingDirectory()))
+                    .build();
+            logger.debug("Nisse prefetching sources");
+            nisseManager.prefetch(configuration, Arrays.asList("jgit", "os"));
+        } catch (IOException | RuntimeException e) {
+            logger.debug("Nisse prefetch failed to start", e);
+        }
+    }
+
+    private static SimpleNisseConfiguration.Builder configurationBuilder(Path sessionRootDirectory)
+            throws IOException {
+        return SimpleNisseConfiguration.builder()
+                .withSessionRootDirectory(sessionRootDirectory)
+                .combinePropertyKeyNamingStrategy(PropertyKeyNamingStrategies.translated(
+                        PropertyKeyNamingStrategies.translationTableFromPropertiesFile(
+                                sessionRootDirectory.resolve(".mvn").resolve("nisse-translation.properties")),
+                        PropertyKeyNamingStrategies.sourcePrefixed(),
+                        PropertyKeyNamingStrategies.defaultStrategy()));
     }
 
     @Override
     public void process(CliRequest request) throws Exception {
-        settingsXmlConfigurationProcessor.process(request);
+        prefetch(request);
+        Map<String, String> nisseProperties;
+        NisseConfiguration configuration;
+        try {
+            settingsXmlConfigurationProcessor.process(request);
 
-        logger.info("Maveniverse Nisse {} loaded", Version.version());
+            logger.info("Maveniverse Nisse {} loaded", Version.version());
 
-        // create properties and push what we got into CLI user properties
+            // create properties and push what we got into CLI user properties
+            configuration = configurationBuilder(
+                            request.getMultiModuleProjectDirectory().toPath())
+                    .withSystemProperties(request.getSystemProperties())
+                    .withUserProperties(request.getUserProperties())
+                    .withCurrentWorkingDirectory(Paths.get(request.getWorkingDirectory()))
+                    .withDetectReferencedPropertyKeys(true)
+                    .build();
+            nisseProperties = nisseManager.createProperties(configuration);
+        } finally {
+            // never leave prefetched results for later builds (ie. in mvnd)
+            nisseManager.discardPrefetch();
+        }
         Properties userProperties = request.getUserProperties();
-        NisseConfiguration configuration = SimpleNisseConfiguration.builder()
-                .withSystemProperties(request.getSystemProperties())
-                .withUserProperties(request.getUserProperties())
-                .withCurrentWorkingDirectory(Paths.get(request.getWorkingDirectory()))
-                .withSessionRootDirectory(
-                        request.getMultiModuleProjectDirectory().toPath())
-                .combinePropertyKeyNamingStrategy(PropertyKeyNamingStrategies.translated(
-                        PropertyKeyNamingStrategies.translationTableFromPropertiesFile(
-                                request.getMultiModuleProjectDirectory()
-                                        .toPath()
-                                        .resolve(".mvn")
-                                        .resolve("nisse-translation.properties")),
-                        PropertyKeyNamingStrategies.sourcePrefixed(),
-                        PropertyKeyNamingStrategies.defaultStrategy()))
-                .build();
-        Map<String, String> nisseProperties = nisseManager.createProperties(configuration);
+        sessionSnapshot.set(request.getRequest(), configuration, nisseProperties);
         logger.info("Nisse injecting {} properties into User Properties", nisseProperties.size());
-        if (Boolean.parseBoolean(request.getUserProperties().getProperty("nisse.dump", "false"))) {
+        if (Boolean.parseBoolean(
+                request.getUserProperties().getProperty(NisseConfiguration.CONFIGURATION_DUMP, "false"))) {
             nisseProperties.forEach((k, v) -> logger.info("{}={}", k, v));
         }
         nisseProperties.forEach((k, v) -> {
@@ -28,16 +28,45 @@ import org.slf4j.LoggerFactory;
 class NisseLifecycleParticipant extends AbstractMavenLifecycleParticipant {
     private final Logger logger = LoggerFactory.getLogger(getClass());
     private final NissePropertyInliner inliner;
+    private final NisseSessionSnapshot sessionSnapshot;
+    private final NisseModelVersionProcessor modelVersionProcessor;
 
     @Inject
-    public NisseLifecycleParticipant(NissePropertyInliner inliner) {
+    public NisseLifecycleParticipant(
+            NissePropertyInliner inliner,
+            NisseSessionSnapshot sessionSnapshot,
+            NisseModelVersionProcessor modelVersionProcessor) {
         this.inliner = requireNonNull(inliner, "inliner");
+        this.sessionSnapshot = requireNonNull(sessionSnapshot, "sessionSnapshot");
+        this.modelVersionProcessor = requireNonNull(modelVersionProcessor, "modelVersionProcessor");
     }
 
     @Override
     public void afterSessionStart(MavenSession session) throws MavenExecutionException {
+        NisseSessionSnapshot.Snapshot snapshot = sessionSnapshot.take(session.getRequest());
+        NisseConfiguration configuration;
+        if (snapshot != null) {
+            logger.debug("Nisse reusing configuration and properties created at CLI processing");
+            configuration = snapshot.configuration;
+            session.getRepositorySession()
+                    .getData()
+                    .set(NisseConfiguration.PROPERTIES_INSTANCE_KEY, snapshot.properties);
+        } else {
+            configuration = createConfiguration(session);
+        }
+        InlinedProperties inlinedProperties = inliner.inlinedProperties(session);
+        for (String inlinedKey : configuration.getInlinedPropertyKeys()) {
+            if (inlinedProperties.add(inlinedKey)) {
+                logger.info("Nisse property {} configured for inlining", inlinedKey);
+            }
+        }
+        modelVersionProcessor.publish(inlinedProperties);
+        session.getRepositorySession().getData().set(NisseConfiguration.CONFIGURATION_INSTANCE_KEY, configuration);
+    }
+
+    private NisseConfiguration createConfiguration(MavenSession session) throws MavenExecutionException {
         try {
-            NisseConfiguration configuration = SimpleNisseConfiguration.builder()
+            return SimpleNisseConfiguration.builder()
                     .withSystemProperties(session.getSystemProperties())
                     .withUserProperties(session.getUserProperties())
                     .withCurrentWorkingDirectory(Paths.get(session.getRequest().getBaseDirectory()))
@@ -53,12 +82,6 @@ class NisseLifecycleParticipant extends AbstractMavenLifecycleParticipant {
                             PropertyKeyNamingStrategies.sourcePrefixed(),
                             PropertyKeyNamingStrategies.defaultStrategy()))
                     .build();
-            for (String inlinedKey : configuration.getInlinedPropertyKeys()) {
-                if (inliner.inlinedKeys(session).add(inlinedKey)) {
-                    logger.info("Nisse property {} configured for inlining", inlinedKey);
-                }
-            }
-            session.getRepositorySession().getData().set(NisseConfiguration.CONFIGURATION_INSTANCE_KEY, configuration);
         } catch (IOException e) {
             throw new MavenExecutionException("Error while creating Nisse configuration", e);
         }
@@ -76,6 +99,8 @@ class NisseLifecycleParticipant extends AbstractMavenLifecycleParticipant {
 
     @Override
     public void afterSessionEnd(MavenSession session) throws MavenExecutionException {
+        modelVersionProcessor.clear();
+        sessionSnapshot.clear(session.getRequest());
         try {
             inliner.cleanup(session, session.getProjects(), (NisseConfiguration)
                     session.getRepositorySession().getData().get(NisseConfiguration.CONFIGURATION_INSTANCE_KEY));
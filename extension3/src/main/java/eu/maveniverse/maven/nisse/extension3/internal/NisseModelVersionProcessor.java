@@ -7,60 +7,67 @@
  */
 package eu.maveniverse.maven.nisse.extension3.internal;
 
-import static java.util.Objects.requireNonNull;
-
 import eu.maveniverse.maven.nisse.core.NisseConfiguration;
+import java.util.Map;
 import java.util.Properties;
-import javax.inject.Inject;
 import javax.inject.Named;
-import javax.inject.Provider;
 import javax.inject.Singleton;
-import org.apache.maven.execution.MavenSession;
 import org.apache.maven.model.building.ModelBuildingRequest;
 import org.apache.maven.model.interpolation.ModelVersionProcessor;
 import org.eclipse.sisu.Priority;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 
+/**
+ * Makes Nisse properties valid in project versions, and inlines them into models. It is invoked for every model
+ * Maven builds, hence it does not look up the session: the {@link InlinedProperties} of current session are published
+ * once at session start (see {@link NisseLifecycleParticipant}), and read here directly. Out of session, there are
+ * no inlined properties.
+ */
 @Singleton
 @Named
 @Priority(200)
 final class NisseModelVersionProcessor implements ModelVersionProcessor {
-    private final Logger logger = LoggerFactory.getLogger(NisseModelVersionProcessor.class);
-    private final Provider<MavenSession> sessionProvider;
-    private final NissePropertyInliner inliner;
+    private volatile InlinedProperties inlinedProperties;
+
+    /**
+     * Publishes the inlined properties of session being started.
+     */
+    void publish(InlinedProperties inlinedProperties) {
+        this.inlinedProperties = inlinedProperties;
+    }
 
-    @Inject
-    public NisseModelVersionProcessor(Provider<MavenSession> sessionProvider, NissePropertyInliner inliner) {
-        this.sessionProvider = requireNonNull(sessionProvider, "sessionProvider");
-        this.inliner = requireNonNull(inliner, "inliner");
+    /**
+     * Clears the inlined properties of session being ended.
+     */
+    void clear() {
+        this.inlinedProperties = null;
     }
 
     @Override
     public boolean isValidProperty(String property) {
-        MavenSession session = this.sessionProvider.get();
-        boolean valid = property.startsWith(NisseConfiguration.PROPERTY_PREFIX)
-                && session.getRequest().getUserProperties().containsKey(property);
-        if (valid) {
-            inliner.inlinedKeys(session).add(property);
+        if (!property.startsWith(NisseConfiguration.PROPERTY_PREFIX)) {
+            return false;
         }
-        return valid;
+        InlinedProperties current = this.inlinedProperties;
+        if (current == null) {
+            return false;
+        }
+        if (current.contains(property)) {
+            return true;
+        }
+        if (current.isAvailable(property)) {
+            current.add(property);
+            return true;
+        }
+        return false;
     }
 
     @Override
     public void overwriteModelProperties(Properties modelProperties, ModelBuildingRequest request) {
-        try {
-            MavenSession session = this.sessionProvider.get();
-            for (String inlinedKey : inliner.inlinedKeys(session)) {
-                modelProperties.setProperty(
-                        inlinedKey, session.getRequest().getUserProperties().getProperty(inlinedKey));
-            }
-        } catch (Exception e) {
-            // ignore; this means we were invoked outside of session
-            if (logger.isDebugEnabled()) {
-                logger.warn("NisseModelVersionProcessor.overwriteModelProperties: failed, called out of session?", e);
-            } else {
-                logger.warn("NisseModelVersionProcessor.overwriteModelProperties: failed, called out of session?");
+        InlinedProperties current = this.inlinedProperties;
+        if (current != null) {
+            Map<String, String> snapshot = current.snapshot();
+            if (!snapshot.isEmpty()) {
+                modelProperties.putAll(snapshot);
             }
         }
     }
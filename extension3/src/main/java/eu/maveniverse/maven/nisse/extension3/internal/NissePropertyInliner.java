@@ -9,17 +9,23 @@ package eu.maveniverse.maven.nisse.extension3.internal;
 
 import eu.maveniverse.maven.nisse.core.NisseConfiguration;
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Collection;
-import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.function.Function;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.stream.Collectors;
-import java.util.stream.Stream;
 import javax.inject.Named;
 import javax.inject.Singleton;
 import org.apache.maven.execution.MavenSession;
@@ -36,46 +42,38 @@ final class NissePropertyInliner {
     private static final String INLINED_POM_PATHS_KEY = NissePropertyInliner.class.getName() + ".inlined";
 
     /**
-     * Session data stored {@code Set<String>} that holds those keys that cause that POM needs to be inlined.
+     * Session data stored {@link InlinedProperties} that holds those properties that cause that POM needs to be
+     * inlined.
      */
     private static final String NEEDS_INLINING_COLLECTION = NisseConfiguration.PROPERTY_PREFIX + "needs-inlining";
 
     private final Logger logger = LoggerFactory.getLogger(getClass());
 
-    @SuppressWarnings("unchecked")
-    public synchronized Collection<String> inlinedKeys(MavenSession session) {
-        Set<String> inlinedKeys = (Set<String>)
-                session.getRepositorySession().getData().get(NissePropertyInliner.NEEDS_INLINING_COLLECTION);
-        if (inlinedKeys == null) {
-            inlinedKeys = ConcurrentHashMap.newKeySet();
-            session.getRepositorySession().getData().set(NissePropertyInliner.NEEDS_INLINING_COLLECTION, inlinedKeys);
-        }
-        return inlinedKeys;
+    InlinedProperties inlinedProperties(MavenSession session) {
+        return (InlinedProperties) session.getRepositorySession()
+                .getData()
+                .computeIfAbsent(NEEDS_INLINING_COLLECTION, () -> new InlinedProperties(session.getUserProperties()));
     }
 
     void mayInlinePom(
             MavenSession session, Collection<MavenProject> mavenProjects, NisseConfiguration nisseConfiguration)
             throws IOException {
-        Collection<String> inlinedKeys = inlinedKeys(session);
-        if (!inlinedKeys.isEmpty()) {
-            Map<String, String> inlinedProperties = new HashMap<>();
-            for (String inlinedKey : inlinedKeys) {
-                inlinedProperties.put(
-                        "${" + inlinedKey + "}", session.getUserProperties().getProperty(inlinedKey));
-            }
+        Map<String, String> inlinedProperties = inlinedProperties(session).snapshot();
+        if (!inlinedProperties.isEmpty()) {
             logger.info("Nisse inlining following properties:");
             for (Map.Entry<String, String> entry : inlinedProperties.entrySet()) {
-                logger.info(" * {}={}", entry.getKey(), entry.getValue());
+                logger.info(" * ${{}}={}", entry.getKey(), entry.getValue());
             }
             logger.info("Checking POMs for inlining:");
-            for (MavenProject mavenProject : mavenProjects) {
-                Path pomPath = mavenProject.getFile().toPath();
-                if (isAnyKeyPresent(inlinedProperties, pomPath)) {
-                    // needs rewrite
+            List<MavenProject> projects = new ArrayList<>(mavenProjects);
+            List<Boolean> inlined =
+                    inlineAll(projects, inlinedProperties, inlinedPoms(session), threads(nisseConfiguration));
+            // apply results in reactor order, to keep it deterministic
+            for (int i = 0; i < projects.size(); i++) {
+                if (inlined.get(i)) {
+                    MavenProject mavenProject = projects.get(i);
+                    Path inlinedPomPath = inlinedPomPath(mavenProject.getFile().toPath());
                     logger.info(" * {}:{} needs inlining", mavenProject.getGroupId(), mavenProject.getArtifactId());
-                    Path inlinedPomPath = pomPath.getParent().resolve(".inlined-" + pomPath.getFileName());
-                    inlinedPoms(session).add(inlinedPomPath);
-                    inline(pomPath, inlinedPomPath, inlinedProperties);
                     mavenProject.setPomFile(inlinedPomPath.toFile());
                 }
             }
@@ -91,10 +89,23 @@ final class NissePropertyInliner {
                 .getOrDefault(NisseConfiguration.CONFIGURATION_INLINER_SUPPRESS_CLEANUP, Boolean.FALSE.toString()))) {
             logger.info("Nisse property inliner cleanup is suppressed by configuration");
         } else {
+            Path manifest =
+                    nisseConfiguration.getSessionRootDirectory().resolve(NisseConfiguration.INLINED_POMS_MANIFEST);
             Set<Path> inlinedPoms = inlinedPoms(session);
-            if (!inlinedPoms.isEmpty()) {
-                logger.info("Nisse property inliner cleanup of {} inlined POMs", inlinedPoms.size());
-                for (Path inlinedPom : inlinedPoms) {
+            Set<Path> stalePoms = readManifest(manifest);
+            stalePoms.removeAll(inlinedPoms);
+            if (Boolean.parseBoolean(nisseConfiguration
+                    .getConfiguration()
+                    .getOrDefault(NisseConfiguration.CONFIGURATION_INLINER_KEEP, Boolean.FALSE.toString()))) {
+                logger.info("Nisse property inliner keeps {} inlined POMs", inlinedPoms.size());
+                writeManifest(manifest, inlinedPoms);
+            } else {
+                stalePoms.addAll(inlinedPoms);
+                Files.deleteIfExists(manifest);
+            }
+            if (!stalePoms.isEmpty()) {
+                logger.info("Nisse property inliner cleanup of {} inlined POMs", stalePoms.size());
+                for (Path inlinedPom : stalePoms) {
                     logger.debug("Nisse property inliner cleanup: {}", inlinedPom);
                     Files.deleteIfExists(inlinedPom);
                 }
@@ -102,42 +113,130 @@ final class NissePropertyInliner {
         }
     }
 
-    @SuppressWarnings("unchecked")
-    private Set<Path> inlinedPoms(MavenSession session) {
-        return (Set<Path>) session.getRepositorySession()
-                .getData()
-                .computeIfAbsent(INLINED_POM_PATHS_KEY, ConcurrentHashMap::newKeySet);
+    /**
+     * Reads the manifest of inlined POMs kept by previous build, if exists. Returns mutable set.
+     */
+    private static Set<Path> readManifest(Path manifest) throws IOException {
+        HashSet<Path> result = new HashSet<>();
+        if (Files.isRegularFile(manifest)) {
+            for (String line : Files.readAllLines(manifest, StandardCharsets.UTF_8)) {
+                if (!line.trim().isEmpty()) {
+                    result.add(manifest.getParent().resolve(line.trim()).normalize());
+                }
+            }
+        }
+        return result;
+    }
+
+    private static void writeManifest(Path manifest, Set<Path> inlinedPoms) throws IOException {
+        if (inlinedPoms.isEmpty()) {
+            Files.deleteIfExists(manifest);
+        } else {
+            Path root = manifest.getParent();
+            List<String> lines = inlinedPoms.stream()
+                    .map(p -> root.relativize(p).toString())
+                    .sorted()
+                    .collect(Collectors.toList());
+            Files.write(manifest, lines, StandardCharsets.UTF_8);
+        }
+    }
+
+    private int threads(NisseConfiguration nisseConfiguration) {
+        String threads = nisseConfiguration.getConfiguration().get(NisseConfiguration.CONFIGURATION_INLINER_THREADS);
+        if (threads != null) {
+            try {
+                return Math.max(1, Integer.parseInt(threads.trim()));
+            } catch (NumberFormatException e) {
+                logger.warn(
+                        "Invalid {} value '{}'; using count of available processors",
+                        NisseConfiguration.CONFIGURATION_INLINER_THREADS,
+                        threads);
+            }
+        }
+        return Runtime.getRuntime().availableProcessors();
+    }
+
+    private static Path inlinedPomPath(Path pomPath) {
+        return pomPath.getParent().resolve(NisseConfiguration.INLINED_POM_PREFIX + pomPath.getFileName());
     }
 
-    private boolean isAnyKeyPresent(Map<String, String> inlinedProperties, Path file) throws IOException {
-        try (Stream<String> lines = Files.lines(file, StandardCharsets.UTF_8)) {
-            return lines.anyMatch(l -> {
-                for (String placeholder : inlinedProperties.keySet()) {
-                    if (l.contains(placeholder)) {
-                        return true;
-                    }
+    /**
+     * Inlines POMs of all given projects using a bounded pool, and returns list of results in same order as
+     * projects are. As each project has its own POM and inlined POM, the tasks are independent. Inlined POMs are
+     * registered for cleanup as soon as they are written (or reused).
+     */
+    private List<Boolean> inlineAll(
+            List<MavenProject> projects, Map<String, String> inlinedProperties, Set<Path> inlinedPoms, int threads)
+            throws IOException {
+        PomInliner pomInliner = new PomInliner(inlinedProperties);
+        ArrayList<Callable<Boolean>> tasks = new ArrayList<>(projects.size());
+        for (MavenProject project : projects) {
+            Path pomPath = project.getFile().toPath();
+            Path inlinedPomPath = inlinedPomPath(pomPath);
+            tasks.add(() -> {
+                PomInliner.Result result = pomInliner.inline(pomPath, inlinedPomPath);
+                logger.debug("Nisse property inliner {}: {} -> {}", result, pomPath, inlinedPomPath);
+                if (result == PomInliner.Result.UNSUPPORTED_ENCODING) {
+                    logger.warn("Nisse property inliner skipped {}: unsupported POM encoding", pomPath);
+                } else if (result != PomInliner.Result.NOT_NEEDED) {
+                    inlinedPoms.add(inlinedPomPath);
+                    return true;
                 }
                 return false;
             });
         }
+        ArrayList<Boolean> results = new ArrayList<>(tasks.size());
+        if (threads < 2 || tasks.size() < 2) {
+            for (Callable<Boolean> task : tasks) {
+                results.add(call(task));
+            }
+            return results;
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(threads, tasks.size()), r -> {
+            Thread thread = new Thread(r, "nisse-inliner");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            for (Future<Boolean> future : executor.invokeAll(tasks)) {
+                results.add(get(future));
+            }
+            return results;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while inlining POMs");
+        } finally {
+            executor.shutdownNow();
+        }
     }
 
-    private void inline(Path sourcePom, Path targetPom, Map<String, String> inlinedProperties) throws IOException {
-        Function<String, String> replacer = line -> {
-            if (line.contains("${") && line.contains("}")) {
-                String processed = line;
-                for (Map.Entry<String, String> entry : inlinedProperties.entrySet()) {
-                    processed = processed.replace(entry.getKey(), entry.getValue());
-                }
-                return processed;
-            }
-            return line;
-        };
+    private static Boolean call(Callable<Boolean> task) throws IOException {
+        try {
+            return task.call();
+        } catch (IOException | RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IOException(e);
+        }
+    }
 
-        try (Stream<String> lines =
-                Files.lines(sourcePom, StandardCharsets.UTF_8).map(replacer)) {
-            Files.write(targetPom, lines.collect(Collectors.toList()), StandardCharsets.UTF_8);
+    private static Boolean get(Future<Boolean> future) throws IOException, InterruptedException {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            } else if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IOException(e.getCause());
         }
-        logger.debug("Nisse property inliner inlined: {} -> {}", sourcePom, targetPom);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Set<Path> inlinedPoms(MavenSession session) {
+        return (Set<Path>) session.getRepositorySession()
+                .getData()
+                .computeIfAbsent(INLINED_POM_PATHS_KEY, ConcurrentHashMap::newKeySet);
     }
 }
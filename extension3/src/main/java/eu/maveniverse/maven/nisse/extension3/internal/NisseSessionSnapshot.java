@@ -0,0 +1,77 @@
+/*
+ * Copyright (c) 2023-2024 Maveniverse Org.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-v20.html
+ */
+package eu.maveniverse.maven.nisse.extension3.internal;
+
+import static java.util.Objects.requireNonNull;
+
+import eu.maveniverse.maven.nisse.core.NisseConfiguration;
+import java.lang.ref.WeakReference;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+import javax.inject.Named;
+import javax.inject.Singleton;
+import org.apache.maven.execution.MavenExecutionRequest;
+
+/**
+ * Holds the configuration and the properties created at CLI processing time, so later components of same build
+ * (lifecycle participant, mojos via session data) can reuse them instead to create them again.
+ * <p>
+ * Note: the snapshot belongs to the execution request it was created for (by identity), and is taken (removed) by
+ * its first use, hence in long-lived processes running several builds (ie. mvnd) a build is never served the
+ * snapshot of another build, even if it has same session root directory.
+ */
+@Singleton
+@Named
+final class NisseSessionSnapshot {
+    private final AtomicReference<Snapshot> snapshot = new AtomicReference<>();
+
+    /**
+     * Sets the snapshot of build of given request.
+     */
+    void set(MavenExecutionRequest request, NisseConfiguration configuration, Map<String, String> properties) {
+        this.snapshot.set(new Snapshot(request, configuration, properties));
+    }
+
+    /**
+     * Returns and removes the snapshot, if present and belongs to given request, otherwise returns {@code null}.
+     */
+    Snapshot take(MavenExecutionRequest request) {
+        requireNonNull(request, "request");
+        Snapshot current = this.snapshot.get();
+        if (current != null && current.request.get() == request && this.snapshot.compareAndSet(current, null)) {
+            return current;
+        }
+        return null;
+    }
+
+    /**
+     * Removes the snapshot, if it belongs to given request.
+     */
+    void clear(MavenExecutionRequest request) {
+        requireNonNull(request, "request");
+        Snapshot current = this.snapshot.get();
+        if (current != null && current.request.get() == request) {
+            this.snapshot.compareAndSet(current, null);
+        }
+    }
+
+    static final class Snapshot {
+        private final WeakReference<MavenExecutionRequest> request;
+        final NisseConfiguration configuration;
+        final Map<String, String> properties;
+
+        private Snapshot(
+                MavenExecutionRequest request, NisseConfiguration configuration, Map<String, String> properties) {
+            this.request = new WeakReference<>(requireNonNull(request, "request"));
+            this.configuration = requireNonNull(configuration, "configuration");
+            this.properties = Collections.unmodifiableMap(new HashMap<>(requireNonNull(properties, "properties")));
+        }
+    }
+}
@@ -0,0 +1,302 @@
+/*
+ * Copyright (c) 2023-2024 Maveniverse Org.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-v20.html
+ */
+package eu.maveniverse.maven.nisse.extension3.internal;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Byte level POM inliner: replaces {@code ${key}} expressions with values, and copies everything else verbatim, so
+ * line endings, trailing newline and any other byte of the POM are preserved. The source is read and scanned once,
+ * and the target is written to a temporary file, that is then moved (atomically, if supported) to its place.
+ * <p>
+ * The scan is done on bytes: in UTF-8 and in single byte ASCII compatible encodings (ie. ISO-8859-1) the delimiter
+ * bytes {@code $}, <code>{</code> and <code>}</code> never appear as part of another character. Keys and values are
+ * decoded and encoded using the encoding declared by the POM (defaults to UTF-8), and POMs using any other encoding
+ * (ie. UTF-16) are not inlined.
+ */
+final class PomInliner {
+    /**
+     * The outcome of inlining.
+     */
+    enum Result {
+        /**
+         * No expression to replace found, the target was not touched.
+         */
+        NOT_NEEDED,
+        /**
+         * The target already existed with identical content, it was not touched.
+         */
+        REUSED,
+        /**
+         * The target was written.
+         */
+        WRITTEN,
+        /**
+         * The POM encoding is not supported, or a value cannot be encoded in it, the target was not touched.
+         */
+        UNSUPPORTED_ENCODING
+    }
+
+    /**
+     * The XML declaration, if present, is looked for within this many leading bytes.
+     */
+    private static final int DECLARATION_MAX = 1024;
+
+    private static final byte[] UTF8_BOM = {(byte) 0xEF, (byte) 0xBB, (byte) 0xBF};
+
+    private static final Pattern ENCODING_PATTERN = Pattern.compile("\\sencoding\\s*=\\s*[\"']([^\"']+)[\"']");
+
+    private final Map<String, String> values;
+
+    PomInliner(Map<String, String> inlinedProperties) {
+        this.values = new HashMap<>(inlinedProperties);
+    }
+
+    Result inline(Path sourcePom, Path targetPom) throws IOException {
+        // read into heap: mapped files stay locked (on some platforms) until the mapping is garbage collected
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(sourcePom));
+        Charset charset = encoding(buffer);
+        if (charset == null) {
+            return Result.UNSUPPORTED_ENCODING;
+        }
+        List<Replacement> replacements;
+        try {
+            replacements = scan(buffer, charset);
+        } catch (CharacterCodingException e) {
+            return Result.UNSUPPORTED_ENCODING;
+        }
+        if (replacements.isEmpty()) {
+            return Result.NOT_NEEDED;
+        }
+        if (isSame(buffer, replacements, targetPom)) {
+            return Result.REUSED;
+        }
+        // written to a temporary file first, so a failed write never leaves a truncated target behind
+        // (not using Files.createTempFile, as it would create the target with owner only permissions)
+        Path temporary = targetPom.resolveSibling(targetPom.getFileName() + "." + UUID.randomUUID() + ".tmp");
+        try {
+            try (FileChannel target =
+                    FileChannel.open(temporary, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+                int copied = 0;
+                for (Replacement replacement : replacements) {
+                    write(target, buffer, copied, replacement.start);
+                    write(target, ByteBuffer.wrap(replacement.value), 0, replacement.value.length);
+                    copied = replacement.end;
+                }
+                write(target, buffer, copied, buffer.limit());
+            }
+            move(temporary, targetPom);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+        return Result.WRITTEN;
+    }
+
+    /**
+     * Returns the encoding declared by the XML declaration of POM (defaults to UTF-8), or {@code null} if the encoding
+     * is not supported by byte level scan: only UTF-8 and single byte ASCII compatible encodings are supported.
+     */
+    static Charset encoding(ByteBuffer buffer) {
+        int limit = Math.min(buffer.limit(), DECLARATION_MAX);
+        if (limit >= UTF8_BOM.length
+                && buffer.get(0) == UTF8_BOM[0]
+                && buffer.get(1) == UTF8_BOM[1]
+                && buffer.get(2) == UTF8_BOM[2]) {
+            return StandardCharsets.UTF_8;
+        }
+        if (limit >= 2) {
+            // UTF-16 or UTF-32, with or without BOM
+            int b0 = buffer.get(0) & 0xFF;
+            int b1 = buffer.get(1) & 0xFF;
+            if (b0 == 0 || b1 == 0 || b0 == 0xFE || b0 == 0xFF) {
+                return null;
+            }
+        }
+        byte[] head = new byte[limit];
+        for (int i = 0; i < head.length; i++) {
+            head[i] = buffer.get(i);
+        }
+        String declaration = new String(head, StandardCharsets.ISO_8859_1);
+        int end = declaration.indexOf("?>");
+        if (!declaration.startsWith("<?xml") || end < 0) {
+            return StandardCharsets.UTF_8;
+        }
+        Matcher matcher = ENCODING_PATTERN.matcher(declaration.substring(0, end));
+        if (!matcher.find()) {
+            return StandardCharsets.UTF_8;
+        }
+        Charset charset;
+        try {
+            charset = Charset.forName(matcher.group(1).trim());
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        if (StandardCharsets.UTF_8.equals(charset)) {
+            return charset;
+        }
+        if (charset.canEncode()
+                && charset.newEncoder().maxBytesPerChar() == 1
+                && Arrays.equals("${}".getBytes(charset), "${}".getBytes(StandardCharsets.US_ASCII))) {
+            return charset;
+        }
+        return null;
+    }
+
+    /**
+     * Scans the buffer for {@code ${key}} expressions having value, and returns them in order of appearance. Keys are
+     * decoded and values are encoded using given charset; throws if a value cannot be encoded.
+     */
+    List<Replacement> scan(ByteBuffer buffer, Charset charset) throws CharacterCodingException {
+        HashMap<String, byte[]> encoded = new HashMap<>();
+        ArrayList<Replacement> result = new ArrayList<>();
+        int limit = buffer.limit();
+        int start = indexOfExpressionStart(buffer, 0, limit);
+        while (start >= 0) {
+            int end = indexOf(buffer, (byte) '}', start + 2, limit);
+            if (end < 0) {
+                break;
+            }
+            byte[] key = new byte[end - start - 2];
+            for (int i = 0; i < key.length; i++) {
+                key[i] = buffer.get(start + 2 + i);
+            }
+            String name = new String(key, charset);
+            String value = values.get(name);
+            if (value != null) {
+                byte[] bytes = encoded.get(name);
+                if (bytes == null) {
+                    bytes = encode(value, charset);
+                    encoded.put(name, bytes);
+                }
+                result.add(new Replacement(start, end + 1, bytes));
+                start = indexOfExpressionStart(buffer, end + 1, limit);
+            } else {
+                start = indexOfExpressionStart(buffer, start + 2, limit);
+            }
+        }
+        return result;
+    }
+
+    private static byte[] encode(String value, Charset charset) throws CharacterCodingException {
+        ByteBuffer buffer = charset.newEncoder()
+                .onMalformedInput(CodingErrorAction.REPORT)
+                .onUnmappableCharacter(CodingErrorAction.REPORT)
+                .encode(CharBuffer.wrap(value));
+        byte[] result = new byte[buffer.remaining()];
+        buffer.get(result);
+        return result;
+    }
+
+    /**
+     * Returns {@code true} if target exists and has same content as source with replacements would have.
+     */
+    static boolean isSame(ByteBuffer source, List<Replacement> replacements, Path targetPom)
+            throws IOException {
+        if (!Files.isRegularFile(targetPom)) {
+            return false;
+        }
+        long expectedSize = source.limit();
+        for (Replacement replacement : replacements) {
+            expectedSize += replacement.value.length - (replacement.end - replacement.start);
+        }
+        if (Files.size(targetPom) != expectedSize) {
+            return false;
+        }
+        // target is read, not mapped, as mapped files cannot be truncated on some platforms
+        byte[] target = Files.readAllBytes(targetPom);
+        int t = 0;
+        int copied = 0;
+        for (Replacement replacement : replacements) {
+            for (int i = copied; i < replacement.start; i++) {
+                if (source.get(i) != target[t++]) {
+                    return false;
+                }
+            }
+            for (byte b : replacement.value) {
+                if (b != target[t++]) {
+                    return false;
+                }
+            }
+            copied = replacement.end;
+        }
+        for (int i = copied; i < source.limit(); i++) {
+            if (source.get(i) != target[t++]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void write(FileChannel target, ByteBuffer buffer, int from, int to) throws IOException {
+        ByteBuffer slice = buffer.duplicate();
+        slice.limit(to).position(from);
+        while (slice.hasRemaining()) {
+            target.write(slice);
+        }
+    }
+
+    private static void move(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static int indexOfExpressionStart(ByteBuffer buffer, int from, int limit) {
+        int i = indexOf(buffer, (byte) '$', from, limit);
+        while (i >= 0 && i + 1 < limit) {
+            if (buffer.get(i + 1) == '{') {
+                return i;
+            }
+            i = indexOf(buffer, (byte) '$', i + 1, limit);
+        }
+        return -1;
+    }
+
+    private static int indexOf(ByteBuffer buffer, byte b, int from, int limit) {
+        for (int i = from; i < limit; i++) {
+            if (buffer.get(i) == b) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    static final class Replacement {
+        final int start;
+        final int end;
+        final byte[] value;
+
+        private Replacement(int start, int end, byte[] value) {
+            this.start = start;
+            this.end = end;
+            this.value = value;
+        }
+    }
+}
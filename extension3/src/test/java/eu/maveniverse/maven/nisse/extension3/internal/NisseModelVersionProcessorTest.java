@@ -0,0 +1,51 @@
+package eu.maveniverse.maven.nisse.extension3.internal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Properties;
+import org.junit.jupiter.api.Test;
+
+public class NisseModelVersionProcessorTest {
+    @Test
+    void publishedInlinedProperties() {
+        Properties userProperties = new Properties();
+        userProperties.setProperty("nisse.jgit.dynamicVersion", "1.0.0");
+        userProperties.setProperty("nisse.os.name", "linux");
+        userProperties.setProperty("other", "value");
+        InlinedProperties inlinedProperties = new InlinedProperties(userProperties);
+        inlinedProperties.add("nisse.os.name");
+
+        NisseModelVersionProcessor processor = new NisseModelVersionProcessor();
+        processor.publish(inlinedProperties);
+
+        // user properties changed after session start are not seen
+        userProperties.setProperty("nisse.late", "late");
+        assertTrue(processor.isValidProperty("nisse.os.name"));
+        assertTrue(processor.isValidProperty("nisse.jgit.dynamicVersion"));
+        assertFalse(processor.isValidProperty("nisse.late"));
+        assertFalse(processor.isValidProperty("other"));
+
+        // valid properties are registered for inlining
+        Properties modelProperties = new Properties();
+        processor.overwriteModelProperties(modelProperties, null);
+        assertEquals(2, modelProperties.size());
+        assertEquals("1.0.0", modelProperties.getProperty("nisse.jgit.dynamicVersion"));
+        assertEquals("linux", modelProperties.getProperty("nisse.os.name"));
+    }
+
+    @Test
+    void outOfSession() {
+        NisseModelVersionProcessor processor = new NisseModelVersionProcessor();
+        Properties userProperties = new Properties();
+        userProperties.setProperty("nisse.os.name", "linux");
+        processor.publish(new InlinedProperties(userProperties));
+        processor.clear();
+
+        assertFalse(processor.isValidProperty("nisse.os.name"));
+        Properties modelProperties = new Properties();
+        processor.overwriteModelProperties(modelProperties, null);
+        assertTrue(modelProperties.isEmpty());
+    }
+}
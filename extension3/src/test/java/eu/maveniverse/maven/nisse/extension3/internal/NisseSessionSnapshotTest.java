@@ -0,0 +1,63 @@
+package eu.maveniverse.maven.nisse.extension3.internal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import eu.maveniverse.maven.nisse.core.NisseConfiguration;
+import eu.maveniverse.maven.nisse.core.simple.SimpleNisseConfiguration;
+import java.nio.file.Path;
+import java.util.Collections;
+import org.apache.maven.execution.DefaultMavenExecutionRequest;
+import org.apache.maven.execution.MavenExecutionRequest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class NisseSessionSnapshotTest {
+    @Test
+    void reuse(@TempDir Path root) {
+        NisseSessionSnapshot sessionSnapshot = new NisseSessionSnapshot();
+        MavenExecutionRequest request = new DefaultMavenExecutionRequest();
+        NisseConfiguration configuration = configuration(root);
+        sessionSnapshot.set(request, configuration, Collections.singletonMap("nisse.os.name", "linux"));
+
+        NisseSessionSnapshot.Snapshot snapshot = sessionSnapshot.take(request);
+        assertSame(configuration, snapshot.configuration);
+        assertEquals(Collections.singletonMap("nisse.os.name", "linux"), snapshot.properties);
+
+        // taken only once
+        assertNull(sessionSnapshot.take(request));
+    }
+
+    @Test
+    void mismatch(@TempDir Path root) {
+        NisseSessionSnapshot sessionSnapshot = new NisseSessionSnapshot();
+        MavenExecutionRequest request = new DefaultMavenExecutionRequest();
+        sessionSnapshot.set(request, configuration(root), Collections.emptyMap());
+
+        // later build in same directory, that skipped CLI processing
+        MavenExecutionRequest later = new DefaultMavenExecutionRequest();
+        assertNull(sessionSnapshot.take(later));
+        sessionSnapshot.clear(later);
+
+        // snapshot of other build is left intact by them
+        assertEquals(Collections.emptyMap(), sessionSnapshot.take(request).properties);
+    }
+
+    @Test
+    void clearedAtSessionEnd(@TempDir Path root) {
+        NisseSessionSnapshot sessionSnapshot = new NisseSessionSnapshot();
+        MavenExecutionRequest request = new DefaultMavenExecutionRequest();
+        sessionSnapshot.set(request, configuration(root), Collections.emptyMap());
+
+        sessionSnapshot.clear(request);
+        assertNull(sessionSnapshot.take(request));
+    }
+
+    private static NisseConfiguration configuration(Path root) {
+        return SimpleNisseConfiguration.builder()
+                .withCurrentWorkingDirectory(root)
+                .withSessionRootDirectory(root)
+                .build();
+    }
+}
@@ -0,0 +1,171 @@
+package eu.maveniverse.maven.nisse.extension3.internal;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class PomInlinerTest {
+    private static final Map<String, String> VALUES;
+
+    static {
+        HashMap<String, String> values = new HashMap<>();
+        values.put("nisse.jgit.dynamicVersion", "1.0.0-SNAPSHOT");
+        values.put("name", "caf\u00e9");
+        VALUES = Collections.unmodifiableMap(values);
+    }
+
+    @Test
+    void encoding() {
+        assertEquals(StandardCharsets.UTF_8, PomInliner.encoding(buffer("<project/>", StandardCharsets.UTF_8)));
+        assertEquals(
+                StandardCharsets.UTF_8,
+                PomInliner.encoding(buffer("<?xml version=\"1.0\"?><project/>", StandardCharsets.UTF_8)));
+        assertEquals(
+                StandardCharsets.UTF_8,
+                PomInliner.encoding(
+                        buffer("<?xml version='1.0' encoding='UTF-8'?><project/>", StandardCharsets.UTF_8)));
+        assertEquals(
+                StandardCharsets.ISO_8859_1,
+                PomInliner.encoding(
+                        buffer("<?xml version=\"1.0\" encoding=\"ISO-8859-1\"?><project/>", StandardCharsets.UTF_8)));
+        // unknown encodings are not supported
+        assertNull(PomInliner.encoding(buffer("<?xml version=\"1.0\" encoding=\"nope\"?>", StandardCharsets.UTF_8)));
+        // empty file defaults to UTF-8
+        assertEquals(StandardCharsets.UTF_8, PomInliner.encoding(ByteBuffer.allocate(0)));
+    }
+
+    @Test
+    void encodingBom() {
+        byte[] content = "<?xml version=\"1.0\"?><project/>".getBytes(StandardCharsets.UTF_8);
+        byte[] withBom = new byte[content.length + 3];
+        withBom[0] = (byte) 0xEF;
+        withBom[1] = (byte) 0xBB;
+        withBom[2] = (byte) 0xBF;
+        System.arraycopy(content, 0, withBom, 3, content.length);
+        assertEquals(StandardCharsets.UTF_8, PomInliner.encoding(ByteBuffer.wrap(withBom)));
+    }
+
+    @Test
+    void encodingUtf16Rejected() {
+        String pom = "<?xml version=\"1.0\" encoding=\"UTF-16\"?><project/>";
+        // with BOM (big and little endian)
+        assertNull(PomInliner.encoding(buffer(pom, StandardCharsets.UTF_16)));
+        assertNull(PomInliner.encoding(buffer("\ufeff" + pom, StandardCharsets.UTF_16LE)));
+        // without BOM
+        assertNull(PomInliner.encoding(buffer(pom, StandardCharsets.UTF_16BE)));
+        assertNull(PomInliner.encoding(buffer(pom, StandardCharsets.UTF_16LE)));
+        // declared, but not as single byte ASCII compatible encoding
+        assertNull(PomInliner.encoding(buffer(pom, StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    void scan() throws Exception {
+        String pom = "<v>${nisse.jgit.dynamicVersion}</v><n>${name}</n><o>${other}</o>$ {x} ${unterminated";
+        ByteBuffer buffer = buffer(pom, StandardCharsets.UTF_8);
+        List<PomInliner.Replacement> replacements = new PomInliner(VALUES).scan(buffer, StandardCharsets.UTF_8);
+        assertEquals(2, replacements.size());
+        assertEquals(pom.indexOf("${nisse"), replacements.get(0).start);
+        assertEquals(pom.indexOf("</v>"), replacements.get(0).end);
+        assertArrayEquals("1.0.0-SNAPSHOT".getBytes(StandardCharsets.UTF_8), replacements.get(0).value);
+        assertArrayEquals("caf\u00e9".getBytes(StandardCharsets.UTF_8), replacements.get(1).value);
+
+        // values are encoded in POM encoding
+        replacements = new PomInliner(VALUES)
+                .scan(buffer(pom, StandardCharsets.ISO_8859_1), StandardCharsets.ISO_8859_1);
+        assertArrayEquals("caf\u00e9".getBytes(StandardCharsets.ISO_8859_1), replacements.get(1).value);
+
+        // and if they cannot be, scan fails
+        assertThrows(
+                CharacterCodingException.class,
+                () -> new PomInliner(Collections.singletonMap("name", "\u20ac"))
+                        .scan(buffer("${name}", StandardCharsets.US_ASCII), StandardCharsets.US_ASCII));
+    }
+
+    @Test
+    void inline(@TempDir Path tempDir) throws Exception {
+        Path source = tempDir.resolve("pom.xml");
+        Path target = tempDir.resolve(".inlined-pom.xml");
+        PomInliner inliner = new PomInliner(VALUES);
+
+        Files.write(source, "<project><v>${other}</v></project>".getBytes(StandardCharsets.UTF_8));
+        assertEquals(PomInliner.Result.NOT_NEEDED, inliner.inline(source, target));
+        assertFalse(Files.exists(target));
+
+        // CRLF line endings and missing trailing newline are preserved
+        Files.write(
+                source,
+                "<project>\r\n  <version>${nisse.jgit.dynamicVersion}</version>\r\n  <name>${name}</name>\r\n</project>"
+                        .getBytes(StandardCharsets.UTF_8));
+        assertEquals(PomInliner.Result.WRITTEN, inliner.inline(source, target));
+        assertEquals(
+                "<project>\r\n  <version>1.0.0-SNAPSHOT</version>\r\n  <name>caf\u00e9</name>\r\n</project>",
+                new String(Files.readAllBytes(target), StandardCharsets.UTF_8));
+        assertNoTemporaryFiles(tempDir);
+
+        // identical target is reused, not touched
+        FileTime past = FileTime.fromMillis(System.currentTimeMillis() - 60_000L);
+        Files.setLastModifiedTime(target, past);
+        assertEquals(PomInliner.Result.REUSED, inliner.inline(source, target));
+        assertEquals(past, Files.getLastModifiedTime(target));
+
+        // different target is rewritten
+        Files.write(target, "<project/>".getBytes(StandardCharsets.UTF_8));
+        assertEquals(PomInliner.Result.WRITTEN, inliner.inline(source, target));
+        assertTrue(new String(Files.readAllBytes(target), StandardCharsets.UTF_8).contains("1.0.0-SNAPSHOT"));
+        assertNoTemporaryFiles(tempDir);
+    }
+
+    @Test
+    void inlineUnsupportedEncoding(@TempDir Path tempDir) throws Exception {
+        Path source = tempDir.resolve("pom.xml");
+        Path target = tempDir.resolve(".inlined-pom.xml");
+        Files.write(
+                source,
+                "<?xml version=\"1.0\" encoding=\"UTF-16\"?><v>${name}</v>".getBytes(StandardCharsets.UTF_16));
+        assertEquals(PomInliner.Result.UNSUPPORTED_ENCODING, new PomInliner(VALUES).inline(source, target));
+        assertFalse(Files.exists(target));
+    }
+
+    @Test
+    void isSame(@TempDir Path tempDir) throws Exception {
+        ByteBuffer source = buffer("<v>${name}</v>", StandardCharsets.UTF_8);
+        List<PomInliner.Replacement> replacements = new PomInliner(VALUES).scan(source, StandardCharsets.UTF_8);
+        Path target = tempDir.resolve(".inlined-pom.xml");
+        assertFalse(PomInliner.isSame(source, replacements, target));
+
+        Files.write(target, "<v>caf\u00e9</v>".getBytes(StandardCharsets.UTF_8));
+        assertTrue(PomInliner.isSame(source, replacements, target));
+
+        // same size, different content
+        Files.write(target, "<w>caf\u00e9</w>".getBytes(StandardCharsets.UTF_8));
+        assertFalse(PomInliner.isSame(source, replacements, target));
+    }
+
+    private static ByteBuffer buffer(String content, Charset charset) {
+        return ByteBuffer.wrap(content.getBytes(charset));
+    }
+
+    private static void assertNoTemporaryFiles(Path directory) throws Exception {
+        try (Stream<Path> files = Files.list(directory)) {
+            assertFalse(files.anyMatch(p -> p.getFileName().toString().endsWith(".tmp")));
+        }
+    }
+}
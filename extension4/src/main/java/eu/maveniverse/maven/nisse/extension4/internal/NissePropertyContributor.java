@@ -54,11 +54,13 @@ final class NissePropertyContributor implements PropertyContributor {
                                     .resolve("nisse-translation.properties")),
                             PropertyKeyNamingStrategies.sourcePrefixed(),
                             PropertyKeyNamingStrategies.defaultStrategy()))
+                    .withDetectReferencedPropertyKeys(true)
                     .build();
             Map<String, String> result = new HashMap<>(protoSession.getUserProperties());
             Map<String, String> nisseProperties = nisseManager.createProperties(configuration);
             logger.info("Nisse injecting {} properties into User Properties", nisseProperties.size());
-            if (Boolean.parseBoolean(protoSession.getUserProperties().getOrDefault("nisse.dump", "false"))) {
+            if (Boolean.parseBoolean(
+                    protoSession.getUserProperties().getOrDefault(NisseConfiguration.CONFIGURATION_DUMP, "false"))) {
                 nisseProperties.forEach((k, v) -> logger.info("{}={}", k, v));
             }
             for (Map.Entry<String, String> entry : nisseProperties.entrySet()) {
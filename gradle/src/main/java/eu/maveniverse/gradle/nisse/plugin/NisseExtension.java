@@ -24,6 +24,9 @@ import org.gradle.api.provider.Property;
  *         dynamicVersion = true
  *         appendSnapshot = false
  *     }
+ *     fingerprint {
+ *         threads = 4
+ *     }
  *     os {
  *         active = true
  *     }
@@ -33,11 +36,13 @@ import org.gradle.api.provider.Property;
 public abstract class NisseExtension {
 
     private final JGitExtension jgit;
+    private final FingerprintExtension fingerprint;
     private final OsExtension os;
 
     @Inject
     public NisseExtension(ObjectFactory objects) {
         this.jgit = objects.newInstance(JGitExtension.class);
+        this.fingerprint = objects.newInstance(FingerprintExtension.class);
         this.os = objects.newInstance(OsExtension.class);
     }
 
@@ -57,6 +62,22 @@ public abstract class NisseExtension {
         action.execute(jgit);
     }
 
+    /**
+     * Returns the fingerprint source configuration.
+     */
+    public FingerprintExtension getFingerprint() {
+        return fingerprint;
+    }
+
+    /**
+     * Configures the fingerprint source.
+     *
+     * @param action the configuration action
+     */
+    public void fingerprint(Action<? super FingerprintExtension> action) {
+        action.execute(fingerprint);
+    }
+
     /**
      * Returns the OS source configuration.
      */
@@ -80,6 +101,7 @@ public abstract class NisseExtension {
     Map<String, String> toUserProperties() {
         Map<String, String> props = new HashMap<>();
         jgit.contribute(props);
+        fingerprint.contribute(props);
         os.contribute(props);
         return props;
     }
@@ -172,6 +194,22 @@ public abstract class NisseExtension {
         }
     }
 
+    /**
+     * Fingerprint source configuration.
+     */
+    public abstract static class FingerprintExtension {
+        /** Whether the fingerprint source is active. Defaults to {@code false}, as it scans working tree. */
+        public abstract Property<Boolean> getActive();
+
+        /** Count of threads hashing changed files. Defaults to count of available processors. */
+        public abstract Property<Integer> getThreads();
+
+        void contribute(Map<String, String> props) {
+            setIfPresent(props, "nisse.source.fingerprint.active", getActive());
+            setIfPresent(props, "nisse.source.fingerprint.threads", getThreads());
+        }
+    }
+
     /**
      * OS detector source configuration.
      */
@@ -17,7 +17,7 @@ import org.gradle.api.provider.Provider;
  * <p>
  * Registers two extensions:
  * <ul>
- *   <li>{@code nisseConfig} — DSL for configuring property sources (jgit, os)</li>
+ *   <li>{@code nisseConfig} — DSL for configuring property sources (jgit, fingerprint, os)</li>
  *   <li>{@code nisse} — resolved {@code Map<String, String>} of discovered properties
  *       (available after project evaluation)</li>
  * </ul>
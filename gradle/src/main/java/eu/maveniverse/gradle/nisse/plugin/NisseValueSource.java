@@ -10,6 +10,8 @@ package eu.maveniverse.gradle.nisse.plugin;
 import eu.maveniverse.maven.nisse.core.NisseConfiguration;
 import eu.maveniverse.maven.nisse.core.simple.SimpleNisseConfiguration;
 import eu.maveniverse.maven.nisse.core.simple.SimpleNisseManager;
+import eu.maveniverse.maven.nisse.source.ci.CiPropertySource;
+import eu.maveniverse.maven.nisse.source.jgit.FingerprintPropertySource;
 import eu.maveniverse.maven.nisse.source.jgit.JGitPropertySource;
 import eu.maveniverse.maven.nisse.source.osdetector.OsDetectorPropertySource;
 import java.util.Arrays;
@@ -19,7 +21,8 @@ import org.gradle.api.provider.ValueSource;
 import org.jspecify.annotations.Nullable;
 
 /**
- * Values source for Nisse properties.
+ * Values source for Nisse properties. It is obtained for each project, with project directory as current working
+ * directory, so directory dependent sources (ie. {@code fingerprint}) publish values of the project.
  */
 public abstract class NisseValueSource implements ValueSource<Map<String, String>, NisseValueSourceParam> {
     @Override
@@ -33,7 +36,11 @@ public abstract class NisseValueSource implements ValueSource<Map<String, String
                 .withCurrentWorkingDirectory(getParameters().getCwd().get().toPath())
                 .withSessionRootDirectory(getParameters().getRoot().get().toPath())
                 .build();
-        return new SimpleNisseManager(Arrays.asList(new JGitPropertySource(), new OsDetectorPropertySource()))
+        return new SimpleNisseManager(Arrays.asList(
+                        new CiPropertySource(),
+                        new JGitPropertySource(),
+                        new FingerprintPropertySource(),
+                        new OsDetectorPropertySource()))
                 .createProperties(configuration);
     }
 }
@@ -271,6 +271,47 @@ public class NissePluginTest {
         assertTrue(output.contains("project.version=1.1.0-1"), "Expected project.version=1.1.0-1 but got: " + output);
     }
 
+    /**
+     * Each project gets the fingerprint of its own directory: change in one project does not affect the others.
+     */
+    @Test
+    void fingerprintPerProject() throws Exception {
+        String build = """
+                plugins {
+                    id("eu.maveniverse.gradle.plugins.nisse-gradle-plugin")
+                }
+                nisseConfig {
+                    fingerprint {
+                        active = true
+                    }
+                }
+                tasks.register("printFingerprint") {
+                    doLast {
+                        println project.name + ".id=" + project.nisse['nisse.fingerprint.id']
+                        println project.name + ".clean=" + project.nisse['nisse.fingerprint.clean']
+                    }
+                }
+                """;
+        try (Git git = Git.init().setDirectory(projectDir.toFile()).call()) {
+            writeFile("settings.gradle", "rootProject.name = \"test\"\ninclude 'a', 'b'");
+            Files.createDirectories(projectDir.resolve("a"));
+            Files.createDirectories(projectDir.resolve("b"));
+            writeFile("a/build.gradle", build);
+            writeFile("a/data.txt", "a");
+            writeFile("b/build.gradle", build);
+            writeFile("b/data.txt", "b");
+            git.add().addFilepattern(".").call();
+            git.commit().setMessage("initial commit").call();
+        }
+        writeFile("a/data.txt", "changed");
+
+        BuildResult result = runner().withArguments("printFingerprint").run();
+        String output = result.getOutput();
+        assertTrue(output.contains("a.clean=false"), output);
+        assertTrue(output.contains("b.clean=true"), output);
+        assertFalse(output.contains(".id=null"), output);
+    }
+
     private GradleRunner runner() {
         return GradleRunner.create()
                 .withProjectDir(projectDir.toFile())
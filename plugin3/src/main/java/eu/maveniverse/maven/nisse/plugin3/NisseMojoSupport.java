@@ -0,0 +1,164 @@
+/*
+ * Copyright (c) 2023-2024 Maveniverse Org.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-v20.html
+ */
+package eu.maveniverse.maven.nisse.plugin3;
+
+import eu.maveniverse.maven.nisse.core.NisseConfiguration;
+import eu.maveniverse.maven.nisse.core.NisseManager;
+import eu.maveniverse.maven.nisse.core.PropertyKeyNamingStrategies;
+import eu.maveniverse.maven.nisse.core.PropertySource;
+import eu.maveniverse.maven.nisse.core.simple.SimpleNisseConfiguration;
+import eu.maveniverse.maven.nisse.source.jgit.FingerprintPropertySource;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.BiFunction;
+import java.util.stream.Collectors;
+import javax.inject.Inject;
+import org.apache.maven.execution.MavenSession;
+import org.apache.maven.plugin.AbstractMojo;
+import org.apache.maven.project.MavenProject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Support class for Nisse Mojos.
+ */
+public abstract class NisseMojoSupport extends AbstractMojo {
+    /**
+     * Names of sources whose properties depend on current working directory, evaluated for each project.
+     */
+    private static final List<String> PROJECT_SOURCES = Collections.singletonList(FingerprintPropertySource.NAME);
+
+    protected final Logger logger = LoggerFactory.getLogger(getClass());
+
+    @Inject
+    protected MavenSession mavenSession;
+
+    @Inject
+    protected MavenProject mavenProject;
+
+    @Inject
+    protected NisseManager nisseManager;
+
+    @Inject
+    protected Map<String, PropertySource> propertySources;
+
+    /**
+     * Returns the Nisse properties. If Nisse extension is present in build, it already created them at session start
+     * and those are reused. Otherwise, properties are created once per configuration and shared among all Mojo
+     * executions of the session (that may run concurrently in parallel builds). Properties of project directory
+     * dependent sources are added to them, see {@link #createProjectProperties()}.
+     */
+    protected Map<String, String> createProperties() throws IOException {
+        return createProperties(true);
+    }
+
+    /**
+     * Returns the Nisse properties, reusing those created by Nisse extension only if asked for. Extension may have
+     * created only the referenced subset of properties (see {@link NisseConfiguration#CONFIGURATION_REFERENCED_ONLY}),
+     * so callers needing all the properties should not reuse them.
+     */
+    protected Map<String, String> createProperties(boolean reuseExtensionProperties) throws IOException {
+        HashMap<String, String> properties = new HashMap<>(createSessionProperties(reuseExtensionProperties));
+        properties.putAll(createProjectProperties());
+        return properties;
+    }
+
+    /**
+     * Returns the session wide Nisse properties, evaluated in session base directory.
+     */
+    @SuppressWarnings("unchecked")
+    private Map<String, String> createSessionProperties(boolean reuseExtensionProperties) throws IOException {
+        Object properties = reuseExtensionProperties
+                ? mavenSession.getRepositorySession().getData().get(NisseConfiguration.PROPERTIES_INSTANCE_KEY)
+                : null;
+        if (properties instanceof Map) {
+            logger.debug("Reusing properties created by Nisse extension");
+            return (Map<String, String>) properties;
+        }
+        NissePropertiesCache.Key key = new NissePropertiesCache.Key(
+                mavenSession.getRequest().getMultiModuleProjectDirectory().toPath(),
+                Paths.get(mavenSession.getRequest().getBaseDirectory()),
+                mavenSession.getSystemProperties(),
+                mavenSession.getUserProperties());
+        return NissePropertiesCache.get(
+                mavenSession.getRepositorySession().getData(),
+                key,
+                () -> nisseManager.createProperties(createConfiguration()));
+    }
+
+    /**
+     * Returns the properties of sources depending on project directory (ie. {@code fingerprint}), evaluated with
+     * project base directory as current working directory. These differ among projects, hence are not cached
+     * session wide, and override the properties evaluated in session base directory.
+     */
+    protected Map<String, String> createProjectProperties() throws IOException {
+        if (mavenProject == null || mavenProject.getBasedir() == null) {
+            return Collections.emptyMap();
+        }
+        return createProperties(
+                createConfiguration(mavenProject.getBasedir().toPath()),
+                PROJECT_SOURCES.stream()
+                        .map(propertySources::get)
+                        .filter(Objects::nonNull)
+                        .collect(Collectors.toList()));
+    }
+
+    /**
+     * Evaluates given active sources with given configuration, and names the properties as Nisse manager does.
+     */
+    static Map<String, String> createProperties(NisseConfiguration configuration, List<PropertySource> sources) {
+        BiFunction<PropertySource, String, List<String>> propertyKeyNamingStrategy =
+                configuration.propertyKeyNamingStrategy();
+        HashMap<String, String> properties = new HashMap<>();
+        for (PropertySource source : sources) {
+            if (configuration.isPropertySourceActive(source)) {
+                source.getProperties(configuration).forEach((key, value) -> {
+                    for (String translated : propertyKeyNamingStrategy.apply(source, key)) {
+                        properties.put(translated, value);
+                    }
+                });
+            }
+        }
+        return properties;
+    }
+
+    /**
+     * Creates Nisse configuration out of current session.
+     */
+    protected NisseConfiguration createConfiguration() throws IOException {
+        return createConfiguration(Paths.get(mavenSession.getRequest().getBaseDirectory()));
+    }
+
+    /**
+     * Creates Nisse configuration out of current session, with given current working directory.
+     */
+    protected NisseConfiguration createConfiguration(Path currentWorkingDirectory) throws IOException {
+        return SimpleNisseConfiguration.builder()
+                .withSystemProperties(mavenSession.getSystemProperties())
+                .withUserProperties(mavenSession.getUserProperties())
+                .withCurrentWorkingDirectory(currentWorkingDirectory)
+                .withSessionRootDirectory(
+                        mavenSession.getRequest().getMultiModuleProjectDirectory().toPath())
+                .combinePropertyKeyNamingStrategy(PropertyKeyNamingStrategies.translated(
+                        PropertyKeyNamingStrategies.translationTableFromPropertiesFile(mavenSession
+                                .getRequest()
+                                .getMultiModuleProjectDirectory()
+                                .toPath()
+                                .resolve(".mvn")
+                                .resolve("nisse-translation.properties")),
+                        PropertyKeyNamingStrategies.sourcePrefixed(),
+                        PropertyKeyNamingStrategies.defaultStrategy()))
+                .build();
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright (c) 2023-2024 Maveniverse Org.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-v20.html
+ */
+package eu.maveniverse.maven.nisse.plugin3;
+
+import static java.util.Objects.requireNonNull;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import org.eclipse.aether.SessionData;
+
+/**
+ * Single-flight cache of created properties, keyed by configuration inputs and scoped to the session. The first caller
+ * computes the properties, concurrent callers with same key wait for the result, and later callers within same session
+ * reuse it. Failed computations are not cached, so later callers retry.
+ * <p>
+ * Cache lives in repository session data, hence it is never reused across sessions: in long-lived processes running
+ * several builds (ie. mvnd) a new build with same inputs still sees new commits and checkout changes.
+ */
+final class NissePropertiesCache {
+    private static final String CACHE_KEY = NissePropertiesCache.class.getName();
+
+    private NissePropertiesCache() {}
+
+    /**
+     * Returns the properties for given key, computing them using loader if needed. Returned map is unmodifiable.
+     */
+    @SuppressWarnings("unchecked")
+    static Map<String, String> get(SessionData sessionData, Key key, Callable<Map<String, String>> loader)
+            throws IOException {
+        requireNonNull(sessionData, "sessionData");
+        requireNonNull(key, "key");
+        requireNonNull(loader, "loader");
+        ConcurrentHashMap<Key, FutureTask<Map<String, String>>> cache =
+                (ConcurrentHashMap<Key, FutureTask<Map<String, String>>>)
+                        sessionData.computeIfAbsent(CACHE_KEY, ConcurrentHashMap::new);
+        FutureTask<Map<String, String>> task = cache.get(key);
+        if (task == null) {
+            FutureTask<Map<String, String>> newTask =
+                    new FutureTask<>(() -> Collections.unmodifiableMap(new HashMap<>(loader.call())));
+            task = cache.putIfAbsent(key, newTask);
+            if (task == null) {
+                task = newTask;
+                task.run();
+            }
+        }
+        try {
+            return task.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for properties");
+        } catch (ExecutionException e) {
+            cache.remove(key, task);
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    /**
+     * The cache key: all the inputs that Nisse configuration is created from.
+     */
+    static final class Key {
+        private final Path sessionRootDirectory;
+        private final Path currentWorkingDirectory;
+        private final Map<Object, Object> systemProperties;
+        private final Map<Object, Object> userProperties;
+        private final int hashCode;
+
+        Key(
+                Path sessionRootDirectory,
+                Path currentWorkingDirectory,
+                Properties systemProperties,
+                Properties userProperties) {
+            this.sessionRootDirectory = requireNonNull(sessionRootDirectory, "sessionRootDirectory");
+            this.currentWorkingDirectory = requireNonNull(currentWorkingDirectory, "currentWorkingDirectory");
+            this.systemProperties = new HashMap<>(requireNonNull(systemProperties, "systemProperties"));
+            this.userProperties = new HashMap<>(requireNonNull(userProperties, "userProperties"));
+            this.hashCode = Objects.hash(
+                    this.sessionRootDirectory,
+                    this.currentWorkingDirectory,
+                    this.systemProperties,
+                    this.userProperties);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            Key key = (Key) o;
+            return hashCode == key.hashCode
+                    && sessionRootDirectory.equals(key.sessionRootDirectory)
+                    && currentWorkingDirectory.equals(key.currentWorkingDirectory)
+                    && systemProperties.equals(key.systemProperties)
+                    && userProperties.equals(key.userProperties);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package eu.maveniverse.maven.nisse.plugin3;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import eu.maveniverse.maven.nisse.core.PropertySource;
+import eu.maveniverse.maven.nisse.core.simple.SimpleNisseConfiguration;
+import eu.maveniverse.maven.nisse.source.jgit.FingerprintPropertySource;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import org.eclipse.jgit.api.Git;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class NisseMojoSupportTest {
+    private static final List<PropertySource> SOURCES = Collections.singletonList(new FingerprintPropertySource());
+
+    /**
+     * Each module gets the fingerprint of its own directory.
+     */
+    @Test
+    void fingerprintPerModule(@TempDir Path tempDir) throws Exception {
+        Path root = tempDir.resolve("root");
+        write(root.resolve("pom.xml"), "<project/>");
+        write(root.resolve("a/pom.xml"), "<project><artifactId>a</artifactId></project>");
+        write(root.resolve("b/pom.xml"), "<project><artifactId>b</artifactId></project>");
+        try (Git git = Git.init().setDirectory(root.toFile()).call()) {
+            git.add().addFilepattern(".").call();
+            git.commit()
+                    .setMessage("initial commit")
+                    .setAuthor("Test", "test@test.com")
+                    .setCommitter("Test", "test@test.com")
+                    .call();
+        }
+        write(root.resolve("a/data.txt"), "changed");
+
+        Map<String, String> a = fingerprint(root, root.resolve("a"));
+        Map<String, String> b = fingerprint(root, root.resolve("b"));
+        assertNotNull(a.get("nisse.fingerprint.id"));
+        assertNotNull(b.get("nisse.fingerprint.id"));
+        assertNotEquals(a.get("nisse.fingerprint.id"), b.get("nisse.fingerprint.id"));
+        assertEquals("false", a.get("nisse.fingerprint.clean"));
+        assertEquals("true", b.get("nisse.fingerprint.clean"));
+    }
+
+    @Test
+    void fingerprintNotActive(@TempDir Path tempDir) {
+        assertTrue(NisseMojoSupport.createProperties(
+                        SimpleNisseConfiguration.builder()
+                                .withCurrentWorkingDirectory(tempDir)
+                                .build(),
+                        SOURCES)
+                .isEmpty());
+    }
+
+    private static Map<String, String> fingerprint(Path root, Path module) {
+        return NisseMojoSupport.createProperties(
+                SimpleNisseConfiguration.builder()
+                        .withUserProperties(Collections.singletonMap("nisse.source.fingerprint.active", "true"))
+                        .withCurrentWorkingDirectory(module)
+                        .withSessionRootDirectory(root)
+                        .build(),
+                SOURCES);
+    }
+
+    private static void write(Path file, String content) throws Exception {
+        Files.createDirectories(file.getParent());
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+    }
+}
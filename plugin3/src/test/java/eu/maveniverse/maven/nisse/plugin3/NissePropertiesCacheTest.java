@@ -0,0 +1,101 @@
+package eu.maveniverse.maven.nisse.plugin3;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.eclipse.aether.DefaultSessionData;
+import org.eclipse.aether.SessionData;
+import org.junit.jupiter.api.Test;
+
+public class NissePropertiesCacheTest {
+    private static final Path ROOT = Paths.get("root").toAbsolutePath();
+
+    @Test
+    void singleFlight() throws Exception {
+        SessionData sessionData = new DefaultSessionData();
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        Callable<Map<String, String>> loader = () -> {
+            loads.incrementAndGet();
+            release.await(10, TimeUnit.SECONDS);
+            return Collections.singletonMap("key", "value");
+        };
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Map<String, String>>> results = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                results.add(executor.submit(() -> NissePropertiesCache.get(sessionData, key("a"), loader)));
+            }
+            release.countDown();
+            Map<String, String> first = results.get(0).get(10, TimeUnit.SECONDS);
+            for (Future<Map<String, String>> result : results) {
+                assertSame(first, result.get(10, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(1, loads.get());
+        assertEquals("value", NissePropertiesCache.get(sessionData, key("a"), loader).get("key"));
+        assertEquals(1, loads.get());
+
+        // different inputs are different entries
+        NissePropertiesCache.get(sessionData, key("b"), loader);
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void failureNotCached() throws Exception {
+        SessionData sessionData = new DefaultSessionData();
+        AtomicInteger loads = new AtomicInteger();
+        Callable<Map<String, String>> loader = () -> {
+            if (loads.incrementAndGet() == 1) {
+                throw new IOException("boom");
+            }
+            return Collections.singletonMap("key", "value");
+        };
+
+        IOException e = assertThrows(IOException.class, () -> NissePropertiesCache.get(sessionData, key("a"), loader));
+        assertEquals("boom", e.getMessage());
+        assertEquals("value", NissePropertiesCache.get(sessionData, key("a"), loader).get("key"));
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void notReusedAcrossSessions() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+        Callable<Map<String, String>> loader =
+                () -> Collections.singletonMap("commit", String.valueOf(loads.incrementAndGet()));
+
+        SessionData first = new DefaultSessionData();
+        assertEquals("1", NissePropertiesCache.get(first, key("a"), loader).get("commit"));
+        assertEquals("1", NissePropertiesCache.get(first, key("a"), loader).get("commit"));
+
+        // same inputs in a new session (ie. next build in mvnd) are evaluated again
+        SessionData second = new DefaultSessionData();
+        assertEquals("2", NissePropertiesCache.get(second, key("a"), loader).get("commit"));
+        assertEquals(2, loads.get());
+    }
+
+    private static NissePropertiesCache.Key key(String value) {
+        Properties userProperties = new Properties();
+        userProperties.setProperty("value", value);
+        return new NissePropertiesCache.Key(ROOT, ROOT, new Properties(), userProperties);
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright (c) 2023-2024 Maveniverse Org.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-v20.html
+ */
+package eu.maveniverse.maven.nisse.source.ci;
+
+import eu.maveniverse.maven.nisse.core.NisseConfiguration;
+import eu.maveniverse.maven.nisse.core.PropertySource;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+/**
+ * ci source: detects the CI vendor (GitHub Actions, GitLab CI or Jenkins) and publishes what it tells about the build,
+ * using same keys as {@code jgit} source does, where applicable. Does not publish anything when not running on
+ * supported CI.
+ */
+@Singleton
+@Named(CiPropertySource.NAME)
+public class CiPropertySource implements PropertySource {
+    public static final String NAME = "ci";
+
+    private static final String VENDOR = "vendor";
+    private static final String COMMIT = "commit";
+    private static final String SHORT_COMMIT_ID = "shortCommitId";
+    private static final String BRANCH_NAME = "branchName";
+    private static final String TAG = "tag";
+    private static final String BUILD_NUMBER = "buildNumber";
+    private static final String REMOTE_URL = "remoteUrl";
+
+    /**
+     * Specify the length for the short commit id.
+     */
+    private static final String CI_CONF_SHORT_COMMIT_ID_LENGTH =
+            NisseConfiguration.SOURCE_PREFIX + NAME + ".shortCommitIdLength";
+
+    private static final String DEFAULT_SHORT_COMMIT_ID_LENGTH = "7";
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public Collection<String> getPropertyKeys(NisseConfiguration configuration) {
+        return Arrays.asList(VENDOR, COMMIT, SHORT_COMMIT_ID, BRANCH_NAME, TAG, BUILD_NUMBER, REMOTE_URL);
+    }
+
+    @Override
+    public Map<String, String> getProperties(NisseConfiguration configuration) {
+        CiEnvironment ci = CiEnvironment.detect(configuration);
+        if (ci == null) {
+            return Collections.emptyMap();
+        }
+        HashMap<String, String> result = new HashMap<>();
+        result.put(VENDOR, ci.getVendor());
+        if (ci.getCommit() != null) {
+            result.put(COMMIT, ci.getCommit());
+            int length = Integer.parseInt(configuration
+                    .getConfiguration()
+                    .getOrDefault(CI_CONF_SHORT_COMMIT_ID_LENGTH, DEFAULT_SHORT_COMMIT_ID_LENGTH));
+            result.put(SHORT_COMMIT_ID, ci.getCommit().substring(0, Math.min(length, ci.getCommit().length())));
+        }
+        if (ci.getBranch() != null) {
+            result.put(BRANCH_NAME, ci.getBranch());
+        }
+        if (ci.getTag() != null) {
+            result.put(TAG, ci.getTag());
+        }
+        if (ci.getBuildNumber() != null) {
+            result.put(BUILD_NUMBER, ci.getBuildNumber());
+        }
+        if (ci.getRemoteUrl() != null) {
+            result.put(REMOTE_URL, ci.getRemoteUrl());
+        }
+        return Collections.unmodifiableMap(result);
+    }
+}
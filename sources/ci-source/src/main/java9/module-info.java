@@ -0,0 +1,13 @@
+/*
+ * Copyright (c) 2023-2024 Maveniverse Org.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-v20.html
+ */
+module eu.maveniverse.maven.nisse.source.ci {
+    requires java.base;
+    requires transitive eu.maveniverse.maven.nisse.core;
+
+    exports eu.maveniverse.maven.nisse.source.ci;
+}
\ No newline at end of file
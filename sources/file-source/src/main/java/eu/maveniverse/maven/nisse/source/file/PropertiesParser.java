@@ -0,0 +1,252 @@
+/*
+ * Copyright (c) 2023-2024 Maveniverse Org.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-v20.html
+ */
+package eu.maveniverse.maven.nisse.source.file;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+/**
+ * Streaming parser of Java Properties file format, following the semantics of {@link java.util.Properties#load(Reader)}
+ * (comments, line continuations, key terminators and escapes), but passing each entry directly to a consumer, instead
+ * of building a {@link java.util.Properties} (a synchronized {@link java.util.Hashtable}) that needs to be copied.
+ * Later entries with same key override earlier ones, same as with {@link java.util.Properties}.
+ */
+final class PropertiesParser {
+    private static final int BUFFER_SIZE = 8192;
+
+    private final Reader reader;
+
+    private final char[] buffer = new char[BUFFER_SIZE];
+
+    private int limit;
+
+    private int offset;
+
+    private final StringBuilder line = new StringBuilder();
+
+    private PropertiesParser(Reader reader) {
+        this.reader = reader;
+    }
+
+    /**
+     * Parses all entries from given reader into given map. The reader is not closed.
+     */
+    static void parse(Reader reader, Map<String, String> result) throws IOException {
+        parse(reader, result::put);
+    }
+
+    /**
+     * Parses all entries from given reader, passing them to given consumer in order of appearance. The reader is not
+     * closed.
+     */
+    static void parse(Reader reader, BiConsumer<String, String> consumer) throws IOException {
+        PropertiesParser parser = new PropertiesParser(reader);
+        while (parser.readLine()) {
+            parser.entry(consumer);
+        }
+    }
+
+    private int read() throws IOException {
+        if (offset >= limit) {
+            limit = reader.read(buffer);
+            offset = 0;
+            if (limit <= 0) {
+                return -1;
+            }
+        }
+        return buffer[offset++];
+    }
+
+    private int peek() throws IOException {
+        if (offset >= limit) {
+            limit = reader.read(buffer);
+            offset = 0;
+            if (limit <= 0) {
+                return -1;
+            }
+        }
+        return buffer[offset];
+    }
+
+    /**
+     * Reads next logical line into {@link #line}, skipping blank and comment lines, leading whitespace, and joining
+     * continued lines. Returns {@code false} if there are no more lines.
+     */
+    private boolean readLine() throws IOException {
+        line.setLength(0);
+        boolean skipWhitespace = true;
+        boolean appendedLineBegin = false;
+        boolean precedingBackslash = false;
+        boolean skipLf = false;
+        int c;
+        while (true) {
+            c = read();
+            if (c < 0) {
+                if (line.length() == 0) {
+                    return false;
+                }
+                if (precedingBackslash) {
+                    // dangling backslash at end of input is dropped
+                    line.setLength(line.length() - 1);
+                }
+                return true;
+            }
+            if (skipLf) {
+                skipLf = false;
+                if (c == '\n') {
+                    continue;
+                }
+            }
+            if (skipWhitespace) {
+                if (c == ' ' || c == '\t' || c == '\f') {
+                    continue;
+                }
+                if (!appendedLineBegin && (c == '\r' || c == '\n')) {
+                    continue;
+                }
+                skipWhitespace = false;
+                appendedLineBegin = false;
+            }
+            if (line.length() == 0 && !appendedLineBegin && (c == '#' || c == '!')) {
+                skipComment();
+                skipWhitespace = true;
+                continue;
+            }
+            if (c != '\n' && c != '\r') {
+                line.append((char) c);
+                precedingBackslash = c == '\\' && !precedingBackslash;
+                continue;
+            }
+            if (line.length() == 0) {
+                // continuation of an empty line
+                skipWhitespace = true;
+                appendedLineBegin = false;
+                continue;
+            }
+            if (peek() < 0) {
+                // line ending at end of input is not continued
+                if (precedingBackslash) {
+                    line.setLength(line.length() - 1);
+                }
+                return true;
+            }
+            if (precedingBackslash) {
+                // line continuation: drop the backslash, skip leading whitespace of next line
+                line.setLength(line.length() - 1);
+                precedingBackslash = false;
+                skipWhitespace = true;
+                appendedLineBegin = true;
+                skipLf = c == '\r';
+                continue;
+            }
+            return true;
+        }
+    }
+
+    private void skipComment() throws IOException {
+        int c;
+        while ((c = read()) >= 0) {
+            if (c == '\n') {
+                return;
+            }
+            if (c == '\r') {
+                c = read();
+                if (c != '\n' && c >= 0) {
+                    offset--;
+                }
+                return;
+            }
+        }
+    }
+
+    /**
+     * Splits {@link #line} into key and value, same as {@link java.util.Properties} does.
+     */
+    private void entry(BiConsumer<String, String> consumer) {
+        int length = line.length();
+        int keyLength = 0;
+        int valueStart = length;
+        boolean hasSeparator = false;
+        boolean precedingBackslash = false;
+        while (keyLength < length) {
+            char c = line.charAt(keyLength);
+            if ((c == '=' || c == ':') && !precedingBackslash) {
+                valueStart = keyLength + 1;
+                hasSeparator = true;
+                break;
+            } else if ((c == ' ' || c == '\t' || c == '\f') && !precedingBackslash) {
+                valueStart = keyLength + 1;
+                break;
+            }
+            precedingBackslash = c == '\\' && !precedingBackslash;
+            keyLength++;
+        }
+        while (valueStart < length) {
+            char c = line.charAt(valueStart);
+            if (c != ' ' && c != '\t' && c != '\f') {
+                if (!hasSeparator && (c == '=' || c == ':')) {
+                    hasSeparator = true;
+                } else {
+                    break;
+                }
+            }
+            valueStart++;
+        }
+        consumer.accept(unescape(0, keyLength), unescape(valueStart, length));
+    }
+
+    private String unescape(int from, int to) {
+        StringBuilder result = null;
+        int i = from;
+        while (i < to) {
+            char c = line.charAt(i++);
+            if (c != '\\') {
+                if (result != null) {
+                    result.append(c);
+                }
+                continue;
+            }
+            if (result == null) {
+                result = new StringBuilder(to - from);
+                result.append(line, from, i - 1);
+            }
+            if (i >= to) {
+                // trailing backslash of a line is dropped
+                break;
+            }
+            c = line.charAt(i++);
+            if (c == 'u') {
+                if (i + 4 > to) {
+                    throw new IllegalArgumentException("Malformed \\uxxxx encoding.");
+                }
+                int value = 0;
+                for (int j = 0; j < 4; j++) {
+                    int digit = Character.digit(line.charAt(i++), 16);
+                    if (digit < 0) {
+                        throw new IllegalArgumentException("Malformed \\uxxxx encoding.");
+                    }
+                    value = (value << 4) + digit;
+                }
+                result.append((char) value);
+            } else if (c == 't') {
+                result.append('\t');
+            } else if (c == 'r') {
+                result.append('\r');
+            } else if (c == 'n') {
+                result.append('\n');
+            } else if (c == 'f') {
+                result.append('\f');
+            } else {
+                result.append(c);
+            }
+        }
+        return result != null ? result.toString() : line.substring(from, to);
+    }
+}
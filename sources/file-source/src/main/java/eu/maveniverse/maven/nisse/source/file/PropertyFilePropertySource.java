@@ -10,19 +10,40 @@ package eu.maveniverse.maven.nisse.source.file;
 import eu.maveniverse.maven.nisse.core.NisseConfiguration;
 import eu.maveniverse.maven.nisse.core.PropertySource;
 import java.io.IOException;
-import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
 import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
 import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.Properties;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import javax.inject.Named;
 import javax.inject.Singleton;
 
 /**
- * A simple property key source that accepts a Java Properties file name, and will load up properties from it.
+ * A simple property key source that accepts Java Properties file names, and will load up properties from them.
+ * <p>
+ * The {@link #FILE_NAME} may be a single file name, or comma separated list of file names and glob patterns (ie.
+ * {@code build.properties,conf/*.properties,local.properties}), resolved against current working directory. Files are
+ * layered in the listed order, later files overriding properties of earlier ones; files matched by a glob pattern are
+ * layered in their path order. Non-existent files are skipped.
+ * <p>
+ * Parsed files are cached process-wide, keyed by path and validated against last modified time and size, so only
+ * changed files are parsed again. Files are parsed by a streaming parser, without an intermediate
+ * {@link java.util.Properties} copy.
  */
 @Singleton
 @Named(PropertyFilePropertySource.NAME)
@@ -31,29 +52,168 @@ public class PropertyFilePropertySource implements PropertySource {
 
     public static final String FILE_NAME = NisseConfiguration.SOURCE_PREFIX + NAME + ".name";
 
+    /**
+     * Files modified more recently than this are not cached, as same size changes within file system timestamp
+     * resolution would go unnoticed.
+     */
+    private static final long RACY_INTERVAL_MILLIS = 2500L;
+
+    private static final ConcurrentHashMap<Path, ParsedFile> PARSED_FILES = new ConcurrentHashMap<>();
+
     @Override
     public String getName() {
         return NAME;
     }
 
+    /**
+     * Returns the keys of configured files: files are parsed (or taken from cache) for this, and
+     * {@link #getProperties(NisseConfiguration)} reuses them.
+     */
+    @Override
+    public Collection<String> getPropertyKeys(NisseConfiguration configuration) {
+        return getProperties(configuration).keySet();
+    }
+
     @Override
     public Map<String, String> getProperties(NisseConfiguration configuration) {
-        String propertyFile = configuration.getConfiguration().get(FILE_NAME);
+        String propertyFiles = configuration.getConfiguration().get(FILE_NAME);
+        if (propertyFiles == null) {
+            return Collections.emptyMap();
+        }
+        List<Path> paths = resolve(configuration.getCurrentWorkingDirectory(), propertyFiles);
+        if (paths.size() == 1) {
+            return load(paths.get(0));
+        }
         HashMap<String, String> properties = new HashMap<>();
-        if (propertyFile != null) {
-            Path propertyFilePath = configuration.getCurrentWorkingDirectory().resolve(propertyFile);
-            if (Files.isRegularFile(propertyFilePath)) {
-                try (InputStream stream = Files.newInputStream(propertyFilePath)) {
-                    Properties prop = new Properties();
-                    prop.load(stream);
-                    for (final String key : prop.stringPropertyNames()) {
-                        properties.put(key, prop.getProperty(key));
-                    }
-                } catch (IOException e) {
-                    throw new UncheckedIOException(e);
+        for (Path path : paths) {
+            properties.putAll(load(path));
+        }
+        return Collections.unmodifiableMap(properties);
+    }
+
+    /**
+     * Resolves comma separated file names and glob patterns to ordered list of paths.
+     */
+    static List<Path> resolve(Path cwd, String propertyFiles) {
+        ArrayList<Path> result = new ArrayList<>();
+        for (String entry : split(propertyFiles)) {
+            if (!isGlob(entry)) {
+                result.add(cwd.resolve(entry));
+                continue;
+            }
+            // the base directory is the longest leading part without glob characters
+            String normalized = entry.replace('\\', '/');
+            int cut = normalized.lastIndexOf('/', firstGlobIndex(normalized));
+            Path base = cut < 0 ? cwd : cwd.resolve(normalized.substring(0, cut));
+            String pattern = normalized.substring(cut + 1);
+            if (!Files.isDirectory(base)) {
+                continue;
+            }
+            PathMatcher matcher = FileSystems.getDefault().getPathMatcher("glob:" + pattern);
+            int depth = pattern.contains("**") ? Integer.MAX_VALUE : pattern.split("/").length;
+            try (Stream<Path> stream = Files.walk(base, depth)) {
+                result.addAll(stream.filter(p -> matcher.matches(base.relativize(p)) && Files.isRegularFile(p))
+                        .sorted()
+                        .collect(Collectors.toList()));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Splits on commas, except those in glob {@code {...}} groups.
+     */
+    private static List<String> split(String value) {
+        ArrayList<String> result = new ArrayList<>();
+        int depth = 0;
+        int start = 0;
+        for (int i = 0; i <= value.length(); i++) {
+            char c = i < value.length() ? value.charAt(i) : ',';
+            if (c == '{') {
+                depth++;
+            } else if (c == '}' && depth > 0) {
+                depth--;
+            } else if (c == ',' && (depth == 0 || i == value.length())) {
+                String entry = value.substring(start, i).trim();
+                if (!entry.isEmpty()) {
+                    result.add(entry);
                 }
+                start = i + 1;
             }
         }
-        return Collections.unmodifiableMap(properties);
+        return result;
+    }
+
+    private static boolean isGlob(String entry) {
+        return firstGlobIndex(entry) < entry.length();
+    }
+
+    private static int firstGlobIndex(String entry) {
+        for (int i = 0; i < entry.length(); i++) {
+            char c = entry.charAt(i);
+            if (c == '*' || c == '?' || c == '[' || c == '{') {
+                return i;
+            }
+        }
+        return entry.length();
+    }
+
+    /**
+     * Returns parsed properties of given file, parsing it only if not cached or changed since cached.
+     */
+    private static Map<String, String> load(Path path) {
+        Path key = path.toAbsolutePath().normalize();
+        BasicFileAttributes attributes;
+        try {
+            attributes = Files.readAttributes(key, BasicFileAttributes.class);
+        } catch (NoSuchFileException e) {
+            PARSED_FILES.remove(key);
+            return Collections.emptyMap();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (!attributes.isRegularFile()) {
+            return Collections.emptyMap();
+        }
+        long lastModified = attributes.lastModifiedTime().toMillis();
+        long size = attributes.size();
+        Object fileKey = attributes.fileKey();
+        ParsedFile parsed = PARSED_FILES.get(key);
+        if (parsed != null
+                && parsed.lastModified == lastModified
+                && parsed.size == size
+                && Objects.equals(parsed.fileKey, fileKey)) {
+            return parsed.properties;
+        }
+        HashMap<String, String> properties = new HashMap<>();
+        try (Reader reader = new InputStreamReader(Files.newInputStream(key), StandardCharsets.ISO_8859_1)) {
+            PropertiesParser.parse(reader, properties);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        parsed = new ParsedFile(lastModified, size, fileKey, Collections.unmodifiableMap(properties));
+        if (System.currentTimeMillis() - lastModified > RACY_INTERVAL_MILLIS) {
+            PARSED_FILES.put(key, parsed);
+        } else {
+            // racily clean: a change within file timestamp resolution could go unnoticed
+            PARSED_FILES.remove(key);
+        }
+        return parsed.properties;
+    }
+
+    private static final class ParsedFile {
+        private final long lastModified;
+        private final long size;
+        private final Object fileKey;
+        private final Map<String, String> properties;
+
+        private ParsedFile(long lastModified, long size, Object fileKey, Map<String, String> properties) {
+            this.lastModified = lastModified;
+            this.size = size;
+            this.fileKey = fileKey;
+            this.properties = properties;
+        }
     }
 }
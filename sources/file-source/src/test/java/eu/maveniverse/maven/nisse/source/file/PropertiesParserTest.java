@@ -0,0 +1,50 @@
+package eu.maveniverse.maven.nisse.source.file;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+import org.junit.jupiter.api.Test;
+
+public class PropertiesParserTest {
+    @Test
+    void sameAsProperties() throws IOException {
+        assertSame("");
+        assertSame("a=b\nc:d\ne f\n  g  =  h  \n");
+        assertSame("# comment\n! comment \\\nnot=continued\n\n\t\f key = value");
+        assertSame("multi = one, \\\n      two, \\\r\n      three\r\nnext=line\rlast=line");
+        assertSame("key\\ with\\ spaces = \\u0041\\t\\n\\r\\f\\x\\=");
+        assertSame("a=first\na=second\nempty=\nnovalue\n=nokey");
+        assertSame("dangling=backslash\\");
+        assertSame("a\\\n\n b\n\\\n#c");
+        StringBuilder large = new StringBuilder();
+        for (int i = 0; i < 10_000; i++) {
+            large.append("key.").append(i).append(" = value \\\n  ").append(i).append('\n');
+        }
+        assertSame(large.toString());
+    }
+
+    @Test
+    void malformedUnicode() {
+        assertThrows(IllegalArgumentException.class, () -> parse("a=\\u12"));
+        assertThrows(IllegalArgumentException.class, () -> parse("a=\\u12x4"));
+    }
+
+    private static void assertSame(String content) throws IOException {
+        Properties properties = new Properties();
+        properties.load(new StringReader(content));
+        Map<String, String> expected = new HashMap<>();
+        properties.stringPropertyNames().forEach(k -> expected.put(k, properties.getProperty(k)));
+        assertEquals(expected, parse(content));
+    }
+
+    private static Map<String, String> parse(String content) throws IOException {
+        Map<String, String> result = new HashMap<>();
+        PropertiesParser.parse(new StringReader(content), result);
+        return result;
+    }
+}
@@ -1,10 +1,17 @@
 package eu.maveniverse.maven.nisse.source.file;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
 import eu.maveniverse.maven.nisse.core.simple.SimpleNisseConfiguration;
+import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.Map;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
 
@@ -27,4 +34,56 @@ public class PropertyFilePropertySourceTest {
             System.clearProperty(PropertyFilePropertySource.FILE_NAME);
         }
     }
+
+    @Test
+    void layered(@TempDir Path tempDir) throws Exception {
+        write(tempDir.resolve("base.properties"), "one=base", "two=base", "three=base");
+        write(tempDir.resolve("conf/b.properties"), "two=b", "three=b");
+        write(tempDir.resolve("conf/a.properties"), "two=a", "four=a");
+        write(tempDir.resolve("conf/a.txt"), "one=txt");
+        write(tempDir.resolve("local.properties"), "three=local");
+
+        Map<String, String> properties = properties(
+                tempDir, "base.properties, conf/*.properties, missing.properties, {local,other}.properties");
+        assertEquals("base", properties.get("one"));
+        assertEquals("b", properties.get("two"));
+        assertEquals("local", properties.get("three"));
+        assertEquals("a", properties.get("four"));
+        assertEquals(4, properties.size());
+    }
+
+    @Test
+    void cached(@TempDir Path tempDir) throws Exception {
+        Path file = tempDir.resolve("cached.properties");
+        write(file, "one=1");
+        Map<String, String> first = properties(tempDir, "cached.properties");
+        assertSame(first, properties(tempDir, "cached.properties"));
+
+        write(file, "one=2", "two=2");
+        Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis() - 60_000L));
+        Map<String, String> changed = properties(tempDir, "cached.properties");
+        assertEquals("2", changed.get("two"));
+
+        Files.delete(file);
+        assertFalse(properties(tempDir, "cached.properties").containsKey("one"));
+    }
+
+    private static Map<String, String> properties(Path cwd, String fileName) {
+        HashMap<String, String> conf = new HashMap<>();
+        conf.put(PropertyFilePropertySource.FILE_NAME, fileName);
+        return new PropertyFilePropertySource()
+                .getProperties(SimpleNisseConfiguration.builder()
+                        .withUserProperties(conf)
+                        .withCurrentWorkingDirectory(cwd)
+                        .build());
+    }
+
+    /**
+     * Writes file, with last modified time in past, so it is cacheable.
+     */
+    private static void write(Path file, String... lines) throws IOException {
+        Files.createDirectories(file.getParent());
+        Files.write(file, Arrays.asList(lines));
+        Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis() - 120_000L));
+    }
 }
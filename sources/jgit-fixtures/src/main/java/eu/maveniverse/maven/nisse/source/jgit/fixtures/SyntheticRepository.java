@@ -0,0 +1,305 @@
+/*
+ * Copyright (c) 2023-2024 Maveniverse Org.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-v20.html
+ */
+package eu.maveniverse.maven.nisse.source.jgit.fixtures;
+
+import static java.util.Objects.requireNonNull;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TimeZone;
+import org.eclipse.jgit.dircache.DirCache;
+import org.eclipse.jgit.dircache.DirCacheBuilder;
+import org.eclipse.jgit.dircache.DirCacheEntry;
+import org.eclipse.jgit.internal.storage.file.ObjectDirectory;
+import org.eclipse.jgit.lib.BatchRefUpdate;
+import org.eclipse.jgit.lib.CommitBuilder;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.FileMode;
+import org.eclipse.jgit.lib.NullProgressMonitor;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.ObjectInserter;
+import org.eclipse.jgit.lib.PersonIdent;
+import org.eclipse.jgit.lib.RefUpdate;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.lib.TagBuilder;
+import org.eclipse.jgit.lib.TreeFormatter;
+import org.eclipse.jgit.revwalk.RevWalk;
+import org.eclipse.jgit.storage.file.FileRepositoryBuilder;
+import org.eclipse.jgit.transport.ReceiveCommand;
+
+/**
+ * Test fixture creating synthetic repositories of arbitrary size, fast: all objects are written directly into a
+ * single pack, and all refs are written at once. No {@code git} executable is needed.
+ * <p>
+ * The history is a first-parent chain of {@code commits} commits, each changing {@code pom.xml}. Optionally, every
+ * {@code mergeEvery}-th commit is a merge of a one commit side branch forked from the previous first-parent commit.
+ * Release tags {@code vX.Y.0} (every {@code annotatedEvery}-th annotated, others lightweight) are spread evenly over
+ * the history, except for the newest {@code untaggedTail} commits. Tagged commits carry {@code [minor]} counting
+ * marker, and the commit after each release tag may carry the version hint tag of next version. The working tree is
+ * checked out and clean.
+ */
+public final class SyntheticRepository {
+    private static final long EPOCH = 1577836800000L; // 2020-01-01T00:00:00Z
+
+    private static final TimeZone UTC = TimeZone.getTimeZone("UTC");
+
+    private static final PersonIdent TAGGER = new PersonIdent("Nisse", "nisse@maveniverse.eu", new Date(EPOCH), UTC);
+
+    private final Path directory;
+
+    private final ObjectId head;
+
+    private final List<String> releaseTags;
+
+    private final List<String> hintTags;
+
+    private SyntheticRepository(Path directory, ObjectId head, List<String> releaseTags, List<String> hintTags) {
+        this.directory = directory;
+        this.head = head;
+        this.releaseTags = Collections.unmodifiableList(releaseTags);
+        this.hintTags = Collections.unmodifiableList(hintTags);
+    }
+
+    /**
+     * The working tree directory.
+     */
+    public Path directory() {
+        return directory;
+    }
+
+    /**
+     * The commit {@code HEAD} points at.
+     */
+    public ObjectId head() {
+        return head;
+    }
+
+    /**
+     * The created release tag names, oldest first.
+     */
+    public List<String> releaseTags() {
+        return releaseTags;
+    }
+
+    /**
+     * The created version hint tag names, oldest first.
+     */
+    public List<String> hintTags() {
+        return hintTags;
+    }
+
+    /**
+     * Deletes the repository, along with its working tree directory.
+     */
+    public void delete() throws IOException {
+        if (!Files.exists(directory)) {
+            return;
+        }
+        Files.walkFileTree(directory, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                Files.delete(file);
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult postVisitDirectory(Path dir, IOException exc) throws IOException {
+                Files.delete(dir);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static final class Builder {
+        private int commits = 100;
+        private int tags = 10;
+        private int untaggedTail;
+        private int annotatedEvery = 2;
+        private int mergeEvery;
+        private boolean hintTags = true;
+
+        private Builder() {}
+
+        /**
+         * Count of first-parent commits, defaults to 100.
+         */
+        public Builder commits(int commits) {
+            if (commits < 1) {
+                throw new IllegalArgumentException("commits must be positive");
+            }
+            this.commits = commits;
+            return this;
+        }
+
+        /**
+         * Count of release tags, defaults to 10.
+         */
+        public Builder tags(int tags) {
+            this.tags = Math.max(0, tags);
+            return this;
+        }
+
+        /**
+         * Count of newest commits not having any tag, defaults to 0.
+         */
+        public Builder untaggedTail(int untaggedTail) {
+            this.untaggedTail = Math.max(0, untaggedTail);
+            return this;
+        }
+
+        /**
+         * Every n-th release tag is annotated, others are lightweight; 0 means all lightweight. Defaults to 2.
+         */
+        public Builder annotatedEvery(int annotatedEvery) {
+            this.annotatedEvery = Math.max(0, annotatedEvery);
+            return this;
+        }
+
+        /**
+         * Every n-th commit is a merge; 0 means linear history. Defaults to 0.
+         */
+        public Builder mergeEvery(int mergeEvery) {
+            this.mergeEvery = Math.max(0, mergeEvery);
+            return this;
+        }
+
+        /**
+         * Whether to add version hint tags, defaults to {@code true}.
+         */
+        public Builder hintTags(boolean hintTags) {
+            this.hintTags = hintTags;
+            return this;
+        }
+
+        /**
+         * Creates the repository in given (empty or non-existent) directory.
+         */
+        public SyntheticRepository create(Path directory) throws IOException {
+            requireNonNull(directory, "directory");
+            int tagged = Math.max(1, commits - untaggedTail);
+            int tagDistance = tags > 0 ? Math.max(1, tagged / tags) : Integer.MAX_VALUE;
+            Map<String, ObjectId> refs = new LinkedHashMap<>();
+            List<String> releaseTags = new ArrayList<>();
+            List<String> hints = new ArrayList<>();
+
+            Files.createDirectories(directory);
+            try (Repository repository =
+                    FileRepositoryBuilder.create(directory.resolve(Constants.DOT_GIT).toFile())) {
+                repository.create();
+                ObjectId head = null;
+                ObjectId blob = null;
+                byte[] content = null;
+                try (ObjectInserter inserter =
+                        ((ObjectDirectory) repository.getObjectDatabase()).newPackInserter()) {
+                    for (int i = 0; i < commits; i++) {
+                        boolean tag = releaseTags.size() < tags && i < tagged && i % tagDistance == 0;
+                        String message = tag ? "[minor] change " + i : "change " + i;
+                        content = ("<project><version>" + i + "</version></project>\n")
+                                .getBytes(StandardCharsets.UTF_8);
+                        blob = inserter.insert(Constants.OBJ_BLOB, content);
+                        ObjectId tree = tree(inserter, blob);
+                        if (head != null && mergeEvery > 0 && i % mergeEvery == 0) {
+                            ObjectId side = commit(inserter, tree, "side " + i, i, head);
+                            head = commit(inserter, tree, message, i, head, side);
+                        } else {
+                            head = head != null
+                                    ? commit(inserter, tree, message, i, head)
+                                    : commit(inserter, tree, message, i);
+                        }
+                        if (tag) {
+                            String name = "v1." + releaseTags.size() + ".0";
+                            ObjectId target = head;
+                            if (annotatedEvery > 0 && releaseTags.size() % annotatedEvery == 0) {
+                                TagBuilder tagBuilder = new TagBuilder();
+                                tagBuilder.setTag(name);
+                                tagBuilder.setObjectId(head, Constants.OBJ_COMMIT);
+                                tagBuilder.setTagger(TAGGER);
+                                tagBuilder.setMessage("Release " + name);
+                                target = inserter.insert(tagBuilder);
+                            }
+                            refs.put(Constants.R_TAGS + name, target);
+                            releaseTags.add(name);
+                        } else if (hintTags && i < tagged && i % tagDistance == 1 && !releaseTags.isEmpty()) {
+                            String name = "1." + releaseTags.size() + ".0-SNAPSHOT";
+                            if (!refs.containsKey(Constants.R_TAGS + name)) {
+                                refs.put(Constants.R_TAGS + name, head);
+                                hints.add(name);
+                            }
+                        }
+                    }
+                    inserter.flush();
+                }
+                refs.put(Constants.R_HEADS + "master", head);
+
+                BatchRefUpdate update = repository.getRefDatabase().newBatchUpdate();
+                update.setAtomic(false);
+                refs.forEach((name, id) -> update.addCommand(new ReceiveCommand(ObjectId.zeroId(), id, name)));
+                try (RevWalk revWalk = new RevWalk(repository)) {
+                    update.execute(revWalk, NullProgressMonitor.INSTANCE);
+                }
+                for (ReceiveCommand command : update.getCommands()) {
+                    if (command.getResult() != ReceiveCommand.Result.OK) {
+                        throw new IOException("Could not create " + command.getRefName() + ": " + command.getResult());
+                    }
+                }
+                RefUpdate headUpdate = repository.updateRef(Constants.HEAD);
+                headUpdate.link(Constants.R_HEADS + "master");
+
+                Path pom = directory.resolve("pom.xml");
+                Files.write(pom, content);
+                DirCache index = repository.lockDirCache();
+                try {
+                    DirCacheBuilder builder = index.builder();
+                    DirCacheEntry entry = new DirCacheEntry("pom.xml");
+                    entry.setFileMode(FileMode.REGULAR_FILE);
+                    entry.setObjectId(blob);
+                    entry.setLength(content.length);
+                    entry.setLastModified(Files.getLastModifiedTime(pom).toInstant());
+                    builder.add(entry);
+                    builder.commit();
+                } finally {
+                    index.unlock();
+                }
+                return new SyntheticRepository(directory, head, releaseTags, hints);
+            }
+        }
+    }
+
+    private static ObjectId tree(ObjectInserter inserter, ObjectId blob) throws IOException {
+        TreeFormatter tree = new TreeFormatter();
+        tree.append("pom.xml", FileMode.REGULAR_FILE, blob);
+        return inserter.insert(tree);
+    }
+
+    private static ObjectId commit(ObjectInserter inserter, ObjectId tree, String message, int i, ObjectId... parents)
+            throws IOException {
+        PersonIdent ident = new PersonIdent("Nisse", "nisse@maveniverse.eu", new Date(EPOCH + i * 60_000L), UTC);
+        CommitBuilder commit = new CommitBuilder();
+        commit.setTreeId(tree);
+        commit.setParentIds(parents);
+        commit.setAuthor(ident);
+        commit.setCommitter(ident);
+        commit.setMessage(message);
+        return inserter.insert(commit);
+    }
+}
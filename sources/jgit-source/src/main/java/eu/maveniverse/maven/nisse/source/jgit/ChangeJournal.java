@@ -0,0 +1,585 @@
+/*
+ * Copyright (c) 2023-2024 Maveniverse Org.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-v20.html
+ */
+package eu.maveniverse.maven.nisse.source.jgit;
+
+import static java.util.Objects.requireNonNull;
+
+import eu.maveniverse.maven.nisse.core.NisseConfiguration;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import org.eclipse.jgit.ignore.IgnoreNode;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.CoreConfig;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.util.FS;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A {@link WatchService} based change journal of a repository, meant to be kept open by long-lived hosts (ie. mvnd,
+ * Gradle daemon or an IDE). It tracks changes incrementally by counting events in two "generations": one for the
+ * repository ({@code HEAD}, index, config and refs) and one for the (not ignored part of) working tree. Unchanged
+ * generations mean unchanged state, so neither a stat based state capture, nor a working tree scan is needed.
+ * <p>
+ * Events are drained by the caller, just before generations are read. As events are delivered asynchronously, a
+ * change made just before may still be in flight: hence, before reading generations, a "cookie" file is created in
+ * the git directory, and events are drained until the event of cookie is seen (as watchman does). Inotify delivers
+ * events of all watched directories in order, so once the cookie event is seen, events of all earlier changes are
+ * seen as well. Journals are created only on Linux, as elsewhere JDK watch service either polls (and would report
+ * changes with delays) or does not order events across directories. If registration fails (ie. too many directories
+ * for the OS limits), no journal is used. As with stat based states, generations that changed too recently are
+ * "racy", and are not to be cached.
+ * <p>
+ * At most {@link #MAX_JOURNALS} journals are kept open, the least recently used ones are closed.
+ */
+final class ChangeJournal implements Closeable {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ChangeJournal.class);
+
+    /**
+     * Each journal keeps a repository open and holds a watch per not ignored directory of working tree.
+     */
+    private static final int MAX_JOURNALS = 4;
+
+    /**
+     * Journals by git directory (of the worktree, if any), in access order. Holders with {@code null} mark failed
+     * ones.
+     */
+    private static final LinkedHashMap<Path, Holder> JOURNALS = new LinkedHashMap<>(MAX_JOURNALS, 0.75f, true);
+
+    /**
+     * Prefix of cookie files, events of them are never counted as changes (whichever process created them).
+     */
+    private static final String COOKIE_PREFIX = ".nisse-cookie-";
+
+    /**
+     * How long to wait for the event of cookie, before considering everything changed.
+     */
+    private static final long COOKIE_TIMEOUT_MILLIS = 2000L;
+
+    /**
+     * Opens repository for new journal.
+     */
+    @FunctionalInterface
+    interface RepositoryOpener {
+        Repository open() throws IOException;
+    }
+
+    private final Repository repository;
+    private final Path workTree;
+    private final WatchService watchService;
+    private final Set<Path> repositoryRoots = new HashSet<>();
+    private final Map<WatchKey, Path> repositoryKeys = new HashMap<>();
+    private final Map<WatchKey, Path> workTreeKeys = new HashMap<>();
+    private final Map<Path, IgnoreNode> ignoreNodes = new HashMap<>();
+    private final String cookieId = UUID.randomUUID().toString();
+    private Path cookieDirectory;
+    private long cookies;
+    private String pendingCookie;
+    private IgnoreNode globalIgnoreNode;
+    private long repositoryGeneration;
+    private long workTreeGeneration;
+    private long repositoryChanged;
+    private long workTreeChanged;
+    private Generations cleanGenerations;
+    private boolean clean;
+
+    /**
+     * Returns the journal of given git directory (and of worktree git directory, if not {@code null}), creating it
+     * if needed. Returns {@code null} if journal cannot be used. The opened repository is kept open by journal.
+     */
+    static ChangeJournal of(Path gitDir, Path worktreeGitDir, RepositoryOpener opener) {
+        Path key = (worktreeGitDir != null ? worktreeGitDir : gitDir).toAbsolutePath();
+        synchronized (JOURNALS) {
+            Holder holder = JOURNALS.get(key);
+            if (holder == null) {
+                holder = new Holder(create(gitDir, worktreeGitDir, opener));
+                JOURNALS.put(key, holder);
+                evict();
+            }
+            return holder.journal;
+        }
+    }
+
+    /**
+     * Closes least recently used journals above limit. A journal closed while in use just stops reusing anything.
+     */
+    private static void evict() {
+        Iterator<Holder> holders = JOURNALS.values().iterator();
+        while (JOURNALS.size() > MAX_JOURNALS && holders.hasNext()) {
+            Holder holder = holders.next();
+            holders.remove();
+            if (holder.journal != null) {
+                try {
+                    holder.journal.close();
+                } catch (IOException e) {
+                    LOGGER.debug("Failed to close change journal", e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns {@code true} if JDK provides native and ordered file change notifications for given file system: the
+     * default file system on Linux (inotify). Elsewhere JDK uses a polling watch service (ie. macOS), or one with a
+     * notification handle per directory (Windows), hence events of different directories are not ordered.
+     */
+    private static boolean isNativeWatchService(FileSystem fileSystem) {
+        if (fileSystem != FileSystems.getDefault()) {
+            return false;
+        }
+        return System.getProperty("os.name", "").toLowerCase(Locale.ENGLISH).startsWith("linux");
+    }
+
+    private static ChangeJournal create(Path gitDir, Path worktreeGitDir, RepositoryOpener opener) {
+        if (!isNativeWatchService(gitDir.getFileSystem())) {
+            LOGGER.debug("No native file change notifications; change journal not used");
+            return null;
+        }
+        try {
+            WatchService watchService = gitDir.getFileSystem().newWatchService();
+            Repository repository;
+            try {
+                repository = opener.open();
+            } catch (IOException | RuntimeException e) {
+                watchService.close();
+                throw e;
+            }
+            if (repository.isBare()) {
+                watchService.close();
+                repository.close();
+                return null;
+            }
+            ChangeJournal journal = new ChangeJournal(repository, watchService);
+            try {
+                journal.registerRepository(gitDir.toAbsolutePath());
+                if (worktreeGitDir != null) {
+                    journal.registerRepository(worktreeGitDir.toAbsolutePath());
+                }
+                journal.registerTree(gitDir.toAbsolutePath().resolve(Constants.R_REFS), journal.repositoryKeys);
+                journal.registerWorkTree(journal.workTree);
+            } catch (IOException | RuntimeException e) {
+                journal.close();
+                throw e;
+            }
+            LOGGER.debug(
+                    "Created change journal of {} watching {} directories",
+                    journal.workTree,
+                    journal.repositoryKeys.size() + journal.workTreeKeys.size());
+            return journal;
+        } catch (IOException | RuntimeException e) {
+            LOGGER.debug("Could not create change journal; change journal not used", e);
+            return null;
+        }
+    }
+
+    private ChangeJournal(Repository repository, WatchService watchService) {
+        this.repository = requireNonNull(repository, "repository");
+        this.workTree = repository.getWorkTree().toPath().toAbsolutePath();
+        this.watchService = requireNonNull(watchService, "watchService");
+        // changes just before creation are not seen
+        this.repositoryChanged = System.currentTimeMillis();
+        this.workTreeChanged = repositoryChanged;
+    }
+
+    private void registerRepository(Path directory) throws IOException {
+        if (cookieDirectory == null) {
+            cookieDirectory = directory;
+        }
+        repositoryRoots.add(directory);
+        repositoryKeys.put(register(directory), directory);
+    }
+
+    private WatchKey register(Path directory) throws IOException {
+        return directory.register(
+                watchService,
+                StandardWatchEventKinds.ENTRY_CREATE,
+                StandardWatchEventKinds.ENTRY_DELETE,
+                StandardWatchEventKinds.ENTRY_MODIFY);
+    }
+
+    private void registerTree(Path root, Map<WatchKey, Path> keys) throws IOException {
+        Deque<Path> directories = new ArrayDeque<>();
+        directories.add(root);
+        while (!directories.isEmpty()) {
+            Path directory = directories.remove();
+            if (Files.isDirectory(directory, LinkOption.NOFOLLOW_LINKS)) {
+                keys.put(register(directory), directory);
+                try (Stream<Path> children = Files.list(directory)) {
+                    children.filter(p -> Files.isDirectory(p, LinkOption.NOFOLLOW_LINKS))
+                            .forEach(directories::add);
+                }
+            }
+        }
+    }
+
+    /**
+     * Registers not ignored directories of working tree, starting from given directory.
+     */
+    private void registerWorkTree(Path directory) throws IOException {
+        if (isIgnored(directory)) {
+            return;
+        }
+        workTreeKeys.put(register(directory), directory);
+        try (Stream<Path> children = Files.list(directory)) {
+            for (Path child : (Iterable<Path>) children::iterator) {
+                if (Files.isDirectory(child, LinkOption.NOFOLLOW_LINKS)
+                        && !Constants.DOT_GIT.equals(child.getFileName().toString())) {
+                    registerWorkTree(child);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns {@code true} if path within working tree is ignored by Git. Rules of {@code .gitignore} files are
+     * parsed once per directory, and are checked from the directory of path up to the root of working tree, followed
+     * by repository {@code info/exclude} and {@code core.excludesFile} rules. The path parent is not ignored, as only
+     * not ignored directories are watched.
+     */
+    private boolean isIgnored(Path path) throws IOException {
+        if (path.equals(workTree) || !path.startsWith(workTree)) {
+            return false;
+        }
+        boolean directory = Files.isDirectory(path, LinkOption.NOFOLLOW_LINKS);
+        Path parent = path.getParent();
+        while (parent != null && parent.startsWith(workTree)) {
+            Boolean ignored = ignoreNode(parent).checkIgnored(relativePath(parent, path), directory);
+            if (ignored != null) {
+                return ignored;
+            }
+            parent = parent.getParent();
+        }
+        Boolean ignored = globalIgnoreNode().checkIgnored(relativePath(workTree, path), directory);
+        return ignored != null && ignored;
+    }
+
+    private static String relativePath(Path directory, Path path) {
+        return directory.relativize(path).toString().replace('\\', '/');
+    }
+
+    /**
+     * Returns the rules of {@code .gitignore} file of given directory (empty, if there is none).
+     */
+    private IgnoreNode ignoreNode(Path directory) throws IOException {
+        IgnoreNode ignoreNode = ignoreNodes.get(directory);
+        if (ignoreNode == null) {
+            ignoreNode = new IgnoreNode();
+            parse(ignoreNode, directory.resolve(Constants.DOT_GIT_IGNORE));
+            ignoreNodes.put(directory, ignoreNode);
+        }
+        return ignoreNode;
+    }
+
+    /**
+     * Returns the rules of repository {@code info/exclude} file, followed by {@code core.excludesFile} rules.
+     */
+    private IgnoreNode globalIgnoreNode() throws IOException {
+        if (globalIgnoreNode == null) {
+            IgnoreNode ignoreNode = new IgnoreNode();
+            parse(ignoreNode, repository.getDirectory().toPath().resolve(Constants.INFO_EXCLUDE));
+            String excludesFile = repository.getConfig().get(CoreConfig.KEY).getExcludesFile();
+            if (excludesFile != null) {
+                FS fs = repository.getFS();
+                parse(
+                        ignoreNode,
+                        (excludesFile.startsWith("~/")
+                                        ? fs.resolve(fs.userHome(), excludesFile.substring(2))
+                                        : fs.resolve(null, excludesFile))
+                                .toPath());
+            }
+            globalIgnoreNode = ignoreNode;
+        }
+        return globalIgnoreNode;
+    }
+
+    private static void parse(IgnoreNode ignoreNode, Path file) throws IOException {
+        if (Files.isRegularFile(file)) {
+            try (InputStream inputStream = Files.newInputStream(file)) {
+                ignoreNode.parse(inputStream);
+            }
+        }
+    }
+
+    /**
+     * Drains events of all changes made before this call (see {@link #sync()}), and returns the current generations.
+     */
+    synchronized Generations generations() {
+        try {
+            sync();
+        } catch (ClosedWatchServiceException e) {
+            // closed; bump all so nothing is reused
+            changed(true, true);
+        }
+        return new Generations(
+                this,
+                repositoryGeneration,
+                workTreeGeneration,
+                System.currentTimeMillis(),
+                repositoryChanged,
+                workTreeChanged);
+    }
+
+    /**
+     * Creates a cookie file in git directory, and drains events until the event of cookie is seen, and then all the
+     * queued keys, so events of all changes made before are drained. If cookie cannot be created or its event is not
+     * seen in time, everything is considered changed.
+     */
+    private void sync() {
+        String cookie = COOKIE_PREFIX + cookieId + "-" + (++cookies);
+        Path cookieFile = cookieDirectory.resolve(cookie);
+        try {
+            Files.createFile(cookieFile);
+        } catch (IOException e) {
+            LOGGER.debug("Could not create change journal cookie {}", cookieFile, e);
+            drain();
+            changed(true, true);
+            return;
+        }
+        pendingCookie = cookie;
+        try {
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(COOKIE_TIMEOUT_MILLIS);
+            while (pendingCookie != null) {
+                long remaining = deadline - System.nanoTime();
+                WatchKey key = remaining > 0 ? watchService.poll(remaining, TimeUnit.NANOSECONDS) : null;
+                if (key == null) {
+                    LOGGER.debug("Change journal cookie {} not seen in time", cookieFile);
+                    changed(true, true);
+                    break;
+                }
+                process(key);
+            }
+            // keys are queued in order of their first event, so events before cookie may be in keys queued later
+            drain();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            changed(true, true);
+        } finally {
+            pendingCookie = null;
+            try {
+                Files.deleteIfExists(cookieFile);
+            } catch (IOException e) {
+                LOGGER.debug("Could not delete change journal cookie {}", cookieFile, e);
+            }
+        }
+    }
+
+    /**
+     * Drains events already queued.
+     */
+    private void drain() {
+        WatchKey key;
+        while ((key = watchService.poll()) != null) {
+            process(key);
+        }
+    }
+
+    private void process(WatchKey key) {
+        Path directory = repositoryKeys.get(key);
+        boolean repositoryKey = directory != null;
+        if (!repositoryKey) {
+            directory = workTreeKeys.get(key);
+        }
+        for (WatchEvent<?> event : key.pollEvents()) {
+            onEvent(directory, repositoryKey, event);
+        }
+        if (!key.reset()) {
+            repositoryKeys.remove(key);
+            ignoreNodes.remove(workTreeKeys.remove(key));
+        }
+    }
+
+    private void changed(boolean repository, boolean workTree) {
+        long now = System.currentTimeMillis();
+        if (repository) {
+            repositoryGeneration++;
+            repositoryChanged = now;
+            // info/exclude or core.excludesFile may have changed
+            globalIgnoreNode = null;
+        }
+        if (workTree) {
+            workTreeGeneration++;
+            workTreeChanged = now;
+        }
+    }
+
+    private void onEvent(Path directory, boolean repositoryKey, WatchEvent<?> event) {
+        if (event.kind() == StandardWatchEventKinds.OVERFLOW || directory == null) {
+            changed(true, true);
+            ignoreNodes.clear();
+            return;
+        }
+        Path path = directory.resolve((Path) event.context());
+        try {
+            if (repositoryKey) {
+                String fileName = path.getFileName().toString();
+                if (fileName.startsWith(COOKIE_PREFIX)) {
+                    if (fileName.equals(pendingCookie) && event.kind() == StandardWatchEventKinds.ENTRY_CREATE) {
+                        pendingCookie = null;
+                    }
+                    return;
+                }
+                if (fileName.endsWith(".lock")) {
+                    return;
+                }
+                changed(true, false);
+                // new directories within refs tree are watched as well
+                if (event.kind() == StandardWatchEventKinds.ENTRY_CREATE
+                        && !repositoryRoots.contains(directory)
+                        && Files.isDirectory(path, LinkOption.NOFOLLOW_LINKS)) {
+                    registerTree(path, repositoryKeys);
+                }
+            } else if (!NisseConfiguration.isInlinerFile(path.getFileName().toString()) && !isIgnored(path)) {
+                if (Constants.DOT_GIT_IGNORE.equals(path.getFileName().toString())) {
+                    ignoreNodes.remove(directory);
+                }
+                changed(false, true);
+                if (event.kind() == StandardWatchEventKinds.ENTRY_CREATE
+                        && Files.isDirectory(path, LinkOption.NOFOLLOW_LINKS)) {
+                    registerWorkTree(path);
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            LOGGER.debug("Failed to process event {} for {}", event.kind(), path, e);
+            changed(true, true);
+        }
+    }
+
+    /**
+     * Returns the cached "clean" state, if it was computed in given generations, otherwise {@code null}.
+     */
+    synchronized Boolean cachedClean(Generations generations) {
+        return generations.equals(cleanGenerations) ? clean : null;
+    }
+
+    /**
+     * Records the "clean" state computed in given generations (obtained before computation).
+     */
+    synchronized void cacheClean(Generations generations, boolean clean) {
+        this.cleanGenerations = generations;
+        this.clean = clean;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        try {
+            watchService.close();
+        } finally {
+            repository.close();
+        }
+    }
+
+    /**
+     * Closes all the journals, meant for hosts shutting down.
+     */
+    static void closeAll() {
+        synchronized (JOURNALS) {
+            for (Holder holder : JOURNALS.values()) {
+                if (holder.journal != null) {
+                    try {
+                        holder.journal.close();
+                    } catch (IOException e) {
+                        LOGGER.debug("Failed to close change journal", e);
+                    }
+                }
+            }
+            JOURNALS.clear();
+        }
+    }
+
+    private static final class Holder {
+        private final ChangeJournal journal;
+
+        private Holder(ChangeJournal journal) {
+            this.journal = journal;
+        }
+    }
+
+    /**
+     * The generations of a journal at some point in time. Equality considers generations only.
+     */
+    static final class Generations implements WarmCache.RacyState {
+        private final ChangeJournal journal;
+        private final long repository;
+        private final long workTree;
+        private final long captured;
+        private final long repositoryChanged;
+        private final long workTreeChanged;
+
+        private Generations(
+                ChangeJournal journal,
+                long repository,
+                long workTree,
+                long captured,
+                long repositoryChanged,
+                long workTreeChanged) {
+            this.journal = journal;
+            this.repository = repository;
+            this.workTree = workTree;
+            this.captured = captured;
+            this.repositoryChanged = repositoryChanged;
+            this.workTreeChanged = workTreeChanged;
+        }
+
+        /**
+         * Returns the state of repository only (working tree changes are irrelevant), usable as warm cache state.
+         */
+        Object repositoryState() {
+            return new Generations(journal, repository, -1, captured, repositoryChanged, Long.MIN_VALUE);
+        }
+
+        /**
+         * Returns {@code true} if generations changed within given interval before capture: events of a change
+         * still in progress (ie. a commit writing objects, index and refs) may not have been delivered yet.
+         */
+        @Override
+        public boolean isRacy(long racyMillis) {
+            return Math.max(repositoryChanged, workTreeChanged) > captured - racyMillis;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            Generations that = (Generations) o;
+            return journal == that.journal && repository == that.repository && workTree == that.workTree;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(System.identityHashCode(journal), repository, workTree);
+        }
+    }
+}
@@ -0,0 +1,485 @@
+/*
+ * Copyright (c) 2023-2024 Maveniverse Org.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-v20.html
+ */
+package eu.maveniverse.maven.nisse.source.jgit;
+
+import eu.maveniverse.maven.nisse.core.NisseConfiguration;
+import eu.maveniverse.maven.nisse.core.PropertySource;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import javax.inject.Named;
+import javax.inject.Singleton;
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.api.Status;
+import org.eclipse.jgit.api.StatusCommand;
+import org.eclipse.jgit.dircache.DirCache;
+import org.eclipse.jgit.dircache.DirCacheBuilder;
+import org.eclipse.jgit.dircache.DirCacheEntry;
+import org.eclipse.jgit.dircache.DirCacheTree;
+import org.eclipse.jgit.errors.RepositoryNotFoundException;
+import org.eclipse.jgit.lib.ConfigConstants;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.FileMode;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.ObjectInserter;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.storage.file.FileRepositoryBuilder;
+import org.eclipse.jgit.submodule.SubmoduleWalk;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A source publishing content fingerprint of the module (the current working directory), usable as build cache key:
+ * it is the git tree id of module directory, as it would be if all changes in module (including untracked, not
+ * ignored files) were staged. Hence, same module content has same fingerprint, whether it is committed or not.
+ * <p>
+ * On clean module, the tree id is taken from the index (the cached tree of index, if valid, otherwise computed from
+ * index entries), and no file is read. On dirty module, only changed and untracked files are hashed (in parallel,
+ * large ones memory mapped), as is (without applying line ending conversion or clean filters). If {@code jgit}
+ * source already computed the working tree status with same configuration, that status is used, otherwise status of
+ * module directory is computed.
+ * <p>
+ * This source is not active by default, as it scans working tree: set {@code nisse.source.fingerprint.active} to
+ * {@code true} to use it.
+ * <p>
+ * Created properties:
+ * <ul>
+ *     <li>{@code id} - the fingerprint of module</li>
+ *     <li>{@code clean} - {@code true} if module has no changes, {@code false} otherwise</li>
+ * </ul>
+ */
+@Singleton
+@Named(FingerprintPropertySource.NAME)
+public class FingerprintPropertySource implements PropertySource {
+    public static final String NAME = "fingerprint";
+
+    private static final String FINGERPRINT_ID = "id";
+
+    private static final String FINGERPRINT_CLEAN = "clean";
+
+    /**
+     * Set to {@code true} to activate this source. Unlike other sources, it is not active by default.
+     */
+    private static final String FINGERPRINT_CONF_ACTIVE = NisseConfiguration.SOURCE_PREFIX + NAME + ".active";
+
+    /**
+     * Count of threads used to hash changed files. Defaults to count of available processors, set it to {@code 1}
+     * to hash files sequentially.
+     */
+    private static final String FINGERPRINT_CONF_THREADS = NisseConfiguration.SOURCE_PREFIX + NAME + ".threads";
+
+    /**
+     * Files smaller than this are read, larger ones are memory mapped.
+     */
+    private static final long MAP_THRESHOLD = 64 * 1024;
+
+    private static final long MAP_CHUNK = 256L * 1024 * 1024;
+
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public Collection<String> getPropertyKeys(NisseConfiguration configuration) {
+        return Arrays.asList(FINGERPRINT_ID, FINGERPRINT_CLEAN);
+    }
+
+    @Override
+    public Map<String, String> getProperties(NisseConfiguration configuration) {
+        if (!Boolean.parseBoolean(configuration.getConfiguration().getOrDefault(FINGERPRINT_CONF_ACTIVE, "false"))) {
+            logger.debug("Source {} is not activated; skipping it", NAME);
+            return Collections.emptyMap();
+        }
+        if (!configuration.isPropertyKeyReferenced(this, FINGERPRINT_ID)
+                && !configuration.isPropertyKeyReferenced(this, FINGERPRINT_CLEAN)) {
+            logger.debug("No property of source {} is referenced; skipping it", NAME);
+            return Collections.emptyMap();
+        }
+        try {
+            File cwd = configuration.getCurrentWorkingDirectory().toFile();
+            FileRepositoryBuilder builder =
+                    new FileRepositoryBuilder().readEnvironment().findGitDir(cwd);
+            JGitPropertySource.setupWorktree(builder, cwd);
+            if (builder.getGitDir() == null) {
+                logger.debug("Seems this is not a git checkout; ignoring property source {}", NAME);
+                return Collections.emptyMap();
+            }
+            try (SharedRepositories.Handle handle = JGitPropertySource.openRepository(configuration, builder);
+                    Git git = Git.wrap(handle.repository())) {
+                Repository repository = handle.repository();
+                if (repository.isBare()) {
+                    return Collections.emptyMap();
+                }
+                Path workTree = repository.getWorkTree().toPath().toRealPath();
+                Path module = configuration.getCurrentWorkingDirectory().toRealPath();
+                if (!module.startsWith(workTree)) {
+                    return Collections.emptyMap();
+                }
+                String prefix = workTree.relativize(module).toString().replace(File.separatorChar, '/');
+
+                DirCache index = repository.readDirCache();
+                Status status = StatusMemo.get(configuration, repository);
+                if (status != null) {
+                    logger.debug("Reusing working tree status computed by source {}", JGitPropertySource.NAME);
+                } else {
+                    StatusCommand statusCommand =
+                            git.status().setIgnoreSubmodules(SubmoduleWalk.IgnoreSubmoduleMode.ALL);
+                    if (!prefix.isEmpty()) {
+                        statusCommand.addPath(prefix);
+                    }
+                    status = statusCommand.call();
+                }
+                Changes changes = new Changes(status, prefix, submodules(index, prefix));
+                TreeSet<String> changed = new TreeSet<>();
+                changed.addAll(changes.modified);
+                changes.untracked.stream()
+                        .filter(path -> !NisseConfiguration.isInlinerFile(path))
+                        .forEach(changed::add);
+                changed.addAll(changes.conflicting);
+                TreeSet<String> missing = new TreeSet<>(changes.missing);
+                missing.removeAll(changes.conflicting);
+
+                ObjectId id = null;
+                if (changed.isEmpty() && missing.isEmpty()) {
+                    id = cachedTreeId(index, prefix);
+                }
+                if (id == null) {
+                    id = treeId(
+                            repository,
+                            index,
+                            prefix,
+                            hash(configuration, workTree, changed),
+                            missing,
+                            changes.conflicting);
+                }
+                HashMap<String, String> result = new HashMap<>();
+                result.put(FINGERPRINT_ID, id.getName());
+                result.put(FINGERPRINT_CLEAN, Boolean.toString(changes.isClean()));
+                return Collections.unmodifiableMap(result);
+            }
+        } catch (RepositoryNotFoundException | IllegalArgumentException e) {
+            logger.debug("Seems this is not a git checkout; ignoring property source {}", NAME, e);
+            return Collections.emptyMap();
+        } catch (Exception e) {
+            logger.error("Exception in FingerprintPropertySource: {}", e.toString());
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Returns the paths of submodules within given directory, their changes are not part of fingerprint.
+     */
+    private static Set<String> submodules(DirCache index, String prefix) {
+        HashSet<String> result = new HashSet<>();
+        for (DirCacheEntry entry : index.getEntriesWithin(prefix)) {
+            if (entry.getFileMode() == FileMode.GITLINK) {
+                result.add(entry.getPathString());
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the tree id of given directory from cached tree of index, or {@code null} if the index has no valid
+     * cached tree for it.
+     */
+    static ObjectId cachedTreeId(DirCache index, String prefix) {
+        DirCacheTree tree = index.getCacheTree(false);
+        if (tree != null && !prefix.isEmpty()) {
+            for (String name : prefix.split("/")) {
+                DirCacheTree child = null;
+                for (int i = 0; i < tree.getChildCount(); i++) {
+                    if (name.equals(tree.getChild(i).getNameString())) {
+                        child = tree.getChild(i);
+                        break;
+                    }
+                }
+                tree = child;
+                if (tree == null) {
+                    break;
+                }
+            }
+        }
+        return tree != null && tree.isValid() ? tree.getObjectId() : null;
+    }
+
+    /**
+     * Computes tree id of given directory from index entries, with changed files and missing files applied.
+     */
+    private static ObjectId treeId(
+            Repository repository,
+            DirCache index,
+            String prefix,
+            Map<String, DirCacheEntry> changed,
+            TreeSet<String> missing,
+            Iterable<String> conflicting)
+            throws IOException {
+        String within = prefix.isEmpty() ? "" : prefix + "/";
+        TreeMap<String, DirCacheEntry> entries = new TreeMap<>();
+        for (DirCacheEntry entry : index.getEntriesWithin(prefix)) {
+            String path = entry.getPathString();
+            if (entry.getStage() != DirCacheEntry.STAGE_0 || missing.contains(path)) {
+                continue;
+            }
+            entries.put(path, entry);
+        }
+        boolean fileMode = repository
+                        .getConfig()
+                        .getBoolean(ConfigConstants.CONFIG_CORE_SECTION, ConfigConstants.CONFIG_KEY_FILEMODE, true)
+                && repository.getFS().supportsExecute();
+        for (Map.Entry<String, DirCacheEntry> entry : changed.entrySet()) {
+            DirCacheEntry existing = entries.get(entry.getKey());
+            DirCacheEntry replacement = entry.getValue();
+            if (!fileMode && replacement.getFileMode() != FileMode.SYMLINK) {
+                // executable bit is not tracked: keep the mode of index
+                replacement.setFileMode(
+                        existing != null && existing.getFileMode() == FileMode.EXECUTABLE_FILE
+                                ? FileMode.EXECUTABLE_FILE
+                                : FileMode.REGULAR_FILE);
+            }
+            entries.put(entry.getKey(), replacement);
+        }
+        for (String path : conflicting) {
+            if (!changed.containsKey(path)) {
+                entries.remove(path);
+            }
+        }
+
+        DirCache tree = DirCache.newInCore();
+        DirCacheBuilder builder = tree.builder();
+        for (Map.Entry<String, DirCacheEntry> entry : entries.entrySet()) {
+            DirCacheEntry relative = new DirCacheEntry(entry.getKey().substring(within.length()));
+            relative.setFileMode(entry.getValue().getFileMode());
+            relative.setObjectId(entry.getValue().getObjectId());
+            builder.add(relative);
+        }
+        builder.finish();
+        try (IdInserter inserter = new IdInserter()) {
+            return tree.writeTree(inserter);
+        }
+    }
+
+    /**
+     * Hashes given changed files, in parallel if configured so. Returns index entries for them.
+     */
+    private Map<String, DirCacheEntry> hash(NisseConfiguration configuration, Path workTree, TreeSet<String> paths)
+            throws IOException {
+        int threads = threads(configuration);
+        ArrayList<Callable<DirCacheEntry>> tasks = new ArrayList<>(paths.size());
+        for (String path : paths) {
+            tasks.add(() -> entry(workTree, path));
+        }
+        HashMap<String, DirCacheEntry> result = new HashMap<>();
+        if (threads < 2 || tasks.size() < 2) {
+            for (Callable<DirCacheEntry> task : tasks) {
+                add(result, call(task));
+            }
+            return result;
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(threads, tasks.size()), r -> {
+            Thread thread = new Thread(r, "nisse-fingerprint");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            for (Future<DirCacheEntry> future : executor.invokeAll(tasks)) {
+                add(result, get(future));
+            }
+            return result;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while hashing files");
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private int threads(NisseConfiguration configuration) {
+        String threads = configuration.getConfiguration().get(FINGERPRINT_CONF_THREADS);
+        if (threads != null) {
+            try {
+                return Integer.parseInt(threads.trim());
+            } catch (NumberFormatException e) {
+                logger.warn(
+                        "Invalid {} value '{}'; using count of available processors",
+                        FINGERPRINT_CONF_THREADS,
+                        threads);
+            }
+        }
+        return Runtime.getRuntime().availableProcessors();
+    }
+
+    private static void add(Map<String, DirCacheEntry> result, DirCacheEntry entry) {
+        if (entry != null) {
+            result.put(entry.getPathString(), entry);
+        }
+    }
+
+    /**
+     * Creates index entry for given file, or {@code null} if it is not a file or symbolic link (ie. is a nested
+     * repository).
+     */
+    private static DirCacheEntry entry(Path workTree, String path) throws IOException {
+        Path file = workTree.resolve(path);
+        DirCacheEntry entry = new DirCacheEntry(path);
+        if (Files.isSymbolicLink(file)) {
+            String target = Files.readSymbolicLink(file).toString().replace(File.separatorChar, '/');
+            entry.setFileMode(FileMode.SYMLINK);
+            entry.setObjectId(blobId(target.getBytes(StandardCharsets.UTF_8)));
+        } else if (Files.isRegularFile(file, LinkOption.NOFOLLOW_LINKS)) {
+            entry.setFileMode(Files.isExecutable(file) ? FileMode.EXECUTABLE_FILE : FileMode.REGULAR_FILE);
+            entry.setObjectId(blobId(file));
+        } else {
+            return null;
+        }
+        return entry;
+    }
+
+    static ObjectId blobId(byte[] content) {
+        try (ObjectInserter.Formatter formatter = new ObjectInserter.Formatter()) {
+            return formatter.idFor(Constants.OBJ_BLOB, content);
+        }
+    }
+
+    /**
+     * Computes git blob id of given file content: small files are read, large ones memory mapped in chunks.
+     */
+    static ObjectId blobId(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < MAP_THRESHOLD) {
+                ByteBuffer buffer = ByteBuffer.allocate((int) size);
+                while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+                    // read fully
+                }
+                return blobId(buffer.array());
+            }
+            MessageDigest digest = Constants.newMessageDigest();
+            digest.update(Constants.encodedTypeString(Constants.OBJ_BLOB));
+            digest.update((byte) ' ');
+            digest.update(Constants.encodeASCII(size));
+            digest.update((byte) 0);
+            for (long position = 0; position < size; position += MAP_CHUNK) {
+                long length = Math.min(MAP_CHUNK, size - position);
+                digest.update(channel.map(FileChannel.MapMode.READ_ONLY, position, length));
+            }
+            return ObjectId.fromRaw(digest.digest());
+        }
+    }
+
+    private static DirCacheEntry call(Callable<DirCacheEntry> task) throws IOException {
+        try {
+            return task.call();
+        } catch (IOException | RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IOException(e);
+        }
+    }
+
+    private static DirCacheEntry get(Future<DirCacheEntry> future) throws IOException, InterruptedException {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            } else if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IOException(e.getCause());
+        }
+    }
+
+    /**
+     * Changes of status within module directory, not counting submodules. Status may be the status of module
+     * directory, or the status of whole working tree.
+     */
+    private static final class Changes {
+        private final Set<String> added;
+        private final Set<String> changed;
+        private final Set<String> removed;
+        private final Set<String> missing;
+        private final Set<String> modified;
+        private final Set<String> conflicting;
+        private final Set<String> untracked;
+
+        private Changes(Status status, String prefix, Set<String> submodules) {
+            Predicate<String> within = prefix.isEmpty()
+                    ? path -> !submodules.contains(path)
+                    : path -> path.startsWith(prefix + "/") && !submodules.contains(path);
+            this.added = filter(status.getAdded(), within);
+            this.changed = filter(status.getChanged(), within);
+            this.removed = filter(status.getRemoved(), within);
+            this.missing = filter(status.getMissing(), within);
+            this.modified = filter(status.getModified(), within);
+            this.conflicting = filter(status.getConflicting(), within);
+            this.untracked = filter(status.getUntracked(), within);
+        }
+
+        private static Set<String> filter(Set<String> paths, Predicate<String> within) {
+            return paths.stream().filter(within).collect(Collectors.toSet());
+        }
+
+        /**
+         * Same as {@link JGitPropertySource#isClean(Status)}, for module directory.
+         */
+        private boolean isClean() {
+            return added.isEmpty()
+                    && changed.isEmpty()
+                    && removed.isEmpty()
+                    && missing.isEmpty()
+                    && modified.isEmpty()
+                    && conflicting.isEmpty()
+                    && untracked.stream().allMatch(NisseConfiguration::isInlinerFile);
+        }
+    }
+
+    /**
+     * Inserter that only computes object ids, without storing objects.
+     */
+    private static final class IdInserter extends ObjectInserter.Formatter {
+        @Override
+        public ObjectId insert(int type, byte[] data, int off, int len) {
+            return idFor(type, data, off, len);
+        }
+
+        @Override
+        public ObjectId insert(int type, long length, InputStream in) throws IOException {
+            return idFor(type, length, in);
+        }
+    }
+}
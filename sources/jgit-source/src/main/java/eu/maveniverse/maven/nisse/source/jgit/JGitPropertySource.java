@@ -7,8 +7,11 @@
  */
 package eu.maveniverse.maven.nisse.source.jgit;
 
+import static java.util.Objects.requireNonNull;
+
 import eu.maveniverse.maven.nisse.core.NisseConfiguration;
 import eu.maveniverse.maven.nisse.core.PropertySource;
+import eu.maveniverse.maven.nisse.source.ci.CiEnvironment;
 import java.io.File;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
@@ -19,9 +22,12 @@ import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
@@ -36,8 +42,10 @@ import org.eclipse.aether.version.InvalidVersionSpecificationException;
 import org.eclipse.aether.version.Version;
 import org.eclipse.aether.version.VersionScheme;
 import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.api.Status;
 import org.eclipse.jgit.api.errors.GitAPIException;
 import org.eclipse.jgit.errors.RepositoryNotFoundException;
+import org.eclipse.jgit.errors.RevWalkException;
 import org.eclipse.jgit.lib.Config;
 import org.eclipse.jgit.lib.ConfigConstants;
 import org.eclipse.jgit.lib.Constants;
@@ -83,6 +91,29 @@ public class JGitPropertySource implements PropertySource {
 
     private static final String JGIT_COMMON_DIR = "commonDir";
 
+    private static final String JGIT_OUTPUT_TIMESTAMP = "outputTimestamp";
+
+    private static final String JGIT_OUTPUT_TIMESTAMP_EPOCH = "outputTimestampEpoch";
+
+    /**
+     * All the keys this source may emit.
+     */
+    private static final List<String> JGIT_KEYS = Collections.unmodifiableList(Arrays.asList(
+            JGIT_COMMIT,
+            JGIT_SHORT_COMMIT_ID,
+            JGIT_DATE,
+            JGIT_AUTHOR,
+            JGIT_COMMITTER,
+            JGIT_DYNAMIC_VERSION,
+            JGIT_COUNTING_VERSION,
+            JGIT_CLEAN,
+            JGIT_BRANCH_NAME,
+            JGIT_REMOTE_NAME,
+            JGIT_REMOTE_URL,
+            JGIT_COMMON_DIR,
+            JGIT_OUTPUT_TIMESTAMP,
+            JGIT_OUTPUT_TIMESTAMP_EPOCH));
+
     /**
      * Specify the length for the short commit id.
      */
@@ -241,6 +272,73 @@ public class JGitPropertySource implements PropertySource {
 
     private static final String DEFAULT_DATE_FORMAT = "git";
 
+    /**
+     * Set to {@code true} to derive {@link #JGIT_OUTPUT_TIMESTAMP} and {@link #JGIT_OUTPUT_TIMESTAMP_EPOCH} from the
+     * latest commit touching the current working directory (the module), instead from the {@code HEAD} commit.
+     * This costs a path limited history walk, but the timestamp of module does not change with unrelated commits.
+     */
+    private static final String JGIT_CONF_SYSTEM_PROPERTY_MODULE_OUTPUT_TIMESTAMP =
+            "nisse.source.jgit.moduleOutputTimestamp";
+
+    private static final String DEFAULT_MODULE_OUTPUT_TIMESTAMP = Boolean.FALSE.toString();
+
+    /**
+     * Set to {@code false} to disable the warm cache. The warm cache keeps computed properties in memory for the
+     * lifetime of the JVM, and reuses them while the repository state ({@code HEAD}, refs, {@code packed-refs},
+     * index and config) is unchanged. It matters in long-lived processes (ie. mvnd or Gradle daemon), that run several
+     * builds on same checkout. The {@link #JGIT_CLEAN} property depends on working tree, and is never cached, nor
+     * are properties when {@link #JGIT_CONF_SYSTEM_PROPERTY_APPEND_DIRTY} is enabled.
+     */
+    private static final String JGIT_CONF_SYSTEM_PROPERTY_WARM_CACHE = "nisse.source.jgit.warmCache";
+
+    private static final String DEFAULT_WARM_CACHE = Boolean.TRUE.toString();
+
+    /**
+     * Set to {@code true} to enable the change journal, that is meant for long-lived hosts (ie. mvnd, Gradle daemon
+     * or an IDE). It keeps a file watch service open on repository and (not ignored part of) working tree, and
+     * tracks changes from events, so the warm cache need not check repository files, and {@link #JGIT_CLEAN} is
+     * recomputed only if working tree or index changed. Requires warm cache, and native file change notifications.
+     */
+    private static final String JGIT_CONF_SYSTEM_PROPERTY_CHANGE_JOURNAL = "nisse.source.jgit.changeJournal";
+
+    private static final String DEFAULT_CHANGE_JOURNAL = Boolean.FALSE.toString();
+
+    /**
+     * Set to {@code true} to keep opened repositories open and shared across invocations in same JVM, so repeated
+     * invocations (ie. plugin used in several modules) reuse already loaded pack indexes, refs and config. By
+     * default, the repository is opened and closed on every invocation.
+     */
+    private static final String JGIT_CONF_SYSTEM_PROPERTY_SHARED_REPOSITORY = "nisse.source.jgit.sharedRepository";
+
+    private static final String DEFAULT_SHARED_REPOSITORY = Boolean.FALSE.toString();
+
+    /**
+     * Set to {@code false} to ignore the CI environment. By default, when running on CI (GitHub Actions, GitLab CI or
+     * Jenkins) and the commit reported by CI is the checked out {@code HEAD}, the branch reported by CI is used for
+     * {@link #JGIT_BRANCH_NAME}, instead to scan local branches (that on CI usually do not exist, as {@code HEAD} is
+     * detached), and the repository URL reported by CI is used for {@link #JGIT_REMOTE_URL}, if checkout has no
+     * remote configured. Has no effect if the optional {@code ci-source} is not present.
+     */
+    private static final String JGIT_CONF_SYSTEM_PROPERTY_USE_CI = "nisse.source.jgit.useCi";
+
+    private static final String DEFAULT_USE_CI = Boolean.TRUE.toString();
+
+    /**
+     * Whether the optional {@code ci-source} is present, ie. CI environment can be detected.
+     */
+    private static final boolean CI_SOURCE_PRESENT =
+            isClassPresent("eu.maveniverse.maven.nisse.source.ci.CiEnvironment");
+
+    /**
+     * The JGit storage profile: {@code default} leaves JGit storage configuration as is, while {@code auto} sizes
+     * the JGit window cache and delta base cache from pack sizes and available heap, and memory maps packs that would
+     * not fit into heap. It matters for history walks (ie. {@link #JGIT_COUNTING_VERSION}) in large repositories.
+     * Sizes may be set explicitly (on top of the profile) using {@code .packedGitLimit}, {@code .packedGitWindowSize},
+     * {@code .packedGitMMAP} and {@code .deltaBaseCacheLimit} suffixed keys, with optional {@code k}, {@code m} or
+     * {@code g} size suffix. As JGit storage configuration is global to JVM, it is never shrunk.
+     */
+    private static final String JGIT_CONF_SYSTEM_PROPERTY_STORAGE = "nisse.source.jgit.storage";
+
     /**
      * Pattern for standard semantic versions, with an optional {@code "v"} prefix.
      */
@@ -268,10 +366,52 @@ public class JGitPropertySource implements PropertySource {
      */
     private static final String DEFAULT_REMOTE_NAMES = "upstream,origin";
 
+    /**
+     * All the configuration keys this source uses; the warm cache is keyed by their values.
+     */
+    private static final List<String> JGIT_CONF_KEYS = Collections.unmodifiableList(Arrays.asList(
+            JGIT_CONF_SYSTEM_PROPERTY_SHORT_COMMIT_ID_LENGTH,
+            JGIT_CONF_SYSTEM_PROPERTY_DYNAMIC_VERSION,
+            JGIT_CONF_SYSTEM_PROPERTY_COUNTING_VERSION,
+            JGIT_CONF_COUNTING_START_MAJOR,
+            JGIT_CONF_COUNTING_START_MINOR,
+            JGIT_CONF_COUNTING_START_PATCH,
+            JGIT_CONF_COUNTING_MATCH_MAJOR,
+            JGIT_CONF_COUNTING_MATCH_MINOR,
+            JGIT_CONF_COUNTING_MATCH_PATCH,
+            JGIT_CONF_COUNTING_PATTERN,
+            JGIT_CONF_SYSTEM_PROPERTY_INCREASE_PATCH_VERSION,
+            JGIT_CONF_SYSTEM_PROPERTY_APPEND_BUILD_NUMBER,
+            JGIT_CONF_SYSTEM_PROPERTY_APPEND_SNAPSHOT,
+            JGIT_CONF_SYSTEM_PROPERTY_APPEND_DIRTY,
+            JGIT_CONF_SYSTEM_PROPERTY_DIRTY_QUALIFIER,
+            JGIT_CONF_SYSTEM_PROPERTY_USE_VERSION,
+            JGIT_CONF_SYSTEM_PROPERTY_VERSION_HINT_PATTERN,
+            JGIT_CONF_SYSTEM_PROPERTY_DATE_FORMAT,
+            JGIT_CONF_SYSTEM_PROPERTY_DATE_FORMAT_PATTERN,
+            JGIT_CONF_SYSTEM_PROPERTY_MODULE_OUTPUT_TIMESTAMP,
+            JGIT_CONF_SYSTEM_PROPERTY_REMOTE_NAMES,
+            JGIT_CONF_SYSTEM_PROPERTY_USE_CI));
+
+    /**
+     * The process wide warm cache.
+     */
+    private static final WarmCache WARM_CACHE = new WarmCache(WarmCache.DEFAULT_RACY_MILLIS);
+
     private final Logger logger = LoggerFactory.getLogger(getClass());
 
     private final VersionScheme versionScheme = new GenericVersionScheme();
 
+    private final WarmCache warmCache;
+
+    public JGitPropertySource() {
+        this(WARM_CACHE);
+    }
+
+    JGitPropertySource(WarmCache warmCache) {
+        this.warmCache = requireNonNull(warmCache, "warmCache");
+    }
+
     /**
      * Splits incoming string at comma, semicolon or pipe character, and after trimming and filtering
      * for empty strings, returns the resulted list of strings.
@@ -301,36 +441,89 @@ public class JGitPropertySource implements PropertySource {
         return NAME;
     }
 
+    @Override
+    public Collection<String> getPropertyKeys(NisseConfiguration configuration) {
+        return JGIT_KEYS;
+    }
+
     @Override
     public Map<String, String> getProperties(NisseConfiguration configuration) {
+        if (JGIT_KEYS.stream().noneMatch(key -> configuration.isPropertyKeyReferenced(this, key))) {
+            logger.debug("No property of source {} is referenced; skipping it", NAME);
+            return Collections.emptyMap();
+        }
         HashMap<String, String> result = new HashMap<>();
         try {
             File cwd = configuration.getCurrentWorkingDirectory().toFile();
             FileRepositoryBuilder builder =
                     new FileRepositoryBuilder().readEnvironment().findGitDir(cwd);
-            Path worktreeGitDir = null;
-
-            File gitDir = builder.getGitDir();
-            if (gitDir != null) {
-                Path commonDirFile = gitDir.toPath().resolve("commondir");
-                if (Files.exists(commonDirFile)) {
-                    worktreeGitDir = gitDir.toPath();
-                    String commonDirRef = new String(Files.readAllBytes(commonDirFile), StandardCharsets.UTF_8).trim();
-                    File commonDir =
-                            gitDir.toPath().resolve(commonDirRef).normalize().toFile();
-                    logger.debug("Detected git worktree: gitDir={}, commonDir={}", gitDir, commonDir);
-                    result.put(JGIT_COMMON_DIR, commonDir.getAbsolutePath());
-                    builder.setGitDir(commonDir);
-                    builder.setWorkTree(cwd);
-                    builder.setIndexFile(worktreeGitDir.resolve("index").toFile());
+            Path worktreeGitDir = setupWorktree(builder, cwd);
+            if (worktreeGitDir != null) {
+                logger.debug("Detected git worktree: gitDir={}, commonDir={}", worktreeGitDir, builder.getGitDir());
+                result.put(JGIT_COMMON_DIR, builder.getGitDir().getAbsolutePath());
+            }
+
+            CiEnvironment ci = CI_SOURCE_PRESENT
+                            && Boolean.parseBoolean(configuration
+                                    .getConfiguration()
+                                    .getOrDefault(JGIT_CONF_SYSTEM_PROPERTY_USE_CI, DEFAULT_USE_CI))
+                    ? CiEnvironment.detect(configuration)
+                    : null;
+            List<Object> cacheKey = warmCacheKey(configuration, cwd, ci);
+            Object state = null;
+            ChangeJournal journal = null;
+            ChangeJournal.Generations generations = null;
+            if (cacheKey != null && builder.getGitDir() != null) {
+                if (Boolean.parseBoolean(configuration
+                        .getConfiguration()
+                        .getOrDefault(JGIT_CONF_SYSTEM_PROPERTY_CHANGE_JOURNAL, DEFAULT_CHANGE_JOURNAL))) {
+                    journal = ChangeJournal.of(
+                            builder.getGitDir().toPath(),
+                            worktreeGitDir,
+                            () -> builder.setMustExist(true).build());
+                }
+                if (journal != null) {
+                    generations = journal.generations();
+                    state = generations.repositoryState();
+                } else {
+                    state = captureState(builder.getGitDir().toPath(), worktreeGitDir);
+                }
+                Map<String, String> cached = warmCache.get(cacheKey, state);
+                if (cached != null) {
+                    logger.debug("Repository state unchanged; reusing cached properties of source {}", NAME);
+                    result.putAll(cached);
+                    if (configuration.isPropertyKeyReferenced(this, JGIT_CLEAN)) {
+                        Boolean clean = journal != null ? journal.cachedClean(generations) : null;
+                        if (clean == null) {
+                            try (SharedRepositories.Handle handle = openRepository(configuration, builder);
+                                    Git git = Git.wrap(handle.repository())) {
+                                clean = isClean(configuration, git, journal, generations);
+                            }
+                        }
+                        result.put(JGIT_CLEAN, clean.toString());
+                    }
+                    return Collections.unmodifiableMap(result);
                 }
             }
 
-            try (Repository repository = builder.setMustExist(true).build();
-                    Git git = Git.wrap(repository)) {
+            if (builder.getGitDir() != null) {
+                StorageProfile.apply(
+                        configuration.getConfiguration(),
+                        JGIT_CONF_SYSTEM_PROPERTY_STORAGE,
+                        builder.getObjectDirectory() != null
+                                ? builder.getObjectDirectory()
+                                : new File(builder.getGitDir(), Constants.OBJECTS));
+            }
+            try (SharedRepositories.Handle handle = openRepository(configuration, builder);
+                    Git git = Git.wrap(handle.repository())) {
+                Repository repository = handle.repository();
                 if (repository.getDirectory() != null) {
                     ObjectId head = resolveHead(repository, worktreeGitDir);
                     RevCommit lastCommit = getLastCommit(git, head);
+                    if (ci != null && !lastCommit.getName().equals(ci.getCommit())) {
+                        logger.debug("CI {} built commit is not HEAD; ignoring it", ci);
+                        ci = null;
+                    }
 
                     result.put(JGIT_COMMIT, lastCommit.getName());
                     String length = configuration
@@ -341,13 +534,27 @@ public class JGitPropertySource implements PropertySource {
                             JGIT_SHORT_COMMIT_ID,
                             lastCommit.abbreviate(Integer.parseInt(length)).name());
                     result.put(JGIT_DATE, formatCommitDate(configuration, lastCommit));
+                    if (configuration.isPropertyKeyReferenced(this, JGIT_OUTPUT_TIMESTAMP)
+                            || configuration.isPropertyKeyReferenced(this, JGIT_OUTPUT_TIMESTAMP_EPOCH)) {
+                        int commitTime = outputTimestamp(configuration, git, lastCommit);
+                        result.put(
+                                JGIT_OUTPUT_TIMESTAMP,
+                                DateTimeFormatter.ISO_INSTANT.format(Instant.ofEpochSecond(commitTime)));
+                        result.put(JGIT_OUTPUT_TIMESTAMP_EPOCH, Integer.toString(commitTime));
+                    }
                     result.put(
                             JGIT_COMMITTER,
                             lastCommit.getCommitterIdent().toExternalString().split(">")[0] + ">");
                     result.put(
                             JGIT_AUTHOR,
                             lastCommit.getAuthorIdent().toExternalString().split(">")[0] + ">");
-                    result.put(JGIT_CLEAN, Boolean.toString(isClean(git)));
+                    if (configuration.isPropertyKeyReferenced(this, JGIT_CLEAN)) {
+                        Boolean clean = journal != null ? journal.cachedClean(generations) : null;
+                        if (clean == null) {
+                            clean = isClean(configuration, git, journal, generations);
+                        }
+                        result.put(JGIT_CLEAN, clean.toString());
+                    }
 
                     Config config = repository.getConfig();
                     List<String> wantedRemotes = csv(configuration
@@ -365,24 +572,40 @@ public class JGitPropertySource implements PropertySource {
                             break;
                         }
                     }
+                    if (!result.containsKey(JGIT_REMOTE_URL) && ci != null && ci.getRemoteUrl() != null) {
+                        result.put(JGIT_REMOTE_URL, ci.getRemoteUrl());
+                    }
 
-                    Optional<Ref> localBranch = localBranch(git, head);
-                    localBranch
-                            .map(r -> Repository.shortenRefName(r.getName()))
-                            .ifPresent(branchName -> result.put(JGIT_BRANCH_NAME, branchName));
+                    if (configuration.isPropertyKeyReferenced(this, JGIT_BRANCH_NAME)) {
+                        if (ci != null && ci.getBranch() != null) {
+                            result.put(JGIT_BRANCH_NAME, ci.getBranch());
+                        } else {
+                            Optional<Ref> localBranch = localBranch(git, head);
+                            localBranch
+                                    .map(r -> Repository.shortenRefName(r.getName()))
+                                    .ifPresent(branchName -> result.put(JGIT_BRANCH_NAME, branchName));
+                        }
+                    }
 
                     if (Boolean.parseBoolean(configuration
-                            .getConfiguration()
-                            .getOrDefault(JGIT_CONF_SYSTEM_PROPERTY_DYNAMIC_VERSION, DEFAULT_DYNAMIC_VERSION))) {
+                                    .getConfiguration()
+                                    .getOrDefault(JGIT_CONF_SYSTEM_PROPERTY_DYNAMIC_VERSION, DEFAULT_DYNAMIC_VERSION))
+                            && configuration.isPropertyKeyReferenced(this, JGIT_DYNAMIC_VERSION)) {
                         result.put(JGIT_DYNAMIC_VERSION, resolveDynamicVersion(configuration, git, head));
                     }
                     if (Boolean.parseBoolean(configuration
-                            .getConfiguration()
-                            .getOrDefault(JGIT_CONF_SYSTEM_PROPERTY_COUNTING_VERSION, DEFAULT_COUNTING_VERSION))) {
+                                    .getConfiguration()
+                                    .getOrDefault(JGIT_CONF_SYSTEM_PROPERTY_COUNTING_VERSION, DEFAULT_COUNTING_VERSION))
+                            && configuration.isPropertyKeyReferenced(this, JGIT_COUNTING_VERSION)) {
                         result.put(JGIT_COUNTING_VERSION, resolveCountingVersion(configuration, git, head));
                     }
                 }
             }
+            if (state != null) {
+                HashMap<String, String> cached = new HashMap<>(result);
+                cached.remove(JGIT_CLEAN);
+                warmCache.put(cacheKey, state, cached);
+            }
         } catch (RepositoryNotFoundException | IllegalArgumentException e) {
             logger.debug("Seems this is not a git checkout; ignoring property source {}", NAME, e);
         } catch (Exception e) {
@@ -392,6 +615,107 @@ public class JGitPropertySource implements PropertySource {
         return Collections.unmodifiableMap(result);
     }
 
+    /**
+     * Sets up given builder for a git worktree, if the found git directory is one: the repository is opened from
+     * the common directory, with the worktree specific index and root of the worktree. Returns the worktree specific
+     * git directory, or {@code null} if found git directory is not a worktree.
+     */
+    static Path setupWorktree(FileRepositoryBuilder builder, File cwd) throws IOException {
+        File gitDir = builder.getGitDir();
+        if (gitDir != null) {
+            Path commonDirFile = gitDir.toPath().resolve("commondir");
+            if (Files.exists(commonDirFile)) {
+                Path worktreeGitDir = gitDir.toPath();
+                String commonDirRef = new String(Files.readAllBytes(commonDirFile), StandardCharsets.UTF_8).trim();
+                File commonDir = gitDir.toPath().resolve(commonDirRef).normalize().toFile();
+                // the gitdir file points at the .git file in the root of worktree; cwd may be a subdirectory
+                File workTree = cwd;
+                Path gitDirFile = worktreeGitDir.resolve("gitdir");
+                if (Files.isRegularFile(gitDirFile)) {
+                    Path dotGit = worktreeGitDir.resolve(
+                            new String(Files.readAllBytes(gitDirFile), StandardCharsets.UTF_8).trim());
+                    if (Files.isRegularFile(dotGit)) {
+                        workTree = dotGit.normalize().getParent().toFile();
+                    }
+                }
+                builder.setGitDir(commonDir);
+                builder.setWorkTree(workTree);
+                builder.setIndexFile(worktreeGitDir.resolve("index").toFile());
+                return worktreeGitDir;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Opens the repository described by given builder, shared across invocations unless disabled.
+     */
+    static SharedRepositories.Handle openRepository(NisseConfiguration configuration, FileRepositoryBuilder builder)
+            throws IOException {
+        if (builder.getGitDir() != null
+                && Boolean.parseBoolean(configuration
+                        .getConfiguration()
+                        .getOrDefault(JGIT_CONF_SYSTEM_PROPERTY_SHARED_REPOSITORY, DEFAULT_SHARED_REPOSITORY))) {
+            return SharedRepositories.acquire(builder);
+        }
+        return SharedRepositories.unshared(builder.setMustExist(true).build());
+    }
+
+    private static boolean isClassPresent(String className) {
+        try {
+            Class.forName(className, false, JGitPropertySource.class.getClassLoader());
+            return true;
+        } catch (ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+    }
+
+    /**
+     * Returns the warm cache key for given configuration, or {@code null} if warm cache cannot be used. The key
+     * consists of everything that result depends on, except for the repository state.
+     */
+    private List<Object> warmCacheKey(NisseConfiguration configuration, File cwd, CiEnvironment ci) {
+        if (getClass() != JGitPropertySource.class) {
+            // subclasses may use other inputs as well
+            return null;
+        }
+        Map<String, String> conf = configuration.getConfiguration();
+        if (!Boolean.parseBoolean(conf.getOrDefault(JGIT_CONF_SYSTEM_PROPERTY_WARM_CACHE, DEFAULT_WARM_CACHE))
+                || Boolean.parseBoolean(
+                        conf.getOrDefault(JGIT_CONF_SYSTEM_PROPERTY_APPEND_DIRTY, DEFAULT_APPEND_DIRTY))) {
+            return null;
+        }
+        ArrayList<Object> key = new ArrayList<>();
+        key.add(cwd.getAbsolutePath());
+        key.add(ci);
+        for (String confKey : JGIT_CONF_KEYS) {
+            key.add(conf.get(confKey));
+        }
+        for (String jgitKey : JGIT_KEYS) {
+            key.add(configuration.isPropertyKeyReferenced(this, jgitKey));
+        }
+        return key;
+    }
+
+    /**
+     * Captures the state of repository files that change whenever HEAD, refs, index or config changes. Git updates
+     * loose refs by renaming lock files, so it is enough to record the directories of refs, not each loose ref.
+     */
+    private static WarmCache.State captureState(Path gitDir, Path worktreeGitDir) throws IOException {
+        ArrayList<Path> files = new ArrayList<>();
+        files.add(gitDir.resolve(Constants.HEAD));
+        files.add(gitDir.resolve(Constants.PACKED_REFS));
+        files.add(gitDir.resolve(Constants.CONFIG));
+        files.add(gitDir.resolve(Constants.SHALLOW));
+        if (worktreeGitDir != null) {
+            files.add(worktreeGitDir.resolve(Constants.HEAD));
+            files.add(worktreeGitDir.resolve("index"));
+        } else {
+            files.add(gitDir.resolve("index"));
+        }
+        return WarmCache.State.capture(files, Collections.singletonList(gitDir.resolve(Constants.R_REFS)));
+    }
+
     /**
      * Resolves the HEAD commit id. In a worktree, HEAD is stored in the worktree-specific git
      * directory rather than the common directory, so this method reads it from the correct location.
@@ -427,8 +751,39 @@ public class JGitPropertySource implements PropertySource {
         return git.log().setMaxCount(1).call().iterator().next();
     }
 
-    private boolean isClean(Git git) throws GitAPIException {
-        return git.status().call().isClean();
+    /**
+     * Computes clean state out of working tree status, that is remembered for other sources evaluated with same
+     * configuration (see {@link StatusMemo}).
+     */
+    private boolean isClean(NisseConfiguration configuration, Git git) throws GitAPIException {
+        Status status = git.status().call();
+        StatusMemo.put(configuration, git.getRepository(), status);
+        return isClean(status);
+    }
+
+    /**
+     * Returns {@code true} if status has no changes, not counting untracked files written by Nisse inliner.
+     *
+     * @see NisseConfiguration#isInlinerFile(String)
+     */
+    static boolean isClean(Status status) {
+        if (!status.getUncommittedChanges().isEmpty()) {
+            return false;
+        }
+        return status.getUntracked().stream().allMatch(NisseConfiguration::isInlinerFile);
+    }
+
+    /**
+     * Computes clean state, and records it in journal, if present and generations are not racy.
+     */
+    private boolean isClean(
+            NisseConfiguration configuration, Git git, ChangeJournal journal, ChangeJournal.Generations generations)
+            throws GitAPIException {
+        boolean clean = isClean(configuration, git);
+        if (journal != null && !warmCache.isRacy(generations)) {
+            journal.cacheClean(generations, clean);
+        }
+        return clean;
     }
 
     private Optional<Ref> localBranch(Git git, ObjectId head) throws GitAPIException {
@@ -440,6 +795,32 @@ public class JGitPropertySource implements PropertySource {
                 .findFirst();
     }
 
+    /**
+     * Returns the commit time (in seconds since epoch) to be used as output timestamp of reproducible builds: the
+     * time of {@code HEAD} commit, or if configured so, of the latest commit touching the current working directory.
+     */
+    private int outputTimestamp(NisseConfiguration configuration, Git git, RevCommit lastCommit)
+            throws GitAPIException, IOException {
+        if (!Boolean.parseBoolean(configuration
+                .getConfiguration()
+                .getOrDefault(JGIT_CONF_SYSTEM_PROPERTY_MODULE_OUTPUT_TIMESTAMP, DEFAULT_MODULE_OUTPUT_TIMESTAMP))) {
+            return lastCommit.getCommitTime();
+        }
+        Repository repository = git.getRepository();
+        if (repository.isBare()) {
+            return lastCommit.getCommitTime();
+        }
+        Path workTree = repository.getWorkTree().toPath().toRealPath();
+        Path module = configuration.getCurrentWorkingDirectory().toRealPath();
+        if (!module.startsWith(workTree) || module.equals(workTree)) {
+            return lastCommit.getCommitTime();
+        }
+        String path = workTree.relativize(module).toString().replace(File.separatorChar, '/');
+        Iterator<RevCommit> commits =
+                git.log().add(lastCommit).addPath(path).setMaxCount(1).call().iterator();
+        return commits.hasNext() ? commits.next().getCommitTime() : lastCommit.getCommitTime();
+    }
+
     /**
      * Formats the commit date according to the configured format.
      *
@@ -670,11 +1051,15 @@ public class JGitPropertySource implements PropertySource {
             RevCommit lastCommit = getLastCommit(git, head);
             logger.debug("last commit: {}", lastCommit.toString());
 
+            // subclasses overriding the per commit hook keep their customization (at cost of listing tags per commit)
+            Map<ObjectId, List<String>> versionedTags =
+                    overridesVersionedTagsForCommit() ? null : getVersionedTagsByCommit(configuration, git);
             Iterable<RevCommit> commits =
                     head != null ? git.log().add(head).call() : git.log().call();
             int count = 0;
             for (RevCommit commit : commits) {
-                Optional<VersionInformation> ovi = getHighestVersionTagForCommit(configuration, git, commit);
+                Optional<VersionInformation> ovi =
+                        getHighestVersionTagForCommit(configuration, git, versionedTags, commit);
 
                 if (ovi.isPresent()) {
                     VersionInformation vi = ovi.get();
@@ -708,49 +1093,84 @@ public class JGitPropertySource implements PropertySource {
         }
     }
 
+    @SuppressWarnings("deprecation")
     private Optional<VersionInformation> getHighestVersionTagForCommit(
-            NisseConfiguration configuration, Git git, RevCommit commit) throws GitAPIException {
+            NisseConfiguration configuration, Git git, Map<ObjectId, List<String>> versionedTags, RevCommit commit)
+            throws GitAPIException {
         // get tags use semantic version (X.Y.Z or vX.Y.Z) for commit
-        List<String> versionTagsForCommit = getVersionedTagsForCommit(configuration, git, commit);
-        logger.debug("commit {} {}: {}", commit.getId(), commit.getShortMessage(), versionTagsForCommit.toString());
+        List<String> versionTagsForCommit = versionedTags != null
+                ? versionedTags.getOrDefault(commit, Collections.emptyList())
+                : getVersionedTagsForCommit(configuration, git, commit);
+        logger.debug("commit {} {}: {}", commit.getId(), commit.getShortMessage(), versionTagsForCommit);
         return findHighestVersion(versionTagsForCommit);
     }
 
+    /**
+     * Returns versions of tags using semantic version (X.Y.Z or vX.Y.Z) pointing at given commit.
+     *
+     * @deprecated Listing tags for each walked commit makes {@link #getVersionFromGit(NisseConfiguration, Git,
+     * ObjectId)} quadratic, hence it calls this method only if a subclass overrides it; override
+     * {@link #getVersionedTagsByCommit(NisseConfiguration, Git)} instead.
+     */
+    @Deprecated
     protected List<String> getVersionedTagsForCommit(NisseConfiguration configuration, Git git, RevCommit commit)
             throws GitAPIException {
+        return new ArrayList<>(
+                getVersionedTagsByCommit(configuration, git).getOrDefault(commit, Collections.emptyList()));
+    }
+
+    /**
+     * Returns {@code true} if a subclass overrides {@link #getVersionedTagsForCommit(NisseConfiguration, Git,
+     * RevCommit)}.
+     */
+    private boolean overridesVersionedTagsForCommit() {
+        for (Class<?> type = getClass(); type != JGitPropertySource.class; type = type.getSuperclass()) {
+            try {
+                type.getDeclaredMethod(
+                        "getVersionedTagsForCommit", NisseConfiguration.class, Git.class, RevCommit.class);
+                return true;
+            } catch (NoSuchMethodException e) {
+                // not declared here, check superclass
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns versions of tags using semantic version (X.Y.Z or vX.Y.Z), keyed by the (peeled) commit they point at.
+     * Tags are listed and peeled once, so looking up tags of each walked commit does not depend on count of tags.
+     * This is the extension point for version tag selection of {@link #getVersionFromGit(NisseConfiguration, Git,
+     * ObjectId)}.
+     */
+    protected Map<ObjectId, List<String>> getVersionedTagsByCommit(NisseConfiguration configuration, Git git)
+            throws GitAPIException {
         // Check if using custom version hint pattern
         String versionHintPattern = configuration
                 .getConfiguration()
                 .getOrDefault(JGIT_CONF_SYSTEM_PROPERTY_VERSION_HINT_PATTERN, DEFAULT_VERSION_HINT_PATTERN);
         boolean isCustomPattern = !DEFAULT_VERSION_HINT_PATTERN.equals(versionHintPattern);
 
-        return git.tagList().call().stream()
-                .filter(tag -> {
-                    try {
-                        Ref peeledRef = git.getRepository().getRefDatabase().peel(tag);
-                        ObjectId id = (peeledRef.getPeeledObjectId() != null
-                                ? peeledRef.getPeeledObjectId()
-                                : tag.getObjectId());
-
-                        return id.equals(commit.getId());
-                    } catch (Exception e) {
-                        return false;
-                    }
-                })
-                .map(Ref::getName)
-                .filter(tagName -> {
-                    if (isCustomPattern) {
-                        // With custom pattern, only consider tags that match the pattern
-                        return isVersionHintTag(configuration, tagName);
-                    } else {
-                        // With default pattern, exclude version hint tags to avoid double-counting
-                        return !isVersionHintTag(configuration, tagName);
-                    }
-                })
-                .map(TAG_VERSION_PATTERN::matcher)
-                .filter(m -> m.matches() && m.groupCount() > 0)
-                .map(m -> m.group(1))
-                .collect(Collectors.toList());
+        HashMap<ObjectId, List<String>> result = new HashMap<>();
+        for (Ref tag : git.tagList().call()) {
+            // With custom pattern, only consider tags that match the pattern
+            // With default pattern, exclude version hint tags to avoid double-counting
+            if (isCustomPattern != isVersionHintTag(configuration, tag.getName())) {
+                continue;
+            }
+            Matcher m = TAG_VERSION_PATTERN.matcher(tag.getName());
+            if (!m.matches() || m.groupCount() == 0) {
+                continue;
+            }
+            ObjectId id;
+            try {
+                Ref peeledRef = git.getRepository().getRefDatabase().peel(tag);
+                id = peeledRef.getPeeledObjectId() != null ? peeledRef.getPeeledObjectId() : tag.getObjectId();
+            } catch (Exception e) {
+                continue;
+            }
+            result.computeIfAbsent(id, k -> new ArrayList<>()).add(m.group(1));
+        }
+        return result;
     }
 
     protected Optional<VersionInformation> findHighestVersion(List<String> versionTags) {
@@ -776,7 +1196,7 @@ public class JGitPropertySource implements PropertySource {
                 .getConfiguration()
                 .getOrDefault(JGIT_CONF_SYSTEM_PROPERTY_APPEND_DIRTY, DEFAULT_APPEND_DIRTY));
         if (appendDirty) {
-            if (!isClean(git)) {
+            if (!isClean(configuration, git)) {
                 qualifier = appendQualifier(
                         qualifier,
                         configuration
@@ -858,10 +1278,10 @@ public class JGitPropertySource implements PropertySource {
         Pattern hintTagPattern = Pattern.compile("refs/tags/v?" + regexPattern);
         logger.debug("Using version hint regex pattern: {}", hintTagPattern.pattern());
 
-        Repository repository = git.getRepository();
-        return git.tagList().call().stream()
+        List<Ref> hintTags = git.tagList().call().stream()
                 .filter(tag -> hintTagPattern.matcher(tag.getName()).matches())
-                .filter(tag -> isReachableFrom(repository, tag, head))
+                .collect(Collectors.toList());
+        return reachableFrom(git.getRepository(), hintTags, head).stream()
                 .map(Ref::getName)
                 .map(hintTagPattern::matcher)
                 .filter(m -> m.matches() && m.groupCount() > 0)
@@ -869,21 +1289,59 @@ public class JGitPropertySource implements PropertySource {
                 .collect(Collectors.toList());
     }
 
-    private boolean isReachableFrom(Repository repository, Ref tag, ObjectId head) {
-        if (head == null) {
-            return true;
+    /**
+     * Returns the tags (in same order) that point at commits reachable from head, or all of them if head is
+     * {@code null}. History is walked only once (and only until all tagged commits are seen), instead of checking
+     * reachability of each tag separately. If the walk fails, reachability of tags not seen yet is checked one by one,
+     * so failure affects only the tags it is about.
+     */
+    private List<Ref> reachableFrom(Repository repository, List<Ref> tags, ObjectId head) {
+        if (head == null || tags.isEmpty()) {
+            return tags;
         }
-        try {
-            Ref peeledRef = repository.getRefDatabase().peel(tag);
-            ObjectId tagObjectId =
-                    (peeledRef.getPeeledObjectId() != null ? peeledRef.getPeeledObjectId() : tag.getObjectId());
-            try (RevWalk revWalk = new RevWalk(repository)) {
-                RevCommit tagCommit = revWalk.parseCommit(tagObjectId);
-                RevCommit headCommit = revWalk.parseCommit(head);
-                return revWalk.isMergedInto(tagCommit, headCommit);
+        HashMap<Ref, ObjectId> tagged = new HashMap<>();
+        for (Ref tag : tags) {
+            try {
+                Ref peeledRef = repository.getRefDatabase().peel(tag);
+                tagged.put(
+                        tag, peeledRef.getPeeledObjectId() != null ? peeledRef.getPeeledObjectId() : tag.getObjectId());
+            } catch (IOException e) {
+                logger.debug("Could not check reachability for tag {}: {}", tag.getName(), e.getMessage());
             }
+        }
+        HashSet<ObjectId> unseen = new HashSet<>(tagged.values());
+        HashSet<ObjectId> reachable = new HashSet<>();
+        try (RevWalk revWalk = new RevWalk(repository)) {
+            revWalk.setRetainBody(false);
+            revWalk.markStart(revWalk.parseCommit(head));
+            for (RevCommit commit : revWalk) {
+                if (unseen.remove(commit)) {
+                    reachable.add(commit.copy());
+                    if (unseen.isEmpty()) {
+                        break;
+                    }
+                }
+            }
+        } catch (IOException | RevWalkException e) {
+            logger.debug("Could not walk history for reachability of tags: {}", e.getMessage());
+            for (ObjectId id : unseen) {
+                if (isReachableFrom(repository, id, head)) {
+                    reachable.add(id);
+                }
+            }
+        }
+        return tags.stream()
+                .filter(tag -> tagged.containsKey(tag) && reachable.contains(tagged.get(tag)))
+                .collect(Collectors.toList());
+    }
+
+    private boolean isReachableFrom(Repository repository, ObjectId id, ObjectId head) {
+        try (RevWalk revWalk = new RevWalk(repository)) {
+            RevCommit tagCommit = revWalk.parseCommit(id);
+            RevCommit headCommit = revWalk.parseCommit(head);
+            return revWalk.isMergedInto(tagCommit, headCommit);
         } catch (IOException e) {
-            logger.debug("Could not check reachability for tag {}: {}", tag.getName(), e.getMessage());
+            logger.debug("Could not check reachability of commit {}: {}", id.name(), e.getMessage());
             return false;
         }
     }
@@ -0,0 +1,183 @@
+/*
+ * Copyright (c) 2023-2024 Maveniverse Org.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-v20.html
+ */
+package eu.maveniverse.maven.nisse.source.jgit;
+
+import static java.util.Objects.requireNonNull;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.storage.file.FileRepositoryBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Process wide cache of opened JGit repositories, so repeated invocations (ie. plugin used in several modules, or
+ * several builds in Gradle daemon) reuse same {@link Repository} along with its already loaded pack indexes, refs and
+ * config (and cached pack windows), instead to open and close it on every invocation. The repository itself picks up
+ * changes of refs, packs and config, as JGit checks file snapshots of these on access.
+ * <p>
+ * Repositories are reference counted: every acquired {@link Handle} must be closed, and repository is closed only
+ * once it is not used anymore, and was invalidated or evicted. A repository is invalidated when the {@code config}
+ * file of its git directory changes (according to its modification time, size and file key, see
+ * {@link WarmCache.State}), as that happens when repository is recreated or reconfigured. If the {@code config} was
+ * racily clean when repository was opened, the repository is reopened on next use.
+ */
+final class SharedRepositories {
+    private static final Logger LOGGER = LoggerFactory.getLogger(SharedRepositories.class);
+
+    private static final int MAX_ENTRIES = 8;
+
+    private static final LinkedHashMap<List<File>, Entry> ENTRIES = new LinkedHashMap<>(MAX_ENTRIES, 0.75f, true);
+
+    private SharedRepositories() {}
+
+    /**
+     * Acquires the repository described by given builder, opening it if needed. The builder must have git directory
+     * set. The returned handle must be closed.
+     */
+    static Handle acquire(FileRepositoryBuilder builder) throws IOException {
+        requireNonNull(builder, "builder");
+        File gitDir = requireNonNull(builder.getGitDir(), "builder.gitDir").getAbsoluteFile();
+        List<File> key = Arrays.asList(
+                gitDir,
+                absolute(builder.getWorkTree()),
+                absolute(builder.getIndexFile()),
+                absolute(builder.getObjectDirectory()));
+        synchronized (ENTRIES) {
+            Entry entry = ENTRIES.get(key);
+            if (entry != null && entry.isModified()) {
+                LOGGER.debug("Repository {} configuration changed; reopening it", gitDir);
+                ENTRIES.remove(key);
+                retire(entry);
+                entry = null;
+            }
+            if (entry == null) {
+                File configFile = new File(gitDir, Constants.CONFIG);
+                WarmCache.State state = configState(configFile);
+                entry = new Entry(builder.setMustExist(true).build(), configFile, state);
+                ENTRIES.put(key, entry);
+                evict();
+            }
+            entry.references++;
+            return new Handle(entry);
+        }
+    }
+
+    /**
+     * Returns a handle for a repository that is not shared: closing it closes the repository.
+     */
+    static Handle unshared(Repository repository) {
+        Entry entry = new Entry(requireNonNull(repository, "repository"), null, null);
+        entry.references++;
+        entry.retired = true;
+        return new Handle(entry);
+    }
+
+    /**
+     * Closes all cached repositories once they are not in use anymore.
+     */
+    static void closeAll() {
+        synchronized (ENTRIES) {
+            List<Entry> entries = new ArrayList<>(ENTRIES.values());
+            ENTRIES.clear();
+            entries.forEach(SharedRepositories::retire);
+        }
+    }
+
+    private static WarmCache.State configState(File configFile) throws IOException {
+        return WarmCache.State.capture(Collections.singletonList(configFile.toPath()), Collections.emptyList());
+    }
+
+    private static File absolute(File file) {
+        return file != null ? file.getAbsoluteFile() : null;
+    }
+
+    /**
+     * Evicts least recently used entries above limit, that are not in use.
+     */
+    private static void evict() {
+        Iterator<Entry> entries = ENTRIES.values().iterator();
+        while (ENTRIES.size() > MAX_ENTRIES && entries.hasNext()) {
+            Entry entry = entries.next();
+            if (entry.references == 0) {
+                entries.remove();
+                retire(entry);
+            }
+        }
+    }
+
+    private static void retire(Entry entry) {
+        entry.retired = true;
+        if (entry.references == 0) {
+            entry.repository.close();
+        }
+    }
+
+    private static void release(Entry entry) {
+        synchronized (ENTRIES) {
+            if (--entry.references == 0 && entry.retired) {
+                entry.repository.close();
+            }
+        }
+    }
+
+    private static final class Entry {
+        private final Repository repository;
+        private final File configFile;
+        private final WarmCache.State configState;
+        private int references;
+        private boolean retired;
+
+        private Entry(Repository repository, File configFile, WarmCache.State configState) {
+            this.repository = repository;
+            this.configFile = configFile;
+            this.configState = configState;
+        }
+
+        private boolean isModified() throws IOException {
+            return configState.isRacy(WarmCache.DEFAULT_RACY_MILLIS) || !configState.equals(configState(configFile));
+        }
+    }
+
+    /**
+     * A reference to a repository, that must be closed once repository is not used anymore. Repository obtained
+     * from handle must not be closed directly.
+     */
+    static final class Handle implements Closeable {
+        private final Entry entry;
+        private boolean closed;
+
+        private Handle(Entry entry) {
+            this.entry = entry;
+        }
+
+        Repository repository() {
+            if (closed) {
+                throw new IllegalStateException("handle closed");
+            }
+            return entry.repository;
+        }
+
+        @Override
+        public void close() {
+            if (!closed) {
+                closed = true;
+                release(entry);
+            }
+        }
+    }
+}
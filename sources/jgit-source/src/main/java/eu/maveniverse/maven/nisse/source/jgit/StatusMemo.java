@@ -0,0 +1,66 @@
+/*
+ * Copyright (c) 2023-2024 Maveniverse Org.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-v20.html
+ */
+package eu.maveniverse.maven.nisse.source.jgit;
+
+import static java.util.Objects.requireNonNull;
+
+import eu.maveniverse.maven.nisse.core.NisseConfiguration;
+import java.io.File;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Objects;
+import java.util.WeakHashMap;
+import org.eclipse.jgit.api.Status;
+import org.eclipse.jgit.lib.Repository;
+
+/**
+ * Remembers the working tree status computed by {@link JGitPropertySource}, so {@link FingerprintPropertySource}
+ * evaluated with same configuration reuses it, instead to scan working tree again. Sources of one evaluation are
+ * evaluated one after another with same configuration instance, hence status is remembered per configuration
+ * instance (and is forgotten once configuration is garbage collected).
+ */
+final class StatusMemo {
+    private static final Map<NisseConfiguration, Entry> ENTRIES = Collections.synchronizedMap(new WeakHashMap<>());
+
+    private StatusMemo() {}
+
+    /**
+     * Remembers the status of whole working tree of given repository, computed with given configuration.
+     */
+    static void put(NisseConfiguration configuration, Repository repository, Status status) {
+        requireNonNull(configuration, "configuration");
+        ENTRIES.put(configuration, new Entry(repository.getDirectory(), repository.getWorkTree(), status));
+    }
+
+    /**
+     * Returns the status of whole working tree of given repository computed with given configuration, or
+     * {@code null} if there is none.
+     */
+    static Status get(NisseConfiguration configuration, Repository repository) {
+        requireNonNull(configuration, "configuration");
+        Entry entry = ENTRIES.get(configuration);
+        if (entry != null
+                && Objects.equals(entry.gitDir, repository.getDirectory())
+                && Objects.equals(entry.workTree, repository.getWorkTree())) {
+            return entry.status;
+        }
+        return null;
+    }
+
+    private static final class Entry {
+        private final File gitDir;
+        private final File workTree;
+        private final Status status;
+
+        private Entry(File gitDir, File workTree, Status status) {
+            this.gitDir = gitDir;
+            this.workTree = workTree;
+            this.status = requireNonNull(status, "status");
+        }
+    }
+}
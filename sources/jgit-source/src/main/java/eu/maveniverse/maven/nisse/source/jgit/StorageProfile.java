@@ -0,0 +1,254 @@
+/*
+ * Copyright (c) 2023-2024 Maveniverse Org.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-v20.html
+ */
+package eu.maveniverse.maven.nisse.source.jgit;
+
+import static java.util.Objects.requireNonNull;
+
+import java.io.File;
+import java.util.Locale;
+import java.util.Map;
+import org.eclipse.jgit.storage.file.WindowCacheConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * JGit storage tuning: sizes the (process wide) JGit window cache and delta base cache, and decides whether pack
+ * files should be memory mapped. JGit defaults (10 MiB of 8 KiB windows, 10 MiB delta base cache, no mmap) suit
+ * small repositories, but make history walks over large packs re-read and re-inflate same data over and over.
+ * <p>
+ * As JGit storage configuration is global to JVM, installed configuration is never shrunk: a profile is installed
+ * only if it asks for more than the currently installed one, and then it is merged with it.
+ */
+final class StorageProfile {
+    private static final Logger LOGGER = LoggerFactory.getLogger(StorageProfile.class);
+
+    /**
+     * Profile that leaves JGit storage configuration as is (unless some explicit value is configured).
+     */
+    static final String DEFAULT = "default";
+
+    /**
+     * Profile that sizes JGit storage from pack sizes and available heap.
+     */
+    static final String AUTO = "auto";
+
+    private static final long MB = 1024L * 1024L;
+
+    private static final long LARGE_PACKS = 256 * MB;
+
+    private static final int LARGE_WINDOW_SIZE = 64 * 1024;
+
+    private static final int MMAP_WINDOW_SIZE = 1024 * 1024;
+
+    private static final long MAX_DELTA_BASE_CACHE = 256 * MB;
+
+    private static Settings installed;
+
+    private StorageProfile() {}
+
+    /**
+     * Settings of JGit storage.
+     */
+    static final class Settings {
+        final long packedGitLimit;
+        final int packedGitWindowSize;
+        final boolean packedGitMMAP;
+        final int packedGitOpenFiles;
+        final int deltaBaseCacheLimit;
+
+        Settings(
+                long packedGitLimit,
+                int packedGitWindowSize,
+                boolean packedGitMMAP,
+                int packedGitOpenFiles,
+                int deltaBaseCacheLimit) {
+            this.packedGitLimit = packedGitLimit;
+            this.packedGitWindowSize = packedGitWindowSize;
+            this.packedGitMMAP = packedGitMMAP;
+            this.packedGitOpenFiles = packedGitOpenFiles;
+            this.deltaBaseCacheLimit = deltaBaseCacheLimit;
+        }
+
+        static Settings jgitDefaults() {
+            WindowCacheConfig config = new WindowCacheConfig();
+            return new Settings(
+                    config.getPackedGitLimit(),
+                    config.getPackedGitWindowSize(),
+                    config.isPackedGitMMAP(),
+                    config.getPackedGitOpenFiles(),
+                    config.getDeltaBaseCacheLimit());
+        }
+
+        /**
+         * Returns {@code true} if these settings ask for nothing more than given settings.
+         */
+        boolean isCoveredBy(Settings other) {
+            return packedGitLimit <= other.packedGitLimit
+                    && packedGitWindowSize <= other.packedGitWindowSize
+                    && (!packedGitMMAP || other.packedGitMMAP)
+                    && packedGitOpenFiles <= other.packedGitOpenFiles
+                    && deltaBaseCacheLimit <= other.deltaBaseCacheLimit;
+        }
+
+        Settings merge(Settings other) {
+            return new Settings(
+                    Math.max(packedGitLimit, other.packedGitLimit),
+                    Math.max(packedGitWindowSize, other.packedGitWindowSize),
+                    packedGitMMAP || other.packedGitMMAP,
+                    Math.max(packedGitOpenFiles, other.packedGitOpenFiles),
+                    Math.max(deltaBaseCacheLimit, other.deltaBaseCacheLimit));
+        }
+
+        WindowCacheConfig toWindowCacheConfig() {
+            WindowCacheConfig config = new WindowCacheConfig();
+            config.setPackedGitLimit(packedGitLimit);
+            config.setPackedGitWindowSize(packedGitWindowSize);
+            config.setPackedGitMMAP(packedGitMMAP);
+            config.setPackedGitOpenFiles(packedGitOpenFiles);
+            config.setDeltaBaseCacheLimit(deltaBaseCacheLimit);
+            return config;
+        }
+
+        @Override
+        public String toString() {
+            return "packedGitLimit=" + packedGitLimit + ", packedGitWindowSize=" + packedGitWindowSize
+                    + ", packedGitMMAP=" + packedGitMMAP + ", packedGitOpenFiles=" + packedGitOpenFiles
+                    + ", deltaBaseCacheLimit=" + deltaBaseCacheLimit;
+        }
+    }
+
+    /**
+     * Computes settings for packs of given total size and count, with given maximum heap. Packs that would not fit
+     * into quarter of the heap are memory mapped, if {@code mmapSupported}.
+     */
+    static Settings auto(long packBytes, int packCount, long maxHeap, boolean mmapSupported) {
+        Settings defaults = Settings.jgitDefaults();
+        long heapLimit = Math.max(defaults.packedGitLimit, maxHeap / 4);
+        boolean mmap = mmapSupported && packBytes > heapLimit;
+        long packedGitLimit;
+        int windowSize;
+        if (mmap) {
+            // mapped windows live outside of heap
+            packedGitLimit = roundUp(packBytes, MMAP_WINDOW_SIZE);
+            windowSize = MMAP_WINDOW_SIZE;
+        } else {
+            packedGitLimit = Math.max(defaults.packedGitLimit, Math.min(packBytes + packBytes / 4, heapLimit));
+            windowSize = packBytes > LARGE_PACKS ? LARGE_WINDOW_SIZE : defaults.packedGitWindowSize;
+        }
+        long deltaBaseCacheLimit = Math.max(
+                defaults.deltaBaseCacheLimit, Math.min(packBytes / 16, Math.min(maxHeap / 16, MAX_DELTA_BASE_CACHE)));
+        return new Settings(
+                packedGitLimit,
+                windowSize,
+                mmap,
+                Math.max(defaults.packedGitOpenFiles, packCount + 32),
+                (int) deltaBaseCacheLimit);
+    }
+
+    /**
+     * Installs the profile configured in given configuration for repository with given object directory, if needed.
+     */
+    static void apply(Map<String, String> configuration, String prefix, File objectDirectory) {
+        requireNonNull(configuration, "configuration");
+        requireNonNull(prefix, "prefix");
+        String profile = configuration.getOrDefault(prefix, DEFAULT);
+        String packedGitLimit = configuration.get(prefix + ".packedGitLimit");
+        String packedGitWindowSize = configuration.get(prefix + ".packedGitWindowSize");
+        String packedGitMMAP = configuration.get(prefix + ".packedGitMMAP");
+        String deltaBaseCacheLimit = configuration.get(prefix + ".deltaBaseCacheLimit");
+        if (DEFAULT.equals(profile)
+                && packedGitLimit == null
+                && packedGitWindowSize == null
+                && packedGitMMAP == null
+                && deltaBaseCacheLimit == null) {
+            return;
+        }
+        try {
+            Settings settings;
+            if (AUTO.equals(profile)) {
+                long packBytes = 0;
+                int packCount = 0;
+                File[] packs = objectDirectory != null ? new File(objectDirectory, "pack").listFiles() : null;
+                if (packs != null) {
+                    for (File pack : packs) {
+                        if (pack.getName().endsWith(".pack")) {
+                            packBytes += pack.length();
+                            packCount++;
+                        }
+                    }
+                }
+                settings = auto(packBytes, packCount, Runtime.getRuntime().maxMemory(), isMmapSupported());
+            } else if (DEFAULT.equals(profile)) {
+                settings = Settings.jgitDefaults();
+            } else {
+                throw new IllegalArgumentException("Unknown profile '" + profile + "'; supported are "
+                        + DEFAULT + " and " + AUTO);
+            }
+            settings = new Settings(
+                    packedGitLimit != null ? parseSize(packedGitLimit) : settings.packedGitLimit,
+                    packedGitWindowSize != null
+                            ? Math.toIntExact(parseSize(packedGitWindowSize))
+                            : settings.packedGitWindowSize,
+                    packedGitMMAP != null ? Boolean.parseBoolean(packedGitMMAP) : settings.packedGitMMAP,
+                    settings.packedGitOpenFiles,
+                    deltaBaseCacheLimit != null
+                            ? Math.toIntExact(parseSize(deltaBaseCacheLimit))
+                            : settings.deltaBaseCacheLimit);
+            install(settings);
+        } catch (IllegalArgumentException | ArithmeticException e) {
+            LOGGER.warn("Invalid JGit storage configuration; JGit storage not tuned: {}", e.getMessage());
+        }
+    }
+
+    private static synchronized void install(Settings settings) {
+        if (installed != null) {
+            if (settings.isCoveredBy(installed)) {
+                return;
+            }
+            settings = settings.merge(installed);
+        } else if (settings.isCoveredBy(Settings.jgitDefaults())) {
+            return;
+        }
+        settings.toWindowCacheConfig().install();
+        installed = settings;
+        LOGGER.debug("Installed JGit storage configuration: {}", settings);
+    }
+
+    /**
+     * Memory mapping is used on 64-bit JVMs only, and not on Windows, where mapped files cannot be deleted (ie. by
+     * a {@code git gc} running in parallel).
+     */
+    private static boolean isMmapSupported() {
+        String os = System.getProperty("os.name", "").toLowerCase(Locale.ENGLISH);
+        String dataModel = System.getProperty("sun.arch.data.model", "64");
+        return !os.startsWith("windows") && !"32".equals(dataModel);
+    }
+
+    /**
+     * Parses size with optional {@code k}, {@code m} or {@code g} suffix, as Git does.
+     */
+    static long parseSize(String value) {
+        String size = value.trim().toLowerCase(Locale.ENGLISH);
+        long multiplier = 1;
+        if (size.endsWith("k")) {
+            multiplier = 1024L;
+        } else if (size.endsWith("m")) {
+            multiplier = MB;
+        } else if (size.endsWith("g")) {
+            multiplier = 1024L * MB;
+        }
+        if (multiplier > 1) {
+            size = size.substring(0, size.length() - 1).trim();
+        }
+        return Math.multiplyExact(Long.parseLong(size), multiplier);
+    }
+
+    private static long roundUp(long value, int unit) {
+        return Math.max(unit, (value + unit - 1) / unit * unit);
+    }
+}
@@ -0,0 +1,224 @@
+/*
+ * Copyright (c) 2023-2024 Maveniverse Org.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-v20.html
+ */
+package eu.maveniverse.maven.nisse.source.jgit;
+
+import static java.util.Objects.requireNonNull;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+/**
+ * In-memory cache of computed properties, meant to be kept for the lifetime of the JVM, so long-lived processes
+ * (ie. mvnd or Gradle daemon) running several builds on same checkout do not recompute everything. Entries are
+ * validated against a {@link State}: a cheap snapshot of file attributes of repository files (like {@code HEAD},
+ * refs, {@code packed-refs} and the index) that change when the repository state changes.
+ * <p>
+ * Similar to JGit {@code FileSnapshot}, states captured while some file is "racily clean" (modified too recently,
+ * so a later modification may not change its timestamp) are not cached.
+ */
+final class WarmCache {
+    /**
+     * Files modified within this interval before capture make the state racy.
+     */
+    static final long DEFAULT_RACY_MILLIS = 2500L;
+
+    private static final int MAX_ENTRIES = 16;
+
+    private final long racyMillis;
+
+    private final LinkedHashMap<Object, CachedValue> entries =
+            new LinkedHashMap<Object, CachedValue>(MAX_ENTRIES, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Object, CachedValue> eldest) {
+                    return size() > MAX_ENTRIES;
+                }
+            };
+
+    WarmCache(long racyMillis) {
+        this.racyMillis = racyMillis;
+    }
+
+    /**
+     * A state that may be captured while some change is "racy", and then must not be cached.
+     */
+    interface RacyState {
+        boolean isRacy(long racyMillis);
+    }
+
+    /**
+     * Returns {@code true} if given state (captured before computation) is racy, and values computed in it must not
+     * be cached.
+     */
+    boolean isRacy(Object state) {
+        return state instanceof RacyState && ((RacyState) state).isRacy(racyMillis);
+    }
+
+    /**
+     * Returns the cached value for given key, if present and was computed in same state. Otherwise, {@code null}.
+     */
+    synchronized Map<String, String> get(Object key, Object state) {
+        CachedValue entry = entries.get(requireNonNull(key, "key"));
+        if (entry != null && entry.state.equals(requireNonNull(state, "state"))) {
+            return entry.value;
+        }
+        return null;
+    }
+
+    /**
+     * Caches the value computed in given state (captured before computation), unless state is racy. The state is
+     * usually a {@link State}, but may be any object implementing equality (and {@link RacyState}, if applicable).
+     */
+    synchronized void put(Object key, Object state, Map<String, String> value) {
+        requireNonNull(key, "key");
+        requireNonNull(state, "state");
+        requireNonNull(value, "value");
+        if (isRacy(state)) {
+            entries.remove(key);
+        } else {
+            entries.put(key, new CachedValue(state, Collections.unmodifiableMap(value)));
+        }
+    }
+
+    private static final class CachedValue {
+        private final Object state;
+        private final Map<String, String> value;
+
+        private CachedValue(Object state, Map<String, String> value) {
+            this.state = state;
+            this.value = value;
+        }
+    }
+
+    /**
+     * A snapshot of file attributes (modification time, size and file key, if available) of some files and of all
+     * the directories (recursively) of some directory trees. Missing files are recorded as missing.
+     */
+    static final class State implements RacyState {
+        private final long captured;
+        private final List<Attributes> attributes;
+
+        private State(long captured, List<Attributes> attributes) {
+            this.captured = captured;
+            this.attributes = attributes;
+        }
+
+        static State capture(List<Path> files, List<Path> directoryTrees) throws IOException {
+            long captured = System.currentTimeMillis();
+            ArrayList<Attributes> attributes = new ArrayList<>();
+            for (Path file : files) {
+                attributes.add(attributes(file));
+            }
+            for (Path root : directoryTrees) {
+                Deque<Path> directories = new ArrayDeque<>();
+                directories.add(root);
+                while (!directories.isEmpty()) {
+                    Path directory = directories.remove();
+                    Attributes directoryAttributes = attributes(directory);
+                    attributes.add(directoryAttributes);
+                    if (directoryAttributes.exists) {
+                        try (Stream<Path> children = Files.list(directory)) {
+                            children.filter(p -> Files.isDirectory(p, LinkOption.NOFOLLOW_LINKS))
+                                    .sorted()
+                                    .forEach(directories::add);
+                        }
+                    }
+                }
+            }
+            return new State(captured, Collections.unmodifiableList(attributes));
+        }
+
+        private static Attributes attributes(Path path) throws IOException {
+            if (!Files.exists(path, LinkOption.NOFOLLOW_LINKS)) {
+                return new Attributes(path, false, 0, 0, null);
+            }
+            BasicFileAttributes attributes =
+                    Files.readAttributes(path, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+            return new Attributes(
+                    path,
+                    true,
+                    attributes.lastModifiedTime().toMillis(),
+                    attributes.size(),
+                    attributes.fileKey());
+        }
+
+        @Override
+        public boolean isRacy(long racyMillis) {
+            for (Attributes attribute : attributes) {
+                if (attribute.lastModified > captured - racyMillis) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            return attributes.equals(((State) o).attributes);
+        }
+
+        @Override
+        public int hashCode() {
+            return attributes.hashCode();
+        }
+    }
+
+    private static final class Attributes {
+        private final Path path;
+        private final boolean exists;
+        private final long lastModified;
+        private final long size;
+        private final Object fileKey;
+
+        private Attributes(Path path, boolean exists, long lastModified, long size, Object fileKey) {
+            this.path = path;
+            this.exists = exists;
+            this.lastModified = lastModified;
+            this.size = size;
+            this.fileKey = fileKey;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            Attributes that = (Attributes) o;
+            return exists == that.exists
+                    && lastModified == that.lastModified
+                    && size == that.size
+                    && path.equals(that.path)
+                    && Objects.equals(fileKey, that.fileKey);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(path, exists, lastModified, size, fileKey);
+        }
+    }
+}
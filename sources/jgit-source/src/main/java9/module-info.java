@@ -8,6 +8,7 @@
 module eu.maveniverse.maven.nisse.source.jgit {
     requires java.base;
     requires transitive eu.maveniverse.maven.nisse.core;
+    requires static eu.maveniverse.maven.nisse.source.ci;
 
     requires org.slf4j;
     requires org.apache.maven.resolver;
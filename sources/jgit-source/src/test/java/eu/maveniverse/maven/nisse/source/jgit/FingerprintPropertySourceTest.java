@@ -0,0 +1,193 @@
+package eu.maveniverse.maven.nisse.source.jgit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import eu.maveniverse.maven.nisse.core.NisseConfiguration;
+import eu.maveniverse.maven.nisse.core.simple.SimpleNisseConfiguration;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class FingerprintPropertySourceTest {
+    @Test
+    void notGit(@TempDir Path tempDir) {
+        assertTrue(fingerprint(tempDir, Collections.emptyMap()).isEmpty());
+    }
+
+    @Test
+    void notActiveByDefault(@TempDir Path tempDir) throws Exception {
+        Path repo = repository(tempDir);
+        assertTrue(new FingerprintPropertySource()
+                .getProperties(
+                        SimpleNisseConfiguration.builder().withCurrentWorkingDirectory(repo).build())
+                .isEmpty());
+    }
+
+    @Test
+    void clean(@TempDir Path tempDir) throws Exception {
+        Path repo = repository(tempDir);
+
+        Map<String, String> properties = fingerprint(repo.resolve("a"), Collections.emptyMap());
+        assertEquals(git(repo, "rev-parse", "HEAD:a"), properties.get("id"));
+        assertEquals("true", properties.get("clean"));
+
+        properties = fingerprint(repo, Collections.emptyMap());
+        assertEquals(git(repo, "rev-parse", "HEAD^{tree}"), properties.get("id"));
+
+        // index without cached tree
+        Files.delete(repo.resolve(".git/index"));
+        git(repo, "read-tree", "HEAD");
+        assertEquals(
+                git(repo, "rev-parse", "HEAD:a"),
+                fingerprint(repo.resolve("a"), Collections.emptyMap()).get("id"));
+    }
+
+    @Test
+    void dirty(@TempDir Path tempDir) throws Exception {
+        Path repo = repository(tempDir);
+        String cleanA = fingerprint(repo.resolve("a"), Collections.emptyMap()).get("id");
+        String cleanB = fingerprint(repo.resolve("b"), Collections.emptyMap()).get("id");
+
+        write(repo.resolve("a/one.txt"), "changed");
+        write(repo.resolve("a/new.txt"), "new");
+        Files.delete(repo.resolve("a/sub/two.txt"));
+        byte[] large = new byte[300 * 1024];
+        new Random(1).nextBytes(large);
+        Files.write(repo.resolve("a/large.bin"), large);
+
+        Map<String, String> properties = fingerprint(repo.resolve("a"), Collections.emptyMap());
+        assertEquals("false", properties.get("clean"));
+        String dirtyA = properties.get("id");
+        assertNotEquals(cleanA, dirtyA);
+        assertEquals(
+                dirtyA,
+                fingerprint(repo.resolve("a"), Collections.singletonMap("nisse.source.fingerprint.threads", "1"))
+                        .get("id"));
+        // invalid thread count falls back to default
+        assertEquals(
+                dirtyA,
+                fingerprint(repo.resolve("a"), Collections.singletonMap("nisse.source.fingerprint.threads", "many"))
+                        .get("id"));
+
+        // other module is not affected
+        properties = fingerprint(repo.resolve("b"), Collections.emptyMap());
+        assertEquals(cleanB, properties.get("id"));
+        assertEquals("true", properties.get("clean"));
+
+        // same as the tree git writes, once changes are staged
+        git(repo, "add", "-A", "a");
+        assertEquals(git(repo, "write-tree", "--prefix=a/"), dirtyA);
+        assertEquals(dirtyA, fingerprint(repo.resolve("a"), Collections.emptyMap()).get("id"));
+
+        // and reverting changes gives back the clean fingerprint
+        git(repo, "reset", "-q", "--hard");
+        assertEquals(cleanA, fingerprint(repo.resolve("a"), Collections.emptyMap()).get("id"));
+    }
+
+    @Test
+    void inlinerFilesIgnored(@TempDir Path tempDir) throws Exception {
+        Path repo = repository(tempDir);
+        String cleanA = fingerprint(repo.resolve("a"), Collections.emptyMap()).get("id");
+
+        write(repo.resolve("a/.inlined-pom.xml"), "<project/>");
+        write(repo.resolve(".nisse-inlined-poms"), "a/.inlined-pom.xml");
+
+        Map<String, String> properties = fingerprint(repo.resolve("a"), Collections.emptyMap());
+        assertEquals(cleanA, properties.get("id"));
+        assertEquals("true", properties.get("clean"));
+        assertEquals("true", fingerprint(repo, Collections.emptyMap()).get("clean"));
+    }
+
+    @Test
+    void reusesJGitStatus(@TempDir Path tempDir) throws Exception {
+        Path repo = repository(tempDir);
+        write(repo.resolve("b/three.txt"), "changed");
+        NisseConfiguration configuration = configuration(repo.resolve("a"), Collections.emptyMap());
+        assertEquals("false", new JGitPropertySource().getProperties(configuration).get("clean"));
+
+        // status of whole working tree is narrowed to module
+        Map<String, String> properties = new FingerprintPropertySource().getProperties(configuration);
+        assertEquals(git(repo, "rev-parse", "HEAD:a"), properties.get("id"));
+        assertEquals("true", properties.get("clean"));
+
+        // status computed by jgit source is reused, working tree is not scanned again
+        write(repo.resolve("a/one.txt"), "changed");
+        assertEquals("true", new FingerprintPropertySource().getProperties(configuration).get("clean"));
+        assertEquals("false", fingerprint(repo.resolve("a"), Collections.emptyMap()).get("clean"));
+    }
+
+    @Test
+    void blobId(@TempDir Path tempDir) throws Exception {
+        Path small = tempDir.resolve("small.txt");
+        write(small, "hello");
+        assertEquals(git(tempDir, "hash-object", "small.txt"), FingerprintPropertySource.blobId(small).getName());
+
+        Path large = tempDir.resolve("large.bin");
+        byte[] content = new byte[1024 * 1024 + 17];
+        new Random(2).nextBytes(content);
+        Files.write(large, content);
+        assertEquals(git(tempDir, "hash-object", "large.bin"), FingerprintPropertySource.blobId(large).getName());
+    }
+
+    private static Map<String, String> fingerprint(Path cwd, Map<String, String> systemProperties) {
+        return new FingerprintPropertySource().getProperties(configuration(cwd, systemProperties));
+    }
+
+    private static NisseConfiguration configuration(Path cwd, Map<String, String> systemProperties) {
+        Map<String, String> properties = new HashMap<>(systemProperties);
+        properties.put("nisse.source.fingerprint.active", "true");
+        return SimpleNisseConfiguration.builder()
+                .withSystemProperties(properties)
+                .withCurrentWorkingDirectory(cwd)
+                .build();
+    }
+
+    private static Path repository(Path tempDir) throws Exception {
+        Path repo = tempDir.resolve("repo");
+        Files.createDirectories(repo);
+        git(repo, "init", "-q", "-b", "master");
+        git(repo, "config", "user.email", "test@test.com");
+        git(repo, "config", "user.name", "Test");
+        write(repo.resolve("a/one.txt"), "one");
+        write(repo.resolve("a/sub/two.txt"), "two");
+        write(repo.resolve("b/three.txt"), "three");
+        write(repo.resolve("README.txt"), "readme");
+        git(repo, "add", ".");
+        git(repo, "commit", "-q", "-m", "initial");
+        return repo;
+    }
+
+    private static void write(Path file, String content) throws Exception {
+        Files.createDirectories(file.getParent());
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String git(Path workDir, String... args) throws Exception {
+        String[] command = new String[args.length + 1];
+        command[0] = "git";
+        System.arraycopy(args, 0, command, 1, args.length);
+        Process process = new ProcessBuilder(command)
+                .directory(workDir.toFile())
+                .redirectErrorStream(true)
+                .start();
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        byte[] buf = new byte[4096];
+        int n;
+        while ((n = process.getInputStream().read(buf)) != -1) {
+            output.write(buf, 0, n);
+        }
+        if (process.waitFor() != 0) {
+            throw new RuntimeException("Command failed: " + String.join(" ", command) + ": " + output);
+        }
+        return new String(output.toByteArray(), StandardCharsets.UTF_8).trim();
+    }
+}
@@ -8,13 +8,20 @@ import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.regex.Pattern;
 import org.eclipse.aether.version.Version;
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.api.errors.GitAPIException;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.eclipse.jgit.storage.file.FileRepositoryBuilder;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
 
@@ -179,6 +186,245 @@ public class JGitPropertySourceTest {
         assertFalse(properties.get("remoteUrl").contains("s3cr3t"));
     }
 
+    @Test
+    void testReferencedOnly(@TempDir Path tempDir) throws Exception {
+        Path repo = tempDir.resolve("repo");
+        Files.createDirectories(repo);
+
+        exec(repo, "git", "init", "-b", "master");
+        exec(repo, "git", "config", "user.email", "test@test.com");
+        exec(repo, "git", "config", "user.name", "Test");
+        Files.write(
+                repo.resolve("pom.xml"), "<version>${nisse.jgit.commit}</version>".getBytes(StandardCharsets.UTF_8));
+        exec(repo, "git", "add", "pom.xml");
+        exec(repo, "git", "commit", "-m", "initial commit");
+
+        Map<String, String> userProps = new HashMap<>();
+        userProps.put(NisseConfiguration.CONFIGURATION_REFERENCED_ONLY, "true");
+        Map<String, String> properties = new JGitPropertySource()
+                .getProperties(SimpleNisseConfiguration.builder()
+                        .withCurrentWorkingDirectory(repo)
+                        .withSessionRootDirectory(repo)
+                        .withUserProperties(userProps)
+                        .withDetectReferencedPropertyKeys(true)
+                        .build());
+        assertEquals(execOutput(repo, "git", "rev-parse", "HEAD").trim(), properties.get("commit"));
+        assertFalse(properties.containsKey("clean"));
+        assertFalse(properties.containsKey("branchName"));
+
+        Files.write(repo.resolve("pom.xml"), "<version>1.0</version>".getBytes(StandardCharsets.UTF_8));
+        properties = new JGitPropertySource()
+                .getProperties(SimpleNisseConfiguration.builder()
+                        .withCurrentWorkingDirectory(repo)
+                        .withSessionRootDirectory(repo)
+                        .withUserProperties(userProps)
+                        .withDetectReferencedPropertyKeys(true)
+                        .build());
+        assertTrue(properties.isEmpty());
+    }
+
+    @Test
+    void testWarmCache(@TempDir Path tempDir) throws Exception {
+        Path repo = tempDir.resolve("repo");
+        Files.createDirectories(repo);
+
+        exec(repo, "git", "init", "-b", "master");
+        exec(repo, "git", "config", "user.email", "test@test.com");
+        exec(repo, "git", "config", "user.name", "Test");
+        Files.write(
+                repo.resolve("pom.xml"), "<version>${nisse.jgit.commit}</version>".getBytes(StandardCharsets.UTF_8));
+        exec(repo, "git", "add", "pom.xml");
+        exec(repo, "git", "commit", "-m", "initial commit");
+        String commit = execOutput(repo, "git", "rev-parse", "HEAD").trim();
+        Thread.sleep(20);
+
+        // no racy window, so freshly created repository state is cached
+        JGitPropertySource source = new JGitPropertySource(new WarmCache(0));
+        Map<String, String> userProps = new HashMap<>();
+        userProps.put(NisseConfiguration.CONFIGURATION_REFERENCED_ONLY, "true");
+        NisseConfiguration referencedOnly = SimpleNisseConfiguration.builder()
+                .withCurrentWorkingDirectory(repo)
+                .withSessionRootDirectory(repo)
+                .withUserProperties(userProps)
+                .withDetectReferencedPropertyKeys(true)
+                .build();
+        assertEquals(commit, source.getProperties(referencedOnly).get("commit"));
+
+        // unchanged state: cached, the commit object is not even read
+        Path commitObject =
+                repo.resolve(".git").resolve("objects").resolve(commit.substring(0, 2)).resolve(commit.substring(2));
+        Path movedCommitObject = tempDir.resolve("commit-object");
+        Files.move(commitObject, movedCommitObject);
+        try {
+            assertEquals(commit, source.getProperties(referencedOnly).get("commit"));
+        } finally {
+            Files.move(movedCommitObject, commitObject);
+        }
+
+        // clean depends on working tree, it is computed even if cached
+        NisseConfiguration full =
+                SimpleNisseConfiguration.builder().withCurrentWorkingDirectory(repo).build();
+        assertEquals("true", source.getProperties(full).get("clean"));
+        Files.write(repo.resolve("pom.xml"), "<version>1.0</version>".getBytes(StandardCharsets.UTF_8));
+        assertEquals("false", source.getProperties(full).get("clean"));
+
+        // new commit changes HEAD ref
+        exec(repo, "git", "commit", "-am", "second commit");
+        Thread.sleep(20);
+        Map<String, String> properties = source.getProperties(full);
+        assertEquals(execOutput(repo, "git", "rev-parse", "HEAD").trim(), properties.get("commit"));
+        assertNotEquals(commit, properties.get("commit"));
+        assertEquals("true", properties.get("clean"));
+    }
+
+    @Test
+    void testChangeJournal(@TempDir Path tempDir) throws Exception {
+        Path repo = tempDir.resolve("repo");
+        Files.createDirectories(repo.resolve("src"));
+
+        exec(repo, "git", "init", "-b", "master");
+        exec(repo, "git", "config", "user.email", "test@test.com");
+        exec(repo, "git", "config", "user.name", "Test");
+        Files.write(repo.resolve(".gitignore"), "target/\n".getBytes(StandardCharsets.UTF_8));
+        Files.write(repo.resolve("src").resolve("file.txt"), "hello".getBytes(StandardCharsets.UTF_8));
+        exec(repo, "git", "add", ".");
+        exec(repo, "git", "commit", "-m", "initial commit");
+
+        JGitPropertySource source = new JGitPropertySource(new WarmCache(0));
+        Map<String, String> systemProps = new HashMap<>();
+        systemProps.put("nisse.source.jgit.changeJournal", "true");
+        NisseConfiguration configuration = SimpleNisseConfiguration.builder()
+                .withSystemProperties(systemProps)
+                .withCurrentWorkingDirectory(repo)
+                .build();
+        try {
+            Map<String, String> properties = source.getProperties(configuration);
+            assertEquals(execOutput(repo, "git", "rev-parse", "HEAD").trim(), properties.get("commit"));
+            assertEquals("true", properties.get("clean"));
+
+            // ignored changes do not matter
+            Files.createDirectories(repo.resolve("target"));
+            Files.write(repo.resolve("target").resolve("out.txt"), "out".getBytes(StandardCharsets.UTF_8));
+            assertEquals("true", source.getProperties(configuration).get("clean"));
+
+            // working tree change
+            Files.write(repo.resolve("src").resolve("file.txt"), "changed".getBytes(StandardCharsets.UTF_8));
+            assertEquals("false", source.getProperties(configuration).get("clean"));
+
+            // new commit
+            exec(repo, "git", "commit", "-am", "second commit");
+            properties = source.getProperties(configuration);
+            assertEquals(execOutput(repo, "git", "rev-parse", "HEAD").trim(), properties.get("commit"));
+            assertEquals("true", properties.get("clean"));
+
+            // the journal used by source (if platform has native notifications)
+            ChangeJournal journal = ChangeJournal.of(repo.resolve(".git"), null, () -> {
+                throw new IOException("journal should exist");
+            });
+            if (journal != null) {
+                ChangeJournal.Generations generations = journal.generations();
+                assertFalse(journal.generations().isRacy(0));
+
+                // ignored and inliner files are not counted
+                Files.write(repo.resolve("target").resolve("other.txt"), "out".getBytes(StandardCharsets.UTF_8));
+                Files.write(repo.resolve("src").resolve(".inlined-pom.xml"), "pom".getBytes(StandardCharsets.UTF_8));
+                assertEquals(generations, journal.generations());
+
+                // changed ignore rules are picked up
+                Files.write(repo.resolve(".gitignore"), "target/\n*.log\n".getBytes(StandardCharsets.UTF_8));
+                assertNotEquals(generations, generations = journal.generations());
+                assertTrue(generations.isRacy(60_000L));
+                Files.write(repo.resolve("src").resolve("build.log"), "log".getBytes(StandardCharsets.UTF_8));
+                assertEquals(generations, journal.generations());
+            }
+        } finally {
+            ChangeJournal.closeAll();
+        }
+    }
+
+    @Test
+    void testSharedRepositories(@TempDir Path tempDir) throws Exception {
+        Path repo = tempDir.resolve("repo");
+        Files.createDirectories(repo);
+
+        exec(repo, "git", "init", "-b", "master");
+        exec(repo, "git", "config", "user.email", "test@test.com");
+        exec(repo, "git", "config", "user.name", "Test");
+        exec(repo, "git", "commit", "--allow-empty", "-m", "initial commit");
+        // config is not racily clean
+        Path config = repo.resolve(".git").resolve("config");
+        Files.setLastModifiedTime(config, FileTime.fromMillis(System.currentTimeMillis() - 60_000L));
+
+        try {
+            FileRepositoryBuilder builder = new FileRepositoryBuilder().findGitDir(repo.toFile());
+            SharedRepositories.Handle first = SharedRepositories.acquire(builder);
+            Repository repository = first.repository();
+            try (SharedRepositories.Handle second = SharedRepositories.acquire(
+                    new FileRepositoryBuilder().findGitDir(repo.toFile()))) {
+                assertSame(repository, second.repository());
+            }
+            first.close();
+            assertThrows(IllegalStateException.class, first::repository);
+
+            // still open and shared after release
+            try (SharedRepositories.Handle handle = SharedRepositories.acquire(
+                    new FileRepositoryBuilder().findGitDir(repo.toFile()))) {
+                assertSame(repository, handle.repository());
+                assertNotNull(handle.repository().resolve("HEAD"));
+            }
+
+            // changed config invalidates it
+            exec(repo, "git", "config", "user.name", "Other");
+            Files.setLastModifiedTime(config, FileTime.fromMillis(System.currentTimeMillis() - 30_000L));
+            try (SharedRepositories.Handle handle = SharedRepositories.acquire(
+                    new FileRepositoryBuilder().findGitDir(repo.toFile()))) {
+                assertNotSame(repository, handle.repository());
+            }
+
+            // source results are same as with unshared repository
+            JGitPropertySource source = new JGitPropertySource(new WarmCache(0));
+            Map<String, String> systemProps = new HashMap<>();
+            systemProps.put("nisse.source.jgit.warmCache", "false");
+            systemProps.put("nisse.source.jgit.sharedRepository", "true");
+            Map<String, String> shared = source.getProperties(SimpleNisseConfiguration.builder()
+                    .withSystemProperties(systemProps)
+                    .withCurrentWorkingDirectory(repo)
+                    .build());
+            systemProps.put("nisse.source.jgit.sharedRepository", "false");
+            Map<String, String> unshared = source.getProperties(SimpleNisseConfiguration.builder()
+                    .withSystemProperties(systemProps)
+                    .withCurrentWorkingDirectory(repo)
+                    .build());
+            assertEquals(unshared, shared);
+            assertEquals(execOutput(repo, "git", "rev-parse", "HEAD").trim(), shared.get("commit"));
+        } finally {
+            SharedRepositories.closeAll();
+        }
+    }
+
+    @Test
+    void testStorageProfile(@TempDir Path tempDir) throws Exception {
+        Path repo = tempDir.resolve("repo");
+        Files.createDirectories(repo);
+
+        exec(repo, "git", "init", "-b", "master");
+        exec(repo, "git", "config", "user.email", "test@test.com");
+        exec(repo, "git", "config", "user.name", "Test");
+        exec(repo, "git", "commit", "--allow-empty", "-m", "[minor] release");
+        exec(repo, "git", "commit", "--allow-empty", "-m", "fix");
+        exec(repo, "git", "gc", "-q");
+
+        Map<String, String> userProps = new HashMap<>();
+        userProps.put("nisse.source.jgit.countingVersion", "true");
+        userProps.put("nisse.source.jgit.storage", "auto");
+        userProps.put("nisse.source.jgit.storage.deltaBaseCacheLimit", "16m");
+        assertCountingVersion("0.1.0-1", new JGitPropertySource(), repo, userProps);
+
+        // invalid configuration does not fail the build
+        userProps.put("nisse.source.jgit.storage.packedGitWindowSize", "1000");
+        assertCountingVersion("0.1.0-1", new JGitPropertySource(), repo, userProps);
+    }
+
     @Test
     void testVersionHintPatternMatching() {
         JGitPropertySource source = new JGitPropertySource();
@@ -442,6 +688,63 @@ public class JGitPropertySourceTest {
         assertFalse(properties.containsKey("branchName"));
     }
 
+    @Test
+    void testBranchNameFromCi(@TempDir Path tempDir) throws Exception {
+        Path mainRepo = tempDir.resolve("main-repo");
+        Files.createDirectories(mainRepo);
+
+        exec(mainRepo, "git", "init", "-b", "master");
+        exec(mainRepo, "git", "config", "user.email", "test@test.com");
+        exec(mainRepo, "git", "config", "user.name", "Test");
+        Files.write(mainRepo.resolve("file1.txt"), "hello".getBytes(StandardCharsets.UTF_8));
+        exec(mainRepo, "git", "add", "file1.txt");
+        exec(mainRepo, "git", "commit", "-m", "file1");
+        Files.write(mainRepo.resolve("file2.txt"), "hello again".getBytes(StandardCharsets.UTF_8));
+        exec(mainRepo, "git", "add", "file2.txt");
+        exec(mainRepo, "git", "commit", "-m", "file2");
+        String head = execOutput(mainRepo, "git", "rev-parse", "HEAD").trim();
+        String parent = execOutput(mainRepo, "git", "rev-parse", "HEAD^").trim();
+
+        // CI checks out detached HEAD
+        exec(mainRepo, "git", "checkout", head);
+        Map<String, String> env = new HashMap<>();
+        env.put("env.GITHUB_ACTIONS", "true");
+        env.put("env.GITHUB_SHA", head);
+        env.put("env.GITHUB_REF", "refs/heads/feature");
+        env.put("env.GITHUB_SERVER_URL", "https://github.com");
+        env.put("env.GITHUB_REPOSITORY", "maveniverse/nisse");
+
+        Map<String, String> properties = new JGitPropertySource()
+                .getProperties(SimpleNisseConfiguration.builder()
+                        .withSystemProperties(env)
+                        .withCurrentWorkingDirectory(mainRepo)
+                        .build());
+        assertEquals(head, properties.get("commit"));
+        assertEquals("feature", properties.get("branchName"));
+        assertEquals("https://github.com/maveniverse/nisse.git", properties.get("remoteUrl"));
+
+        // disabled: local branch pointing at HEAD is used
+        env.put("nisse.source.jgit.useCi", "false");
+        properties = new JGitPropertySource()
+                .getProperties(SimpleNisseConfiguration.builder()
+                        .withSystemProperties(env)
+                        .withCurrentWorkingDirectory(mainRepo)
+                        .build());
+        assertEquals("master", properties.get("branchName"));
+        assertFalse(properties.containsKey("remoteUrl"));
+        env.remove("nisse.source.jgit.useCi");
+
+        // CI built commit is not the checked out one: CI is ignored
+        env.put("env.GITHUB_SHA", parent);
+        properties = new JGitPropertySource()
+                .getProperties(SimpleNisseConfiguration.builder()
+                        .withSystemProperties(env)
+                        .withCurrentWorkingDirectory(mainRepo)
+                        .build());
+        assertEquals(head, properties.get("commit"));
+        assertEquals("master", properties.get("branchName"));
+    }
+
     @Test
     void testBranchNameWorktree(@TempDir Path tempDir) throws Exception {
         Path mainRepo = tempDir.resolve("main-repo");
@@ -583,6 +886,40 @@ public class JGitPropertySourceTest {
                 "Should resolve version from maintenance branch tag, not unreachable master hint tag");
     }
 
+    @Test
+    void testVersionedTagsForCommitOverride(@TempDir Path tempDir) throws Exception {
+        Path repo = tempDir.resolve("repo");
+        Files.createDirectories(repo);
+        exec(repo, "git", "init", "-b", "master");
+        exec(repo, "git", "config", "user.email", "test@test.com");
+        exec(repo, "git", "config", "user.name", "Test");
+        Files.write(repo.resolve("file.txt"), "v1".getBytes(StandardCharsets.UTF_8));
+        exec(repo, "git", "add", "file.txt");
+        exec(repo, "git", "commit", "-m", "initial");
+        exec(repo, "git", "tag", "1.0.0");
+
+        Map<String, String> userProps = new HashMap<>();
+        userProps.put("nisse.source.jgit.dynamicVersion", "true");
+        NisseConfiguration configuration = SimpleNisseConfiguration.builder()
+                .withCurrentWorkingDirectory(repo)
+                .withUserProperties(userProps)
+                .build();
+        assertEquals("1.0.0", new JGitPropertySource().getProperties(configuration).get("dynamicVersion"));
+
+        // subclass customizing tags of commit is still honored
+        JGitPropertySource source = new JGitPropertySource() {
+            @Override
+            @SuppressWarnings("deprecation")
+            protected List<String> getVersionedTagsForCommit(
+                    NisseConfiguration configuration, Git git, RevCommit commit) throws GitAPIException {
+                return super.getVersionedTagsForCommit(configuration, git, commit).isEmpty()
+                        ? Collections.emptyList()
+                        : Collections.singletonList("2.0.0");
+            }
+        };
+        assertEquals("2.0.0", source.getProperties(configuration).get("dynamicVersion"));
+    }
+
     @Test
     void testCountingVersion(@TempDir Path tempDir) throws Exception {
         Map<String, String> userProps = new HashMap<>();
@@ -786,6 +1123,62 @@ public class JGitPropertySourceTest {
         assertEquals("1.2.3", JGitPropertySource.formatCountingVersion("%M.%m.%p", 1, 2, 3, 5));
     }
 
+    @Test
+    void testOutputTimestamp(@TempDir Path tempDir) throws Exception {
+        Path mainRepo = tempDir.resolve("main-repo");
+        Path module = mainRepo.resolve("module");
+        Files.createDirectories(module);
+
+        exec(mainRepo, "git", "init", "-b", "master");
+        exec(mainRepo, "git", "config", "user.email", "test@test.com");
+        exec(mainRepo, "git", "config", "user.name", "Test");
+        Files.write(module.resolve("file1.txt"), "hello".getBytes(StandardCharsets.UTF_8));
+        exec(mainRepo, "git", "add", ".");
+        commit(mainRepo, "module", 1700000000L);
+        Files.write(mainRepo.resolve("file2.txt"), "hello again".getBytes(StandardCharsets.UTF_8));
+        exec(mainRepo, "git", "add", ".");
+        commit(mainRepo, "other", 1700003600L);
+
+        Map<String, String> properties = new JGitPropertySource()
+                .getProperties(SimpleNisseConfiguration.builder()
+                        .withCurrentWorkingDirectory(module)
+                        .build());
+        assertEquals("2023-11-14T23:13:20Z", properties.get("outputTimestamp"));
+        assertEquals("1700003600", properties.get("outputTimestampEpoch"));
+
+        Map<String, String> systemProps = new HashMap<>();
+        systemProps.put("nisse.source.jgit.moduleOutputTimestamp", "true");
+        properties = new JGitPropertySource()
+                .getProperties(SimpleNisseConfiguration.builder()
+                        .withSystemProperties(systemProps)
+                        .withCurrentWorkingDirectory(module)
+                        .build());
+        assertEquals("2023-11-14T22:13:20Z", properties.get("outputTimestamp"));
+        assertEquals("1700000000", properties.get("outputTimestampEpoch"));
+
+        // root of checkout is touched by every commit
+        properties = new JGitPropertySource()
+                .getProperties(SimpleNisseConfiguration.builder()
+                        .withSystemProperties(systemProps)
+                        .withCurrentWorkingDirectory(mainRepo)
+                        .build());
+        assertEquals("1700003600", properties.get("outputTimestampEpoch"));
+    }
+
+    private static void commit(Path workDir, String message, long epochSeconds) throws Exception {
+        ProcessBuilder builder = new ProcessBuilder("git", "commit", "-m", message)
+                .directory(workDir.toFile())
+                .redirectErrorStream(true);
+        builder.environment().put("GIT_AUTHOR_DATE", epochSeconds + " +0100");
+        builder.environment().put("GIT_COMMITTER_DATE", epochSeconds + " +0100");
+        Process process = builder.start();
+        byte[] buf = new byte[4096];
+        while (process.getInputStream().read(buf) != -1) {
+            // drain
+        }
+        assertEquals(0, process.waitFor(), "git commit failed");
+    }
+
     private static void assertCountingVersion(
             String expected, JGitPropertySource source, Path repo, Map<String, String> userProps) throws Exception {
         Map<String, String> properties = source.getProperties(SimpleNisseConfiguration.builder()
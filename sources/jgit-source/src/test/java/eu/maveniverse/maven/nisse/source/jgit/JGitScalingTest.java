@@ -0,0 +1,148 @@
+package eu.maveniverse.maven.nisse.source.jgit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import eu.maveniverse.maven.nisse.core.NisseConfiguration;
+import eu.maveniverse.maven.nisse.core.simple.SimpleNisseConfiguration;
+import eu.maveniverse.maven.nisse.source.jgit.fixtures.SyntheticRepository;
+import java.lang.reflect.Method;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.lib.Constants;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Guards against superlinear behaviour of history and tag handling: same resolution is measured on a repository and
+ * on a {@link #SCALE} times larger one, and allocation must grow roughly linearly. Quadratic behaviour would make it
+ * grow {@code SCALE * SCALE} times. Allocation of a thread is deterministic enough to assert on, unlike elapsed time:
+ * time scaling is measured by {@code JGitPropertySourceBenchmark} instead.
+ */
+public class JGitScalingTest {
+    private static final int SCALE = 4;
+
+    /**
+     * Allowed growth of allocation: linear, with some slack.
+     */
+    private static final double MAX_ALLOCATION_GROWTH = SCALE * 2.0;
+
+    @Test
+    void getVersionFromGit(@TempDir Path tempDir) throws Exception {
+        // tags are in old history, so every newer commit is looked up against all of them
+        assertLinear(
+                tempDir,
+                "getVersionFromGit",
+                size -> SyntheticRepository.builder()
+                        .commits(size)
+                        .tags(size / 10)
+                        .untaggedTail(size * 4 / 5)
+                        .mergeEvery(10),
+                (source, git, repository) -> {
+                    String version = source.getVersionFromGit(configuration(repository), git, repository.head())
+                            .toString();
+                    assertTrue(version.startsWith("1." + (repository.releaseTags().size() - 1) + ".1-"), version);
+                    return version;
+                });
+    }
+
+    @Test
+    void resolveCountingVersion(@TempDir Path tempDir) throws Exception {
+        assertLinear(
+                tempDir,
+                "resolveCountingVersion",
+                size -> SyntheticRepository.builder().commits(size).tags(size / 10).mergeEvery(10),
+                (source, git, repository) -> {
+                    String version =
+                            source.resolveCountingVersion(configuration(repository), git, repository.head());
+                    assertTrue(version.startsWith("0." + repository.releaseTags().size() + ".0"), version);
+                    return version;
+                });
+    }
+
+    @Test
+    void findVersionHintTags(@TempDir Path tempDir) throws Exception {
+        // hint tags all over history, each checked for reachability from head
+        assertLinear(
+                tempDir,
+                "findVersionHintTags",
+                size -> SyntheticRepository.builder().commits(size).tags(size / 10),
+                (source, git, repository) -> {
+                    int found = source.findVersionHintTags(git, "${version}-SNAPSHOT", repository.head())
+                            .size();
+                    assertEquals(repository.hintTags().size(), found);
+                    return found;
+                });
+    }
+
+    @FunctionalInterface
+    private interface Fixture {
+        SyntheticRepository.Builder create(int size);
+    }
+
+    @FunctionalInterface
+    private interface Resolution {
+        Object resolve(JGitPropertySource source, Git git, SyntheticRepository repository) throws Exception;
+    }
+
+    private static NisseConfiguration configuration(SyntheticRepository repository) {
+        Map<String, String> systemProperties = new HashMap<>();
+        systemProperties.put("nisse.source.jgit.countingVersion", "true");
+        return SimpleNisseConfiguration.builder()
+                .withSystemProperties(systemProperties)
+                .withCurrentWorkingDirectory(repository.directory())
+                .build();
+    }
+
+    private static void assertLinear(Path tempDir, String name, Fixture fixture, Resolution resolution)
+            throws Exception {
+        int size = 400;
+        long small = measure(fixture.create(size).create(tempDir.resolve("small")), resolution);
+        long large = measure(fixture.create(size * SCALE).create(tempDir.resolve("large")), resolution);
+        if (small > 0 && large > 0) {
+            assertTrue(
+                    large <= small * MAX_ALLOCATION_GROWTH,
+                    name + " allocation grows superlinearly: " + small + " -> " + large + " bytes");
+        }
+    }
+
+    /**
+     * Returns the least allocation out of several resolutions, after a warmup, or -1 if not supported.
+     */
+    private static long measure(SyntheticRepository repository, Resolution resolution) throws Exception {
+        JGitPropertySource source = new JGitPropertySource();
+        try (Git git = Git.open(repository.directory().resolve(Constants.DOT_GIT).toFile())) {
+            Callable<Object> task = () -> resolution.resolve(source, git, repository);
+            for (int i = 0; i < 3; i++) {
+                task.call();
+            }
+            long bytes = Long.MAX_VALUE;
+            for (int i = 0; i < 5; i++) {
+                long allocated = allocatedBytes();
+                task.call();
+                bytes = Math.min(bytes, allocatedBytes() - allocated);
+            }
+            return bytes < 0 ? -1L : bytes;
+        }
+    }
+
+    /**
+     * Returns bytes allocated by current thread so far, or -1 if not supported. Uses reflection, as this module does
+     * not require {@code java.management}.
+     */
+    private static long allocatedBytes() {
+        try {
+            Object bean = Class.forName("java.lang.management.ManagementFactory")
+                    .getMethod("getThreadMXBean")
+                    .invoke(null);
+            Method method = Class.forName("com.sun.management.ThreadMXBean")
+                    .getMethod("getThreadAllocatedBytes", long.class);
+            return (Long) method.invoke(bean, Thread.currentThread().getId());
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return -1L;
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package eu.maveniverse.maven.nisse.source.jgit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+public class StorageProfileTest {
+    private static final long MB = 1024L * 1024L;
+
+    @Test
+    void parseSize() {
+        assertEquals(4096L, StorageProfile.parseSize("4096"));
+        assertEquals(8192L, StorageProfile.parseSize("8k"));
+        assertEquals(10 * MB, StorageProfile.parseSize(" 10M "));
+        assertEquals(2048 * MB, StorageProfile.parseSize("2g"));
+        assertThrows(NumberFormatException.class, () -> StorageProfile.parseSize("ten"));
+    }
+
+    @Test
+    void autoSmallRepository() {
+        StorageProfile.Settings defaults = StorageProfile.Settings.jgitDefaults();
+        StorageProfile.Settings settings = StorageProfile.auto(MB, 1, 1024 * MB, true);
+        assertFalse(settings.packedGitMMAP);
+        assertTrue(settings.isCoveredBy(defaults));
+    }
+
+    @Test
+    void autoLargeRepository() {
+        // fits into quarter of heap
+        StorageProfile.Settings settings = StorageProfile.auto(400 * MB, 3, 4096 * MB, true);
+        assertFalse(settings.packedGitMMAP);
+        assertEquals(500 * MB, settings.packedGitLimit);
+        assertEquals(64 * 1024, settings.packedGitWindowSize);
+        assertEquals(25 * MB, settings.deltaBaseCacheLimit);
+
+        // does not fit into heap
+        settings = StorageProfile.auto(6144 * MB, 3, 4096 * MB, true);
+        assertTrue(settings.packedGitMMAP);
+        assertEquals(6144 * MB, settings.packedGitLimit);
+        assertEquals(256 * MB, settings.deltaBaseCacheLimit);
+
+        // no mmap
+        settings = StorageProfile.auto(6144 * MB, 3, 4096 * MB, false);
+        assertFalse(settings.packedGitMMAP);
+        assertEquals(1024 * MB, settings.packedGitLimit);
+    }
+
+    @Test
+    void merge() {
+        StorageProfile.Settings small = StorageProfile.auto(400 * MB, 3, 4096 * MB, true);
+        StorageProfile.Settings large = StorageProfile.auto(6144 * MB, 3, 4096 * MB, true);
+        assertTrue(small.isCoveredBy(small.merge(large)));
+        assertTrue(large.isCoveredBy(small.merge(large)));
+        assertFalse(large.isCoveredBy(small));
+    }
+}
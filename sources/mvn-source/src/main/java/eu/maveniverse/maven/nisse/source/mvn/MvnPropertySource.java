@@ -10,15 +10,20 @@ package eu.maveniverse.maven.nisse.source.mvn;
 import eu.maveniverse.maven.nisse.core.NisseConfiguration;
 import eu.maveniverse.maven.nisse.core.PropertySource;
 import java.io.InputStream;
-import java.nio.file.FileSystem;
-import java.nio.file.FileSystems;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
 import javax.inject.Named;
 import javax.inject.Singleton;
 
@@ -37,11 +42,23 @@ public class MvnPropertySource implements PropertySource {
     private static final String VERSION_PATCH = "patch";
     private static final String VERSION_QUALIFIER = "qualifier";
 
+    private static final String BUILD_PROPERTIES_ENTRY = "org/apache/maven/messages/build.properties";
+
+    private static final ConcurrentHashMap<Path, BuildProperties> BUILD_PROPERTIES = new ConcurrentHashMap<>();
+
     @Override
     public String getName() {
         return NAME;
     }
 
+    @Override
+    public Collection<String> getPropertyKeys(NisseConfiguration configuration) {
+        ArrayList<String> result = new ArrayList<>(Arrays.asList(
+                VERSION, VERSION_MAJOR, VERSION_MINOR, VERSION_MAJOR_MINOR, VERSION_PATCH, VERSION_QUALIFIER));
+        result.addAll(getMavenBuildProperties(configuration).keySet());
+        return result;
+    }
+
     @Override
     public Map<String, String> getProperties(NisseConfiguration configuration) {
         String mavenVersion = configuration.getConfiguration().get("maven.version");
@@ -59,31 +76,64 @@ public class MvnPropertySource implements PropertySource {
             result.put(VERSION_MAJOR_MINOR, elems[0] + "." + elems[1]);
             result.put(VERSION_PATCH, elems[2]);
         }
-        Properties mavenBuildProperties = getMavenBuildProperties(configuration);
-        if (!mavenBuildProperties.isEmpty()) {
-            mavenBuildProperties.stringPropertyNames().forEach(k -> result.put(k, mavenBuildProperties.getProperty(k)));
-        }
+        result.putAll(getMavenBuildProperties(configuration));
         return Collections.unmodifiableMap(result);
     }
 
-    private static Properties getMavenBuildProperties(NisseConfiguration configuration) {
+    /**
+     * Returns the {@code build.properties} of {@code maven-core} JAR, read once per JAR (Maven home and version) and
+     * cached for JVM lifetime, as long as JAR last modified time and size do not change.
+     */
+    private static Map<String, String> getMavenBuildProperties(NisseConfiguration configuration) {
         String mavenHome = configuration.getConfiguration().get("maven.home");
         String mavenVersion = configuration.getConfiguration().get("maven.version");
-        Properties properties = new Properties();
+        if (mavenHome == null || mavenVersion == null) {
+            return Collections.emptyMap();
+        }
         try {
-            if (mavenHome != null && mavenVersion != null) {
-                Path mavenCoreJarPath = Paths.get(mavenHome).resolve("lib/maven-core-" + mavenVersion + ".jar");
-                if (Files.isRegularFile(mavenCoreJarPath)) {
-                    try (FileSystem fs = FileSystems.newFileSystem(mavenCoreJarPath, (ClassLoader) null);
-                            InputStream input =
-                                    Files.newInputStream(fs.getPath("/org/apache/maven/messages/build.properties"))) {
+            Path mavenCoreJarPath = Paths.get(mavenHome)
+                    .resolve("lib/maven-core-" + mavenVersion + ".jar")
+                    .toAbsolutePath()
+                    .normalize();
+            BasicFileAttributes attributes = Files.readAttributes(mavenCoreJarPath, BasicFileAttributes.class);
+            if (!attributes.isRegularFile()) {
+                return Collections.emptyMap();
+            }
+            long lastModified = attributes.lastModifiedTime().toMillis();
+            long size = attributes.size();
+            BuildProperties cached = BUILD_PROPERTIES.get(mavenCoreJarPath);
+            if (cached != null && cached.lastModified == lastModified && cached.size == size) {
+                return cached.properties;
+            }
+            Properties properties = new Properties();
+            try (ZipFile zipFile = new ZipFile(mavenCoreJarPath.toFile())) {
+                ZipEntry entry = zipFile.getEntry(BUILD_PROPERTIES_ENTRY);
+                if (entry != null) {
+                    try (InputStream input = zipFile.getInputStream(entry)) {
                         properties.load(input);
                     }
                 }
             }
+            HashMap<String, String> result = new HashMap<>();
+            properties.stringPropertyNames().forEach(k -> result.put(k, properties.getProperty(k)));
+            BuildProperties loaded = new BuildProperties(lastModified, size, Collections.unmodifiableMap(result));
+            BUILD_PROPERTIES.put(mavenCoreJarPath, loaded);
+            return loaded.properties;
         } catch (Exception e) {
             // ignore
+            return Collections.emptyMap();
+        }
+    }
+
+    private static final class BuildProperties {
+        private final long lastModified;
+        private final long size;
+        private final Map<String, String> properties;
+
+        private BuildProperties(long lastModified, long size, Map<String, String> properties) {
+            this.lastModified = lastModified;
+            this.size = size;
+            this.properties = properties;
         }
-        return properties;
     }
 }
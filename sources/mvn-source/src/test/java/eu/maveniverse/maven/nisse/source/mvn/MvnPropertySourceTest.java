@@ -1,11 +1,19 @@
 package eu.maveniverse.maven.nisse.source.mvn;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
 import eu.maveniverse.maven.nisse.core.simple.SimpleNisseConfiguration;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
 import java.util.HashMap;
 import java.util.Map;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 public class MvnPropertySourceTest {
     @Test
@@ -36,4 +44,39 @@ public class MvnPropertySourceTest {
                         .build())
                 .forEach((k, v) -> System.out.println(k + " = " + v));
     }
+
+    @Test
+    void buildPropertiesCached(@TempDir Path mavenHome) throws IOException {
+        Path jar = mavenHome.resolve("lib/maven-core-3.9.9.jar");
+        Files.createDirectories(jar.getParent());
+        Files.copy(Paths.get("src/test/resources/mvn399/lib/maven-core-3.9.9.jar"), jar);
+        Files.setLastModifiedTime(jar, FileTime.fromMillis(1_000_000_000_000L));
+
+        Map<String, String> up = new HashMap<>();
+        up.put("maven.version", "3.9.9");
+        up.put("maven.home", mavenHome.toString());
+        SimpleNisseConfiguration configuration =
+                SimpleNisseConfiguration.builder().withUserProperties(up).build();
+        MvnPropertySource source = new MvnPropertySource();
+        assertEquals(
+                "8e8579a9e76f7d015ee5ec7bfcdc97d260186937",
+                source.getProperties(configuration).get("buildNumber"));
+        assertEquals(
+                "8e8579a9e76f7d015ee5ec7bfcdc97d260186937",
+                source.getProperties(configuration).get("buildNumber"));
+
+        // replaced JAR is read again
+        Files.copy(
+                Paths.get("src/test/resources/mvn400-beta-3/lib/maven-core-4.0.0-beta-3.jar"),
+                jar,
+                StandardCopyOption.REPLACE_EXISTING);
+        Files.setLastModifiedTime(jar, FileTime.fromMillis(1_000_000_060_000L));
+        assertEquals(
+                "e92f645c2749eb2a4f5a8843cf01e7441e4b559f",
+                source.getProperties(configuration).get("buildNumber"));
+
+        // removed JAR gives no build properties
+        Files.delete(jar);
+        assertNull(source.getProperties(configuration).get("buildNumber"));
+    }
 }
@@ -0,0 +1,311 @@
+/*
+ * Copyright (c) 2023-2024 Maveniverse Org.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-v20.html
+ */
+package eu.maveniverse.maven.nisse.source.osdetector;
+
+import static java.util.Objects.requireNonNull;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Detects resources effectively available to this process on Linux: CPU quota and cpuset, memory limit (from cgroup
+ * v1 or v2), host CPU count and memory, and whether the process runs in a container. All files are resolved against
+ * given root, and environment is passed in, to make detection testable.
+ * <p>
+ * Created properties:
+ * <ul>
+ *     <li>{@code cpu.count} - the effective CPU count: host CPU count limited by cgroup CPU quota (rounded up) and
+ *     cpuset</li>
+ *     <li>{@code cpu.count.host} - the host online CPU count</li>
+ *     <li>{@code memory.limit} - the effective memory limit in bytes: cgroup memory limit, or host memory if not
+ *     limited</li>
+ *     <li>{@code memory.total} - the host memory in bytes</li>
+ *     <li>{@code container} - {@code true} if process runs in a container, {@code false} otherwise</li>
+ *     <li>{@code container.type} - the container type, if known ({@code docker}, {@code podman}, {@code kubernetes},
+ *     {@code lxc})</li>
+ *     <li>{@code cgroup.version} - the cgroup version in use ({@code 1} or {@code 2}), if any</li>
+ * </ul>
+ */
+final class ContainerResources {
+    static final String CPU_COUNT = "cpu.count";
+    static final String CPU_COUNT_HOST = "cpu.count.host";
+    static final String MEMORY_LIMIT = "memory.limit";
+    static final String MEMORY_TOTAL = "memory.total";
+    static final String CONTAINER = "container";
+    static final String CONTAINER_TYPE = "container.type";
+    static final String CGROUP_VERSION = "cgroup.version";
+
+    private static final String CGROUP_MOUNT = "sys/fs/cgroup";
+
+    private ContainerResources() {}
+
+    /**
+     * Detects properties for Linux, using files below given root (usually {@code /}) and given environment.
+     */
+    static Map<String, String> detectLinux(Path root, Map<String, String> environment) {
+        requireNonNull(root, "root");
+        requireNonNull(environment, "environment");
+        HashMap<String, String> result = new HashMap<>();
+
+        int hostCpus = hostCpuCount(root);
+        long hostMemory = hostMemory(root);
+        int cpus = hostCpus;
+        long memory = -1;
+
+        List<String> cgroups = lines(root.resolve("proc/self/cgroup"));
+        String v2Path = null;
+        String cpuV1Path = null;
+        String cpusetV1Path = null;
+        String memoryV1Path = null;
+        for (String line : cgroups) {
+            // hierarchy-ID:controller-list:cgroup-path
+            String[] parts = line.split(":", 3);
+            if (parts.length != 3) {
+                continue;
+            }
+            if ("0".equals(parts[0]) && parts[1].isEmpty()) {
+                v2Path = parts[2];
+                continue;
+            }
+            for (String controller : parts[1].split(",")) {
+                if ("cpu".equals(controller)) {
+                    cpuV1Path = parts[2];
+                } else if ("cpuset".equals(controller)) {
+                    cpusetV1Path = parts[2];
+                } else if ("memory".equals(controller)) {
+                    memoryV1Path = parts[2];
+                }
+            }
+        }
+
+        if (cpuV1Path != null || memoryV1Path != null || cpusetV1Path != null) {
+            result.put(CGROUP_VERSION, "1");
+            Path cpuDir = v1Directory(root, "cpu,cpuacct", "cpu", cpuV1Path, "cpu.cfs_quota_us");
+            if (cpuDir != null) {
+                cpus = Math.min(
+                        cpus,
+                        quotaCpus(
+                                readLong(cpuDir.resolve("cpu.cfs_quota_us")),
+                                readLong(cpuDir.resolve("cpu.cfs_period_us"))));
+            }
+            Path cpusetDir = v1Directory(root, "cpuset", "cpuset", cpusetV1Path, "cpuset.effective_cpus");
+            if (cpusetDir != null) {
+                cpus = Math.min(cpus, countCpus(readFirstLine(cpusetDir.resolve("cpuset.effective_cpus"))));
+            }
+            Path memoryDir = v1Directory(root, "memory", "memory", memoryV1Path, "memory.limit_in_bytes");
+            if (memoryDir != null) {
+                memory = readLong(memoryDir.resolve("memory.limit_in_bytes"));
+            }
+        } else if (v2Path != null && Files.isRegularFile(root.resolve(CGROUP_MOUNT).resolve("cgroup.controllers"))) {
+            result.put(CGROUP_VERSION, "2");
+            // limits of all ancestors apply; with cgroup namespace, the path is "/" and mount root is own cgroup
+            Path mount = root.resolve(CGROUP_MOUNT);
+            Path dir = mount.resolve(relative(v2Path)).normalize();
+            if (!dir.startsWith(mount) || !Files.isDirectory(dir)) {
+                dir = mount;
+            }
+            while (dir != null && dir.startsWith(mount)) {
+                String[] max = split(readFirstLine(dir.resolve("cpu.max")));
+                if (max.length == 2) {
+                    cpus = Math.min(cpus, quotaCpus(parseLong(max[0]), parseLong(max[1])));
+                }
+                cpus = Math.min(cpus, countCpus(readFirstLine(dir.resolve("cpuset.cpus.effective"))));
+                long limit = readLong(dir.resolve("memory.max"));
+                if (limit > 0 && (memory < 0 || limit < memory)) {
+                    memory = limit;
+                }
+                dir = dir.getParent();
+            }
+        }
+
+        if (hostMemory > 0 && (memory <= 0 || memory > hostMemory)) {
+            // v1 reports "unlimited" as huge number
+            memory = hostMemory;
+        }
+
+        result.put(CPU_COUNT, Integer.toString(Math.max(1, cpus)));
+        result.put(CPU_COUNT_HOST, Integer.toString(hostCpus));
+        if (memory > 0) {
+            result.put(MEMORY_LIMIT, Long.toString(memory));
+        }
+        if (hostMemory > 0) {
+            result.put(MEMORY_TOTAL, Long.toString(hostMemory));
+        }
+
+        String containerType = containerType(root, environment, cgroups);
+        result.put(CONTAINER, Boolean.toString(containerType != null));
+        if (containerType != null) {
+            result.put(CONTAINER_TYPE, containerType);
+        }
+        return Collections.unmodifiableMap(result);
+    }
+
+    /**
+     * Properties for non-Linux systems: only CPU counts, as reported by JVM.
+     */
+    static Map<String, String> detectOther() {
+        HashMap<String, String> result = new HashMap<>();
+        String cpus = Integer.toString(Runtime.getRuntime().availableProcessors());
+        result.put(CPU_COUNT, cpus);
+        result.put(CPU_COUNT_HOST, cpus);
+        result.put(CONTAINER, "false");
+        return Collections.unmodifiableMap(result);
+    }
+
+    /**
+     * Returns container type, or {@code null} if not in container.
+     */
+    private static String containerType(Path root, Map<String, String> environment, List<String> cgroups) {
+        if (environment.containsKey("KUBERNETES_SERVICE_HOST")) {
+            return "kubernetes";
+        }
+        if (Files.exists(root.resolve("run/.containerenv"))) {
+            return "podman";
+        }
+        List<String> initCgroups = lines(root.resolve("proc/1/cgroup"));
+        for (List<String> lines : Arrays.asList(cgroups, initCgroups)) {
+            for (String line : lines) {
+                if (line.contains("kubepods")) {
+                    return "kubernetes";
+                }
+                if (line.contains("docker") || line.contains("containerd")) {
+                    return "docker";
+                }
+                if (line.contains("/lxc/") || line.contains("lxc.payload")) {
+                    return "lxc";
+                }
+            }
+        }
+        if (Files.exists(root.resolve(".dockerenv"))) {
+            return "docker";
+        }
+        return null;
+    }
+
+    /**
+     * Resolves cgroup v1 controller directory, first of combined or own mount, with or without the process cgroup
+     * path (without, when cgroup is mounted from within container namespace).
+     */
+    private static Path v1Directory(Path root, String combined, String own, String path, String file) {
+        if (path == null) {
+            return null;
+        }
+        for (String mountName : new String[] {combined, own}) {
+            Path mount = root.resolve(CGROUP_MOUNT).resolve(mountName);
+            Path dir = mount.resolve(relative(path)).normalize();
+            if (dir.startsWith(mount) && Files.isRegularFile(dir.resolve(file))) {
+                return dir;
+            }
+            if (Files.isRegularFile(mount.resolve(file))) {
+                return mount;
+            }
+        }
+        return null;
+    }
+
+    private static int hostCpuCount(Path root) {
+        int cpus = countCpus(readFirstLine(root.resolve("sys/devices/system/cpu/online")));
+        return cpus == Integer.MAX_VALUE ? Runtime.getRuntime().availableProcessors() : cpus;
+    }
+
+    private static long hostMemory(Path root) {
+        for (String line : lines(root.resolve("proc/meminfo"))) {
+            if (line.startsWith("MemTotal:")) {
+                String[] parts = split(line.substring("MemTotal:".length()));
+                long kb = parts.length > 0 ? parseLong(parts[0]) : -1;
+                return kb > 0 ? kb * 1024 : -1;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * CPU count allowed by quota, rounded up; {@link Integer#MAX_VALUE} if not limited.
+     */
+    static int quotaCpus(long quota, long period) {
+        if (quota <= 0 || period <= 0) {
+            return Integer.MAX_VALUE;
+        }
+        return (int) Math.min(Integer.MAX_VALUE, Math.max(1, (quota + period - 1) / period));
+    }
+
+    /**
+     * Counts CPUs in Linux CPU list format, like {@code 0-3,8,10-11}; {@link Integer#MAX_VALUE} if not parseable.
+     */
+    static int countCpus(String list) {
+        if (list == null || list.trim().isEmpty()) {
+            return Integer.MAX_VALUE;
+        }
+        int count = 0;
+        for (String range : list.trim().split(",")) {
+            int dash = range.indexOf('-');
+            long from = parseLong(dash < 0 ? range : range.substring(0, dash));
+            long to = dash < 0 ? from : parseLong(range.substring(dash + 1));
+            if (from < 0 || to < from) {
+                return Integer.MAX_VALUE;
+            }
+            count += (int) (to - from + 1);
+        }
+        return count;
+    }
+
+    private static String relative(String cgroupPath) {
+        String result = cgroupPath.trim();
+        while (result.startsWith("/")) {
+            result = result.substring(1);
+        }
+        return result;
+    }
+
+    private static String[] split(String value) {
+        if (value == null || value.trim().isEmpty()) {
+            return new String[0];
+        }
+        return value.trim().split("\\s+");
+    }
+
+    private static long readLong(Path file) {
+        return parseLong(readFirstLine(file));
+    }
+
+    /**
+     * Parses non-negative long, returns -1 for anything else (like {@code max}).
+     */
+    private static long parseLong(String value) {
+        if (value == null) {
+            return -1;
+        }
+        try {
+            long result = Long.parseLong(value.trim());
+            return result < 0 ? -1 : result;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static String readFirstLine(Path file) {
+        List<String> lines = lines(file);
+        return lines.isEmpty() ? null : lines.get(0);
+    }
+
+    private static List<String> lines(Path file) {
+        try {
+            return Files.readAllLines(file, StandardCharsets.UTF_8);
+        } catch (IOException | SecurityException e) {
+            // Just absorb. Missing or unreadable files mean no such limit.
+            return Collections.emptyList();
+        }
+    }
+}
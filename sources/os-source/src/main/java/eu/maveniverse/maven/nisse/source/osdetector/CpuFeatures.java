@@ -0,0 +1,182 @@
+/*
+ * Copyright (c) 2023-2024 Maveniverse Org.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-v20.html
+ */
+package eu.maveniverse.maven.nisse.source.osdetector;
+
+import static java.util.Objects.requireNonNull;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Detects CPU feature flags and microarchitecture level on Linux from {@code /proc/cpuinfo}, to allow selection of
+ * optimized native artifacts. Only the first processor entry is read, as all cores are assumed to be same.
+ * <p>
+ * Created properties:
+ * <ul>
+ *     <li>{@code cpu.level} - for {@code x86_64} the psABI microarchitecture level ({@code x86-64-v1} to
+ *     {@code x86-64-v4}); for {@code aarch_64} the architecture version implied by features ({@code armv8-a},
+ *     {@code armv8.1-a}, {@code armv8.2-a} or {@code armv9-a})</li>
+ *     <li>{@code cpu.feature.<flag>} - set to {@code true} for every present flag that is relevant to native library
+ *     selection (SIMD, crypto and atomics extensions)</li>
+ * </ul>
+ */
+final class CpuFeatures {
+    static final String CPU_LEVEL = "cpu.level";
+    static final String CPU_FEATURE_PREFIX = "cpu.feature.";
+
+    private static final String X86_FLAGS = "flags";
+    private static final String AARCH64_FEATURES = "Features";
+
+    private static final List<String> X86_64_V2 =
+            Arrays.asList("cx16", "lahf_lm", "popcnt", "sse3", "sse4_1", "sse4_2", "ssse3");
+    private static final List<String> X86_64_V3 =
+            Arrays.asList("avx", "avx2", "bmi1", "bmi2", "f16c", "fma", "abm", "movbe", "xsave");
+    private static final List<String> X86_64_V4 =
+            Arrays.asList("avx512f", "avx512bw", "avx512cd", "avx512dq", "avx512vl");
+    private static final List<String> X86_64_PUBLISHED = Arrays.asList(
+            "sse2",
+            "sse3",
+            "ssse3",
+            "sse4_1",
+            "sse4_2",
+            "popcnt",
+            "avx",
+            "avx2",
+            "fma",
+            "f16c",
+            "bmi1",
+            "bmi2",
+            "avx512f",
+            "avx512bw",
+            "avx512cd",
+            "avx512dq",
+            "avx512vl",
+            "avx512_vnni",
+            "avx512_bf16",
+            "aes",
+            "vaes",
+            "pclmulqdq",
+            "vpclmulqdq",
+            "sha_ni",
+            "gfni");
+
+    private static final List<String> ARMV8_1 = Arrays.asList("atomics", "asimdrdm", "crc32");
+    private static final List<String> ARMV8_2 = Arrays.asList("fphp", "asimdhp", "dcpop");
+    private static final List<String> ARMV9 = Collections.singletonList("sve2");
+    private static final List<String> AARCH64_PUBLISHED = Arrays.asList(
+            "asimd",
+            "aes",
+            "pmull",
+            "sha1",
+            "sha2",
+            "sha3",
+            "sha512",
+            "crc32",
+            "atomics",
+            "asimdrdm",
+            "fphp",
+            "asimdhp",
+            "asimddp",
+            "i8mm",
+            "bf16",
+            "sve",
+            "sve2");
+
+    private CpuFeatures() {}
+
+    /**
+     * Detects properties for given normalized architecture from given {@code cpuinfo} file. Returns empty map if
+     * architecture is not supported, or file is not readable.
+     */
+    static Map<String, String> detect(Path cpuinfo, String arch) {
+        requireNonNull(cpuinfo, "cpuinfo");
+        requireNonNull(arch, "arch");
+        if ("x86_64".equals(arch)) {
+            Set<String> flags = readFlags(cpuinfo, X86_FLAGS);
+            if (flags.isEmpty()) {
+                return Collections.emptyMap();
+            }
+            // kernel names SSE3 after its "Prescott New Instructions"
+            if (flags.contains("pni")) {
+                flags.add("sse3");
+            }
+            String level = "x86-64-v1";
+            if (flags.containsAll(X86_64_V2)) {
+                level = "x86-64-v2";
+                if (flags.containsAll(X86_64_V3)) {
+                    level = "x86-64-v3";
+                    if (flags.containsAll(X86_64_V4)) {
+                        level = "x86-64-v4";
+                    }
+                }
+            }
+            return properties(level, flags, X86_64_PUBLISHED);
+        } else if ("aarch_64".equals(arch)) {
+            Set<String> flags = readFlags(cpuinfo, AARCH64_FEATURES);
+            if (flags.isEmpty()) {
+                return Collections.emptyMap();
+            }
+            String level = "armv8-a";
+            if (flags.containsAll(ARMV8_1)) {
+                level = "armv8.1-a";
+                if (flags.containsAll(ARMV8_2)) {
+                    level = "armv8.2-a";
+                    if (flags.containsAll(ARMV9)) {
+                        level = "armv9-a";
+                    }
+                }
+            }
+            return properties(level, flags, AARCH64_PUBLISHED);
+        }
+        return Collections.emptyMap();
+    }
+
+    private static Map<String, String> properties(String level, Set<String> flags, List<String> published) {
+        HashMap<String, String> result = new HashMap<>();
+        result.put(CPU_LEVEL, level);
+        for (String flag : published) {
+            if (flags.contains(flag)) {
+                result.put(CPU_FEATURE_PREFIX + flag, "true");
+            }
+        }
+        return Collections.unmodifiableMap(result);
+    }
+
+    /**
+     * Reads the flags of first processor entry: stops at first line with given key.
+     */
+    private static Set<String> readFlags(Path cpuinfo, String key) {
+        HashSet<String> result = new HashSet<>();
+        try (BufferedReader reader = Files.newBufferedReader(cpuinfo, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                int colon = line.indexOf(':');
+                if (colon > 0 && key.equals(line.substring(0, colon).trim())) {
+                    String values = line.substring(colon + 1).trim();
+                    if (!values.isEmpty()) {
+                        result.addAll(Arrays.asList(values.split("\\s+")));
+                    }
+                    break;
+                }
+            }
+        } catch (IOException | SecurityException ignored) {
+            // Just absorb. Don't treat failure to read cpuinfo as an error.
+        }
+        return result;
+    }
+}
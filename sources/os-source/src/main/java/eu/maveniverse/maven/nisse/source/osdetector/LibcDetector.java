@@ -0,0 +1,231 @@
+/*
+ * Copyright (c) 2023-2024 Maveniverse Org.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-v20.html
+ */
+package eu.maveniverse.maven.nisse.source.osdetector;
+
+import static java.util.Objects.requireNonNull;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Detects the libc flavor ({@code glibc} or {@code musl}) and version on Linux, without spawning processes. The
+ * flavor is decided by the ELF interpreter (dynamic loader) of the running executable (the JVM launcher), as that
+ * is the libc the process uses. The version is derived from versioned loader or libc file names, or from the glibc
+ * release string, or for musl, from the Alpine package database.
+ * <p>
+ * Created properties:
+ * <ul>
+ *     <li>{@code libc} - {@code glibc} or {@code musl}, if detected</li>
+ *     <li>{@code libc.version} - the libc version, if detected</li>
+ * </ul>
+ */
+final class LibcDetector {
+    static final String LIBC = "libc";
+    static final String LIBC_VERSION = "libc.version";
+    static final String GLIBC = "glibc";
+    static final String MUSL = "musl";
+
+    private static final int PT_INTERP = 3;
+    private static final int MAX_INTERPRETER_LENGTH = 4096;
+    private static final long MAX_SCANNED_BYTES = 16L * 1024 * 1024;
+
+    private static final Pattern VERSIONED_FILE = Pattern.compile("(?:ld|libc)-(\\d+\\.\\d+(?:\\.\\d+)?)\\.so");
+    private static final byte[] GLIBC_RELEASE = "release version ".getBytes(StandardCharsets.US_ASCII);
+
+    private LibcDetector() {}
+
+    /**
+     * Detects properties for given executable (usually {@code /proc/self/exe}), resolving absolute paths against
+     * given root (usually {@code /}). Returns empty map if nothing is detected.
+     */
+    static Map<String, String> detect(Path executable, Path root) {
+        requireNonNull(executable, "executable");
+        requireNonNull(root, "root");
+        String interpreter = interpreter(executable);
+        if (interpreter == null) {
+            return Collections.emptyMap();
+        }
+        String interpreterName = interpreter.substring(interpreter.lastIndexOf('/') + 1);
+        Path loader = root.resolve(interpreter.startsWith("/") ? interpreter.substring(1) : interpreter);
+
+        HashMap<String, String> result = new HashMap<>();
+        String version;
+        if (interpreterName.startsWith("ld-musl")) {
+            result.put(LIBC, MUSL);
+            version = muslVersion(root);
+        } else if (interpreterName.startsWith("ld-linux") || interpreterName.startsWith("ld64.so")) {
+            result.put(LIBC, GLIBC);
+            version = glibcVersion(loader);
+        } else {
+            return Collections.emptyMap();
+        }
+        if (version != null) {
+            result.put(LIBC_VERSION, version);
+        }
+        return Collections.unmodifiableMap(result);
+    }
+
+    /**
+     * Returns the ELF interpreter ({@code PT_INTERP} segment) of given file, or {@code null} if file is not a
+     * dynamically linked ELF file or is not readable.
+     */
+    static String interpreter(Path file) {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer header = read(channel, 0, 64);
+            if (header.limit() < 52
+                    || header.get(0) != 0x7f
+                    || header.get(1) != 'E'
+                    || header.get(2) != 'L'
+                    || header.get(3) != 'F') {
+                return null;
+            }
+            boolean is64 = header.get(4) == 2;
+            ByteOrder order = header.get(5) == 2 ? ByteOrder.BIG_ENDIAN : ByteOrder.LITTLE_ENDIAN;
+            header.order(order);
+            long phoff = is64 ? header.getLong(0x20) : header.getInt(0x1C) & 0xFFFFFFFFL;
+            int phentsize = header.getShort(is64 ? 0x36 : 0x2A) & 0xFFFF;
+            int phnum = header.getShort(is64 ? 0x38 : 0x2C) & 0xFFFF;
+            if (phoff <= 0 || phentsize < (is64 ? 56 : 32)) {
+                return null;
+            }
+            ByteBuffer headers = read(channel, phoff, phentsize * phnum).order(order);
+            for (int i = 0; i + phentsize <= headers.limit(); i += phentsize) {
+                if (headers.getInt(i) != PT_INTERP) {
+                    continue;
+                }
+                long offset = is64 ? headers.getLong(i + 0x08) : headers.getInt(i + 0x04) & 0xFFFFFFFFL;
+                long size = is64 ? headers.getLong(i + 0x20) : headers.getInt(i + 0x10) & 0xFFFFFFFFL;
+                if (offset <= 0 || size <= 0 || size > MAX_INTERPRETER_LENGTH) {
+                    return null;
+                }
+                ByteBuffer interp = read(channel, offset, (int) size);
+                int length = 0;
+                while (length < interp.limit() && interp.get(length) != 0) {
+                    length++;
+                }
+                byte[] bytes = new byte[length];
+                interp.get(bytes);
+                return length > 0 ? new String(bytes, StandardCharsets.US_ASCII) : null;
+            }
+            return null;
+        } catch (IOException | SecurityException | IllegalArgumentException e) {
+            // Just absorb. Don't treat failure to read executable as an error.
+            return null;
+        }
+    }
+
+    private static ByteBuffer read(FileChannel channel, long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                break;
+            }
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    /**
+     * Older glibc has versioned file names (ie. {@code ld-2.31.so} or {@code libc-2.31.so}), newer is identified by
+     * the release string in {@code libc.so.6} next to the loader.
+     */
+    private static String glibcVersion(Path loader) {
+        try {
+            Path realLoader = loader.toRealPath();
+            String version = versionedFile(realLoader);
+            if (version != null) {
+                return version;
+            }
+            Path libc = realLoader.resolveSibling("libc.so.6");
+            if (!Files.isRegularFile(libc)) {
+                return null;
+            }
+            Path realLibc = libc.toRealPath();
+            version = versionedFile(realLibc);
+            return version != null ? version : glibcRelease(realLibc);
+        } catch (IOException | SecurityException e) {
+            return null;
+        }
+    }
+
+    private static String versionedFile(Path file) {
+        Matcher matcher = VERSIONED_FILE.matcher(file.getFileName().toString());
+        return matcher.matches() ? matcher.group(1) : null;
+    }
+
+    /**
+     * Scans given file for {@code "... release version X.Y"} string embedded in glibc.
+     */
+    private static String glibcRelease(Path libc) throws IOException {
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(libc), 64 * 1024)) {
+            int matched = 0;
+            long read = 0;
+            int b;
+            while ((b = in.read()) >= 0 && read++ < MAX_SCANNED_BYTES) {
+                if (b == GLIBC_RELEASE[matched]) {
+                    matched++;
+                    if (matched == GLIBC_RELEASE.length) {
+                        StringBuilder version = new StringBuilder();
+                        while ((b = in.read()) >= 0 && (Character.isDigit(b) || b == '.')) {
+                            version.append((char) b);
+                        }
+                        while (version.length() > 0 && version.charAt(version.length() - 1) == '.') {
+                            version.setLength(version.length() - 1);
+                        }
+                        return version.length() > 0 ? version.toString() : null;
+                    }
+                } else {
+                    matched = b == GLIBC_RELEASE[0] ? 1 : 0;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * The musl library has no version API nor embedded version, so use the Alpine package database.
+     */
+    private static String muslVersion(Path root) {
+        Path installed = root.resolve("lib/apk/db/installed");
+        if (!Files.isRegularFile(installed)) {
+            return null;
+        }
+        try (BufferedReader reader = Files.newBufferedReader(installed, StandardCharsets.UTF_8)) {
+            boolean musl = false;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isEmpty()) {
+                    musl = false;
+                } else if (line.equals("P:musl")) {
+                    musl = true;
+                } else if (musl && line.startsWith("V:")) {
+                    String version = line.substring(2);
+                    int release = version.indexOf("-r");
+                    return release > 0 ? version.substring(0, release) : version;
+                }
+            }
+        } catch (IOException | SecurityException e) {
+            // Just absorb. Don't treat failure to read package database as an error.
+        }
+        return null;
+    }
+}
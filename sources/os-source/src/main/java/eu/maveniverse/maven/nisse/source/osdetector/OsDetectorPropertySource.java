@@ -18,9 +18,11 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import javax.inject.Named;
@@ -28,13 +30,24 @@ import javax.inject.Singleton;
 
 /**
  * OS source heavily inspired by <a href="https://github.com/trustin/os-maven-plugin">trustin/os-maven-plugin</a>.
- * This source creates properties in constructor and keeps the forever.
+ * Besides OS detection, the effective CPU count and memory limit are provided, honoring Linux cgroup (container)
+ * limits, see {@link ContainerResources}. On Linux, CPU feature flags and microarchitecture level are provided as
+ * well, see {@link CpuFeatures}, and the libc flavor, see {@link LibcDetector}.
+ * <p>
+ * Detected properties are memoized process-wide, keyed by the system properties detection depends on, so repeated
+ * invocations (in daemons, or by several plugin executions) do not repeat the detection.
  */
 @Singleton
 @Named(OsDetectorPropertySource.NAME)
 public class OsDetectorPropertySource implements PropertySource {
     public static final String NAME = "os";
 
+    /**
+     * Configuration key: if {@code true}, the classifier of Linux systems using libc other than glibc gets the libc
+     * flavor suffix, ie. {@code linux-x86_64-musl}. Default is {@code false}.
+     */
+    public static final String LIBC_CLASSIFIER = NisseConfiguration.SOURCE_PREFIX + NAME + ".libcClassifier";
+
     private static final String DETECTED_NAME = "name";
     private static final String DETECTED_ARCH = "arch";
     private static final String DETECTED_BITNESS = "bitness";
@@ -57,17 +70,100 @@ public class OsDetectorPropertySource implements PropertySource {
     private static final Pattern VERSION_REGEX = Pattern.compile("((\\d+)\\.(\\d+)).*");
     private static final Pattern REDHAT_MAJOR_VERSION_REGEX = Pattern.compile("(\\d+)");
 
+    /**
+     * The system properties detection depends on, in order used as cache key (along with {@link #LIBC_CLASSIFIER}).
+     */
+    private static final String[] KEY_PROPERTIES = {
+        "os.name", "os.arch", "os.version", "sun.arch.data.model", "com.ibm.vm.bitmode", "failOnUnknownOS"
+    };
+
+    /**
+     * Normalized architecture names, keyed by normalized {@code os.arch} values.
+     */
+    private static final Map<String, String> ARCHITECTURES = new HashMap<>();
+
+    static {
+        architecture("x86_64", "x8664", "amd64", "ia32e", "em64t", "x64");
+        architecture("x86_32", "x8632", "x86", "i386", "i486", "i586", "i686", "ia32", "x32");
+        architecture("itanium_64", "ia64", "ia64w", "itanium64");
+        architecture("itanium_32", "ia64n");
+        architecture("sparc_32", "sparc", "sparc32");
+        architecture("sparc_64", "sparcv9", "sparc64");
+        architecture("arm_32", "arm", "arm32");
+        architecture("aarch_64", "aarch64");
+        architecture("mips_32", "mips", "mips32");
+        architecture("mipsel_32", "mipsel", "mips32el");
+        architecture("mips_64", "mips64");
+        architecture("mipsel_64", "mips64el");
+        architecture("ppc_32", "ppc", "ppc32");
+        architecture("ppcle_32", "ppcle", "ppc32le");
+        architecture("ppc_64", "ppc64");
+        architecture("ppcle_64", "ppc64le");
+        architecture("s390_32", "s390");
+        architecture("s390_64", "s390x");
+        architecture("riscv", "riscv", "riscv32");
+        architecture("riscv64", "riscv64");
+        architecture("e2k", "e2k");
+        architecture("loongarch_64", "loongarch64");
+    }
+
+    /**
+     * The keys this source may provide, key families end with {@code .}.
+     */
+    private static final List<String> PROPERTY_KEYS = Collections.unmodifiableList(Arrays.asList(
+            DETECTED_NAME,
+            DETECTED_ARCH,
+            DETECTED_BITNESS,
+            DETECTED_VERSION,
+            DETECTED_VERSION_MAJOR,
+            DETECTED_VERSION_MINOR,
+            DETECTED_CLASSIFIER,
+            DETECTED_RELEASE,
+            DETECTED_RELEASE_VERSION,
+            DETECTED_RELEASE_LIKE_PREFIX,
+            ContainerResources.CPU_COUNT,
+            ContainerResources.CPU_COUNT_HOST,
+            ContainerResources.MEMORY_LIMIT,
+            ContainerResources.MEMORY_TOTAL,
+            ContainerResources.CONTAINER,
+            ContainerResources.CONTAINER_TYPE,
+            ContainerResources.CGROUP_VERSION,
+            CpuFeatures.CPU_LEVEL,
+            CpuFeatures.CPU_FEATURE_PREFIX,
+            LibcDetector.LIBC,
+            LibcDetector.LIBC_VERSION));
+
+    private static final ConcurrentHashMap<List<String>, Map<String, String>> DETECTED = new ConcurrentHashMap<>();
+
     @Override
     public String getName() {
         return NAME;
     }
 
+    @Override
+    public Collection<String> getPropertyKeys(NisseConfiguration configuration) {
+        return PROPERTY_KEYS;
+    }
+
     @Override
     public Map<String, String> getProperties(NisseConfiguration configuration) {
-        return detectOs(configuration.getSystemProperties());
+        Map<String, String> systemProperties = configuration.getSystemProperties();
+        boolean libcClassifier = Boolean.parseBoolean(configuration.getConfiguration().get(LIBC_CLASSIFIER));
+        String[] key = new String[KEY_PROPERTIES.length + 1];
+        for (int i = 0; i < KEY_PROPERTIES.length; i++) {
+            key[i] = systemProperties.get(KEY_PROPERTIES[i]);
+        }
+        key[KEY_PROPERTIES.length] = Boolean.toString(libcClassifier);
+        return DETECTED.computeIfAbsent(Arrays.asList(key), k -> detectOs(systemProperties, libcClassifier));
     }
 
-    private static Map<String, String> detectOs(Map<String, String> systemProperties) {
+    private static void architecture(String name, String... values) {
+        for (String value : values) {
+            ARCHITECTURES.put(value, name);
+        }
+    }
+
+    private static Map<String, String> detectOs(Map<String, String> systemProperties, boolean libcClassifier) {
         HashMap<String, String> result = new HashMap<>();
 
         final String osName = systemProperties.get("os.name");
@@ -116,6 +212,22 @@ public class OsDetectorPropertySource implements PropertySource {
                 result.put(propKey, "true");
             }
         }
+
+        // Effective resources: on Linux these may be limited by cgroups (ie. in a container).
+        if ("linux".equals(detectedName)) {
+            result.putAll(ContainerResources.detectLinux(Paths.get("/"), System.getenv()));
+            result.putAll(CpuFeatures.detect(Paths.get("/proc/cpuinfo"), detectedArch));
+
+            // The libc flavor of this process: glibc or musl (ie. Alpine).
+            Map<String, String> libc = LibcDetector.detect(Paths.get("/proc/self/exe"), Paths.get("/"));
+            result.putAll(libc);
+            String flavor = libc.get(LibcDetector.LIBC);
+            if (libcClassifier && flavor != null && !LibcDetector.GLIBC.equals(flavor)) {
+                detectedClassifierBuilder += '-' + flavor;
+            }
+        } else {
+            result.putAll(ContainerResources.detectOther());
+        }
         result.put(DETECTED_CLASSIFIER, detectedClassifierBuilder);
 
         return Collections.unmodifiableMap(result);
@@ -163,81 +275,21 @@ public class OsDetectorPropertySource implements PropertySource {
     }
 
     private static String normalizeArch(String value) {
-        value = normalize(value);
-        if (value.matches("^(x8664|amd64|ia32e|em64t|x64)$")) {
-            return "x86_64";
-        }
-        if (value.matches("^(x8632|x86|i[3-6]86|ia32|x32)$")) {
-            return "x86_32";
-        }
-        if (value.matches("^(ia64w?|itanium64)$")) {
-            return "itanium_64";
-        }
-        if ("ia64n".equals(value)) {
-            return "itanium_32";
-        }
-        if (value.matches("^(sparc|sparc32)$")) {
-            return "sparc_32";
-        }
-        if (value.matches("^(sparcv9|sparc64)$")) {
-            return "sparc_64";
-        }
-        if (value.matches("^(arm|arm32)$")) {
-            return "arm_32";
-        }
-        if ("aarch64".equals(value)) {
-            return "aarch_64";
-        }
-        if (value.matches("^(mips|mips32)$")) {
-            return "mips_32";
-        }
-        if (value.matches("^(mipsel|mips32el)$")) {
-            return "mipsel_32";
-        }
-        if ("mips64".equals(value)) {
-            return "mips_64";
-        }
-        if ("mips64el".equals(value)) {
-            return "mipsel_64";
-        }
-        if (value.matches("^(ppc|ppc32)$")) {
-            return "ppc_32";
-        }
-        if (value.matches("^(ppcle|ppc32le)$")) {
-            return "ppcle_32";
-        }
-        if ("ppc64".equals(value)) {
-            return "ppc_64";
-        }
-        if ("ppc64le".equals(value)) {
-            return "ppcle_64";
-        }
-        if ("s390".equals(value)) {
-            return "s390_32";
-        }
-        if ("s390x".equals(value)) {
-            return "s390_64";
-        }
-        if (value.matches("^(riscv|riscv32)$")) {
-            return "riscv";
-        }
-        if ("riscv64".equals(value)) {
-            return "riscv64";
-        }
-        if ("e2k".equals(value)) {
-            return "e2k";
-        }
-        if ("loongarch64".equals(value)) {
-            return "loongarch_64";
-        }
-        return UNKNOWN;
+        return ARCHITECTURES.getOrDefault(normalize(value), UNKNOWN);
     }
 
     private static String normalize(String value) {
         if (value == null) {
             return "";
         }
-        return value.toLowerCase(Locale.US).replaceAll("[^a-z0-9]+", "");
+        StringBuilder result = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = Character.toLowerCase(value.charAt(i));
+            if ((c >= 'a' && c <= 'z') || (c >= '0' && c <= '9')) {
+                result.append(c);
+            }
+        }
+        return result.toString();
     }
 
     private static LinuxRelease getLinuxRelease() {
@@ -351,14 +403,14 @@ public class OsDetectorPropertySource implements PropertySource {
         // try the widely adopted sun specification first.
         String bitness = systemProperties.getOrDefault("sun.arch.data.model", "");
 
-        if (!bitness.isEmpty() && bitness.matches("[0-9]+")) {
+        if (isDigits(bitness)) {
             return Integer.parseInt(bitness, 10);
         }
 
         // bitness from sun.arch.data.model cannot be used. Try the IBM specification.
         bitness = systemProperties.getOrDefault("com.ibm.vm.bitmode", "");
 
-        if (!bitness.isEmpty() && bitness.matches("[0-9]+")) {
+        if (isDigits(bitness)) {
             return Integer.parseInt(bitness, 10);
         }
 
@@ -366,6 +418,18 @@ public class OsDetectorPropertySource implements PropertySource {
         return guessBitnessFromArchitecture(architecture);
     }
 
+    private static boolean isDigits(String value) {
+        if (value.isEmpty()) {
+            return false;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) < '0' || value.charAt(i) > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+
     public static int guessBitnessFromArchitecture(final String arch) {
         if (arch.contains("64")) {
             return 64;
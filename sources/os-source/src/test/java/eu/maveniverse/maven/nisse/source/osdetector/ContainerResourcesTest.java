@@ -0,0 +1,118 @@
+package eu.maveniverse.maven.nisse.source.osdetector;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class ContainerResourcesTest {
+    @Test
+    void cpuList() {
+        assertEquals(4, ContainerResources.countCpus("0-3"));
+        assertEquals(6, ContainerResources.countCpus("0-3,8,10\n"));
+        assertEquals(Integer.MAX_VALUE, ContainerResources.countCpus(""));
+        assertEquals(Integer.MAX_VALUE, ContainerResources.countCpus("3-1"));
+    }
+
+    @Test
+    void quota() {
+        assertEquals(2, ContainerResources.quotaCpus(150000, 100000));
+        assertEquals(1, ContainerResources.quotaCpus(10000, 100000));
+        assertEquals(Integer.MAX_VALUE, ContainerResources.quotaCpus(-1, 100000));
+    }
+
+    @Test
+    void host(@TempDir Path root) throws IOException {
+        host(root, "0-15", 32 * 1024 * 1024);
+
+        Map<String, String> properties = ContainerResources.detectLinux(root, Collections.emptyMap());
+        assertEquals("16", properties.get(ContainerResources.CPU_COUNT));
+        assertEquals("16", properties.get(ContainerResources.CPU_COUNT_HOST));
+        assertEquals("34359738368", properties.get(ContainerResources.MEMORY_LIMIT));
+        assertEquals("34359738368", properties.get(ContainerResources.MEMORY_TOTAL));
+        assertEquals("false", properties.get(ContainerResources.CONTAINER));
+        assertNull(properties.get(ContainerResources.CGROUP_VERSION));
+    }
+
+    @Test
+    void cgroupV2Namespaced(@TempDir Path root) throws IOException {
+        host(root, "0-15", 32 * 1024 * 1024);
+        write(root, "proc/self/cgroup", "0::/");
+        write(root, ".dockerenv", "");
+        write(root, "sys/fs/cgroup/cgroup.controllers", "cpuset cpu io memory pids");
+        write(root, "sys/fs/cgroup/cpu.max", "250000 100000");
+        write(root, "sys/fs/cgroup/memory.max", "4294967296");
+
+        Map<String, String> properties = ContainerResources.detectLinux(root, Collections.emptyMap());
+        assertEquals("2", properties.get(ContainerResources.CGROUP_VERSION));
+        assertEquals("3", properties.get(ContainerResources.CPU_COUNT));
+        assertEquals("16", properties.get(ContainerResources.CPU_COUNT_HOST));
+        assertEquals("4294967296", properties.get(ContainerResources.MEMORY_LIMIT));
+        assertEquals("true", properties.get(ContainerResources.CONTAINER));
+        assertEquals("docker", properties.get(ContainerResources.CONTAINER_TYPE));
+    }
+
+    @Test
+    void cgroupV2Nested(@TempDir Path root) throws IOException {
+        host(root, "0-7", 16 * 1024 * 1024);
+        write(root, "proc/self/cgroup", "0::/build.slice/agent.service");
+        write(root, "sys/fs/cgroup/cgroup.controllers", "cpuset cpu io memory pids");
+        write(root, "sys/fs/cgroup/build.slice/cpu.max", "max 100000");
+        write(root, "sys/fs/cgroup/build.slice/memory.max", "2147483648");
+        write(root, "sys/fs/cgroup/build.slice/agent.service/cpuset.cpus.effective", "0-1");
+        write(root, "sys/fs/cgroup/build.slice/agent.service/memory.max", "max");
+
+        Map<String, String> properties =
+                ContainerResources.detectLinux(root, Collections.singletonMap("KUBERNETES_SERVICE_HOST", "10.0.0.1"));
+        assertEquals("2", properties.get(ContainerResources.CPU_COUNT));
+        assertEquals("2147483648", properties.get(ContainerResources.MEMORY_LIMIT));
+        assertEquals("kubernetes", properties.get(ContainerResources.CONTAINER_TYPE));
+    }
+
+    @Test
+    void cgroupV1(@TempDir Path root) throws IOException {
+        host(root, "0-31", 64 * 1024 * 1024);
+        write(
+                root,
+                "proc/self/cgroup",
+                "12:memory:/kubepods/pod1/abc\n4:cpu,cpuacct:/kubepods/pod1/abc\n3:cpuset:/kubepods/pod1/abc");
+        // mounted from within container namespace: limits are at mount root
+        write(root, "sys/fs/cgroup/cpu,cpuacct/cpu.cfs_quota_us", "400000");
+        write(root, "sys/fs/cgroup/cpu,cpuacct/cpu.cfs_period_us", "100000");
+        write(root, "sys/fs/cgroup/memory/memory.limit_in_bytes", "9223372036854771712");
+
+        Map<String, String> properties = ContainerResources.detectLinux(root, Collections.emptyMap());
+        assertEquals("1", properties.get(ContainerResources.CGROUP_VERSION));
+        assertEquals("4", properties.get(ContainerResources.CPU_COUNT));
+        assertEquals("68719476736", properties.get(ContainerResources.MEMORY_LIMIT));
+        assertEquals("kubernetes", properties.get(ContainerResources.CONTAINER_TYPE));
+    }
+
+    @Test
+    void other() {
+        Map<String, String> properties = ContainerResources.detectOther();
+        assertEquals(
+                Integer.toString(Runtime.getRuntime().availableProcessors()),
+                properties.get(ContainerResources.CPU_COUNT));
+        assertFalse(properties.containsKey(ContainerResources.MEMORY_LIMIT));
+    }
+
+    private static void host(Path root, String cpus, long memoryKb) throws IOException {
+        write(root, "sys/devices/system/cpu/online", cpus);
+        write(root, "proc/meminfo", "MemTotal:       " + memoryKb + " kB\nMemFree:         1024 kB");
+    }
+
+    private static void write(Path root, String path, String content) throws IOException {
+        Path file = root.resolve(path);
+        Files.createDirectories(file.getParent());
+        Files.write(file, (content + "\n").getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,78 @@
+package eu.maveniverse.maven.nisse.source.osdetector;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class CpuFeaturesTest {
+    private static final String X86_64_V2 = "fpu cx8 cmov mmx fxsr sse sse2 syscall lm pni ssse3 cx16 sse4_1 sse4_2"
+            + " popcnt lahf_lm aes pclmulqdq";
+
+    private static final String X86_64_V3 = X86_64_V2 + " avx avx2 bmi1 bmi2 f16c fma abm movbe xsave";
+
+    @Test
+    void x86(@TempDir Path dir) throws IOException {
+        assertEquals("x86-64-v1", detect(dir, "flags\t\t: fpu cx8 cmov mmx fxsr sse sse2 syscall lm", "x86_64")
+                .get(CpuFeatures.CPU_LEVEL));
+
+        Map<String, String> properties = detect(dir, "flags\t\t: " + X86_64_V2, "x86_64");
+        assertEquals("x86-64-v2", properties.get(CpuFeatures.CPU_LEVEL));
+        assertEquals("true", properties.get("cpu.feature.sse3"));
+        assertEquals("true", properties.get("cpu.feature.aes"));
+        assertFalse(properties.containsKey("cpu.feature.avx2"));
+        assertFalse(properties.containsKey("cpu.feature.pni"));
+
+        properties = detect(dir, "flags\t\t: " + X86_64_V3, "x86_64");
+        assertEquals("x86-64-v3", properties.get(CpuFeatures.CPU_LEVEL));
+        assertEquals("true", properties.get("cpu.feature.avx2"));
+
+        properties = detect(dir, "flags\t\t: " + X86_64_V3 + " avx512f avx512bw avx512cd avx512dq avx512vl", "x86_64");
+        assertEquals("x86-64-v4", properties.get(CpuFeatures.CPU_LEVEL));
+    }
+
+    @Test
+    void aarch64(@TempDir Path dir) throws IOException {
+        assertEquals(
+                "armv8-a",
+                detect(dir, "Features\t: fp asimd evtstrm aes pmull sha1 sha2 crc32 cpuid", "aarch_64")
+                        .get(CpuFeatures.CPU_LEVEL));
+
+        Map<String, String> properties = detect(
+                dir,
+                "Features\t: fp asimd aes pmull sha1 sha2 crc32 atomics fphp asimdhp asimdrdm dcpop asimddp",
+                "aarch_64");
+        assertEquals("armv8.2-a", properties.get(CpuFeatures.CPU_LEVEL));
+        assertEquals("true", properties.get("cpu.feature.asimddp"));
+        assertFalse(properties.containsKey("cpu.feature.sve"));
+
+        assertEquals(
+                "armv9-a",
+                detect(
+                                dir,
+                                "Features\t: fp asimd crc32 atomics fphp asimdhp asimdrdm dcpop sve sve2",
+                                "aarch_64")
+                        .get(CpuFeatures.CPU_LEVEL));
+    }
+
+    @Test
+    void unsupported(@TempDir Path dir) throws IOException {
+        assertTrue(detect(dir, "flags\t\t: " + X86_64_V3, "aarch_64").isEmpty());
+        assertTrue(detect(dir, "flags\t\t: " + X86_64_V3, "ppcle_64").isEmpty());
+        assertTrue(CpuFeatures.detect(dir.resolve("missing"), "x86_64").isEmpty());
+    }
+
+    private static Map<String, String> detect(Path dir, String flagsLine, String arch) throws IOException {
+        Path cpuinfo = dir.resolve("cpuinfo");
+        String content = "processor\t: 0\nvendor_id\t: Synthetic\n" + flagsLine + "\n\nprocessor\t: 1\n";
+        Files.write(cpuinfo, content.getBytes(StandardCharsets.UTF_8));
+        return CpuFeatures.detect(cpuinfo, arch);
+    }
+}
@@ -0,0 +1,122 @@
+package eu.maveniverse.maven.nisse.source.osdetector;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledOnOs;
+import org.junit.jupiter.api.condition.OS;
+import org.junit.jupiter.api.io.TempDir;
+
+public class LibcDetectorTest {
+    @Test
+    @EnabledOnOs(OS.LINUX)
+    void self() {
+        // the JVM running the tests is dynamically linked against either of them
+        Map<String, String> properties = LibcDetector.detect(Paths.get("/proc/self/exe"), Paths.get("/"));
+        String libc = properties.get(LibcDetector.LIBC);
+        assertTrue(LibcDetector.GLIBC.equals(libc) || LibcDetector.MUSL.equals(libc), "libc: " + libc);
+        String version = properties.get(LibcDetector.LIBC_VERSION);
+        assertTrue(version == null || version.matches("\\d+\\.\\d+(\\.\\d+)?"), "libc.version: " + version);
+    }
+
+    @Test
+    void interpreter(@TempDir Path root) throws IOException {
+        Path elf64 = elf(root.resolve("java64"), true, ByteOrder.LITTLE_ENDIAN, "/lib64/ld-linux-x86-64.so.2");
+        assertEquals("/lib64/ld-linux-x86-64.so.2", LibcDetector.interpreter(elf64));
+        Path elf32 = elf(root.resolve("java32"), false, ByteOrder.BIG_ENDIAN, "/lib/ld.so.1");
+        assertEquals("/lib/ld.so.1", LibcDetector.interpreter(elf32));
+
+        Path script = root.resolve("script");
+        Files.write(script, "#!/bin/sh\n".getBytes(StandardCharsets.US_ASCII));
+        assertNull(LibcDetector.interpreter(script));
+        assertNull(LibcDetector.interpreter(root.resolve("missing")));
+    }
+
+    @Test
+    void glibcVersionedFile(@TempDir Path root) throws IOException {
+        Path exe = elf(root.resolve("java"), true, ByteOrder.LITTLE_ENDIAN, "/lib64/ld-linux-x86-64.so.2");
+        write(root, "lib/x86_64-linux-gnu/ld-2.31.so", "loader");
+        Files.createDirectories(root.resolve("lib64"));
+        Files.createSymbolicLink(
+                root.resolve("lib64/ld-linux-x86-64.so.2"), root.resolve("lib/x86_64-linux-gnu/ld-2.31.so"));
+
+        Map<String, String> properties = LibcDetector.detect(exe, root);
+        assertEquals("glibc", properties.get(LibcDetector.LIBC));
+        assertEquals("2.31", properties.get(LibcDetector.LIBC_VERSION));
+    }
+
+    @Test
+    void glibcRelease(@TempDir Path root) throws IOException {
+        Path exe = elf(root.resolve("java"), true, ByteOrder.LITTLE_ENDIAN, "/lib/ld-linux-aarch64.so.1");
+        write(root, "lib/ld-linux-aarch64.so.1", "loader");
+        write(root, "lib/libc.so.6", "\0\0GNU C Library (GLIBC 2.39-0ubuntu8) stable release version 2.39.\n\0");
+
+        Map<String, String> properties = LibcDetector.detect(exe, root);
+        assertEquals("glibc", properties.get(LibcDetector.LIBC));
+        assertEquals("2.39", properties.get(LibcDetector.LIBC_VERSION));
+    }
+
+    @Test
+    void musl(@TempDir Path root) throws IOException {
+        Path exe = elf(root.resolve("java"), true, ByteOrder.LITTLE_ENDIAN, "/lib/ld-musl-x86_64.so.1");
+        write(root, "lib/apk/db/installed", "P:busybox\nV:1.36.1-r29\n\nP:musl\nV:1.2.5-r0\nA:x86_64\n");
+
+        Map<String, String> properties = LibcDetector.detect(exe, root);
+        assertEquals("musl", properties.get(LibcDetector.LIBC));
+        assertEquals("1.2.5", properties.get(LibcDetector.LIBC_VERSION));
+    }
+
+    @Test
+    void unknown(@TempDir Path root) throws IOException {
+        Path exe = elf(root.resolve("java"), true, ByteOrder.LITTLE_ENDIAN, "/system/bin/linker64");
+        assertTrue(LibcDetector.detect(exe, root).isEmpty());
+    }
+
+    /**
+     * Writes minimal ELF file having only a {@code PT_INTERP} program header.
+     */
+    private static Path elf(Path file, boolean is64, ByteOrder order, String interpreter) throws IOException {
+        byte[] interp = (interpreter + "\0").getBytes(StandardCharsets.US_ASCII);
+        int headerSize = is64 ? 64 : 52;
+        int phentsize = is64 ? 56 : 32;
+        ByteBuffer buffer = ByteBuffer.allocate(headerSize + phentsize + interp.length).order(order);
+        buffer.put(new byte[] {
+            0x7f, 'E', 'L', 'F', (byte) (is64 ? 2 : 1), (byte) (order == ByteOrder.BIG_ENDIAN ? 2 : 1)
+        });
+        if (is64) {
+            buffer.putLong(0x20, headerSize);
+            buffer.putShort(0x36, (short) phentsize);
+            buffer.putShort(0x38, (short) 1);
+            buffer.putInt(headerSize, 3);
+            buffer.putLong(headerSize + 0x08, headerSize + phentsize);
+            buffer.putLong(headerSize + 0x20, interp.length);
+        } else {
+            buffer.putInt(0x1C, headerSize);
+            buffer.putShort(0x2A, (short) phentsize);
+            buffer.putShort(0x2C, (short) 1);
+            buffer.putInt(headerSize, 3);
+            buffer.putInt(headerSize + 0x04, headerSize + phentsize);
+            buffer.putInt(headerSize + 0x10, interp.length);
+        }
+        buffer.position(headerSize + phentsize);
+        buffer.put(interp);
+        Files.write(file, buffer.array());
+        return file;
+    }
+
+    private static void write(Path root, String path, String content) throws IOException {
+        Path file = root.resolve(path);
+        Files.createDirectories(file.getParent());
+        Files.write(file, content.getBytes(StandardCharsets.ISO_8859_1));
+    }
+}
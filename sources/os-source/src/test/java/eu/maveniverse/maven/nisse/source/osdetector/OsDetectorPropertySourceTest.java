@@ -1,7 +1,13 @@
 package eu.maveniverse.maven.nisse.source.osdetector;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
 import eu.maveniverse.maven.nisse.core.simple.SimpleNisseConfiguration;
 import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
 import org.junit.jupiter.api.Test;
 
 public class OsDetectorPropertySourceTest {
@@ -11,4 +17,51 @@ public class OsDetectorPropertySourceTest {
                 .getProperties(SimpleNisseConfiguration.builder().build())
                 .forEach((k, v) -> System.out.println(k + " = " + v));
     }
+
+    @Test
+    void memoized() {
+        Map<String, String> first = new OsDetectorPropertySource()
+                .getProperties(SimpleNisseConfiguration.builder().build());
+        Map<String, String> second = new OsDetectorPropertySource()
+                .getProperties(SimpleNisseConfiguration.builder().build());
+        assertSame(first, second);
+    }
+
+    @Test
+    void normalized() {
+        Map<String, String> properties = detect("Windows 11", "AMD64", "10.0", null);
+        assertEquals("windows", properties.get("name"));
+        assertEquals("x86_64", properties.get("arch"));
+        assertEquals("64", properties.get("bitness"));
+        assertEquals("windows-x86_64", properties.get("classifier"));
+        assertEquals("10", properties.get("version.major"));
+
+        properties = detect("FreeBSD", "i686", "14.1-RELEASE", null);
+        assertEquals("freebsd", properties.get("name"));
+        assertEquals("x86_32", properties.get("arch"));
+        assertEquals("32", properties.get("bitness"));
+
+        properties = detect("AIX", "ppc64", "7.3", "32");
+        assertEquals("ppc_64", properties.get("arch"));
+        assertEquals("32", properties.get("bitness"));
+
+        assertEquals("mipsel_32", detect("SunOS", "mips32el", "5.11", null).get("arch"));
+        assertEquals("loongarch_64", detect("SunOS", "loongarch64", "5.11", null).get("arch"));
+        assertThrows(IllegalStateException.class, () -> detect("SunOS", "i786", "5.11", null));
+        assertThrows(IllegalStateException.class, () -> detect("Plan 9", "x86_64", "4.0", null));
+    }
+
+    private static Map<String, String> detect(String osName, String osArch, String osVersion, String dataModel) {
+        Map<String, String> systemProperties = new HashMap<>();
+        systemProperties.put("os.name", osName);
+        systemProperties.put("os.arch", osArch);
+        systemProperties.put("os.version", osVersion);
+        if (dataModel != null) {
+            systemProperties.put("sun.arch.data.model", dataModel);
+        }
+        return new OsDetectorPropertySource()
+                .getProperties(SimpleNisseConfiguration.builder()
+                        .withSystemProperties(systemProperties)
+                        .build());
+    }
 }